@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.qstd.dbtype.DatabaseType;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthetic schema of the benchmarks: a chain of tables where TABLE_i references TABLE_i+1
+ * with a NOT NULL foreign key, up to TABLE_fkDepth. Each table has the given number of columns
+ * and the given number of rows, the row i of a table referencing the row i of the next table.
+ */
+class BenchmarkSchema {
+
+    static final String ROOT_TABLE = "TABLE_0";
+
+    private static final AtomicInteger DATABASE_COUNT = new AtomicInteger();
+
+    private static final Timestamp FIRST_TIMESTAMP = Timestamp.valueOf("2021-06-01 12:00:00");
+
+    private final int rowCount;
+
+    private final int columnCount;
+
+    private final int fkDepth;
+
+    BenchmarkSchema(int rowCount, int columnCount, int fkDepth) {
+        if (columnCount < 2) {
+            throw new IllegalArgumentException("A benchmark table has at least two columns, the primary key and the foreign key");
+        }
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.fkDepth = fkDepth;
+    }
+
+    HikariDataSource createDatabase(DatabaseType dbType) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(buildInMemoryJdbcUrl(dbType));
+        hikariConfig.setUsername("user");
+        hikariConfig.setPassword("pwd");
+        HikariDataSource dataSource = new HikariDataSource(hikariConfig);
+        try {
+            createTablesAndRows(dataSource);
+        } catch (SQLException e) {
+            dataSource.close();
+            throw new IllegalStateException("Unable to create the benchmark database", e);
+        }
+        return dataSource;
+    }
+
+    private static String buildInMemoryJdbcUrl(DatabaseType dbType) {
+        String databaseName = "benchmark" + DATABASE_COUNT.incrementAndGet();
+        switch (dbType) {
+            case H2: return "jdbc:h2:mem:" + databaseName;
+            case HSQLDB: return "jdbc:hsqldb:mem:" + databaseName;
+            default: throw new IllegalArgumentException("No embedded database for " + dbType);
+        }
+    }
+
+    private void createTablesAndRows(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            // The referenced tables are created and filled first
+            for (int tableIndex = fkDepth; tableIndex >= 0; tableIndex--) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(buildCreateTableStatement(tableIndex));
+                }
+                insertRows(connection, tableIndex);
+            }
+        }
+    }
+
+    private String buildCreateTableStatement(int tableIndex) {
+        StringBuilder createTable = new StringBuilder("CREATE TABLE " + tableNameOf(tableIndex) + "(ID INTEGER NOT NULL");
+        List<String> columnNames = columnNamesOf(tableIndex);
+        for (int columnIndex = 1; columnIndex < columnNames.size(); columnIndex++) {
+            createTable.append(", ").append(columnNames.get(columnIndex)).append(' ').append(sqlTypeOf(columnIndex, tableIndex));
+        }
+        createTable.append(", PRIMARY KEY (ID)");
+        if (hasParent(tableIndex)) {
+            createTable.append(", FOREIGN KEY (PARENT_ID) REFERENCES ").append(tableNameOf(tableIndex + 1)).append("(ID)");
+        }
+        return createTable.append(')').toString();
+    }
+
+    private String sqlTypeOf(int columnIndex, int tableIndex) {
+        if (columnIndex == 1 && hasParent(tableIndex)) {
+            return "INTEGER NOT NULL";
+        }
+        switch (columnIndex % 3) {
+            case 0: return "VARCHAR(50)";
+            case 1: return "INTEGER";
+            default: return "TIMESTAMP";
+        }
+    }
+
+    private void insertRows(Connection connection, int tableIndex) throws SQLException {
+        List<String> columnNames = columnNamesOf(tableIndex);
+        String insert = "INSERT INTO " + tableNameOf(tableIndex)
+                      + " VALUES (" + String.join(", ", Collections.nCopies(columnNames.size(), "?")) + ")";
+        try (PreparedStatement insertStatement = connection.prepareStatement(insert)) {
+            for (int id = 1; id <= rowCount; id++) {
+                List<Object> values = valuesOf(tableIndex, id);
+                for (int position = 0; position < values.size(); position++) {
+                    insertStatement.setObject(position + 1, values.get(position));
+                }
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Builds in memory the rows of all the tables, as the rows fetched from the database would be,
+     * the rows of a table sharing the same layout.
+     */
+    List<DatasetRow> buildRows() {
+        List<DatasetRow> rows = new ArrayList<>(rowCount * (fkDepth + 1));
+        for (int tableIndex = 0; tableIndex <= fkDepth; tableIndex++) {
+            rows.addAll(buildRowsOf(tableIndex));
+        }
+        return rows;
+    }
+
+    List<DatasetRow> buildRowsOf(int tableIndex) {
+        List<String> columnNames = columnNamesOf(tableIndex);
+        TableLayout layout = TableLayout.of(columnNames);
+        List<DatasetRow> rows = new ArrayList<>(rowCount);
+        for (int id = 1; id <= rowCount; id++) {
+            DatasetRow row = DatasetRow.ofLayout(tableNameOf(tableIndex), layout);
+            List<Object> values = valuesOf(tableIndex, id);
+            for (int position = 0; position < values.size(); position++) {
+                row.setValueAt(position, values.get(position));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<Object> valuesOf(int tableIndex, int id) {
+        List<Object> values = new ArrayList<>(columnCount);
+        values.add(id);
+        for (int columnIndex = 1; columnIndex < columnCount; columnIndex++) {
+            if (columnIndex == 1 && hasParent(tableIndex)) {
+                values.add(id);
+                continue;
+            }
+            switch (columnIndex % 3) {
+                case 0:
+                    values.add("value's " + columnIndex + "-" + id);
+                    break;
+                case 1:
+                    values.add(columnIndex * id);
+                    break;
+                default:
+                    values.add(new Timestamp(FIRST_TIMESTAMP.getTime() + id * 1000L));
+            }
+        }
+        return values;
+    }
+
+    private List<String> columnNamesOf(int tableIndex) {
+        List<String> columnNames = new ArrayList<>(columnCount);
+        columnNames.add("ID");
+        for (int columnIndex = 1; columnIndex < columnCount; columnIndex++) {
+            boolean isForeignKey = columnIndex == 1 && hasParent(tableIndex);
+            columnNames.add(isForeignKey ? "PARENT_ID" : "COL_" + columnIndex);
+        }
+        return columnNames;
+    }
+
+    private boolean hasParent(int tableIndex) {
+        return tableIndex < fkDepth;
+    }
+
+    static String tableNameOf(int tableIndex) {
+        return "TABLE_" + tableIndex;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import org.openjdk.jmh.annotations.*;
+import org.qstd.dbtype.DatabaseType;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats a mix of column values as SQL literals.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnValueFormatterBenchmark {
+
+    @Param({"H2", "ORACLE", "POSTGRE_SQL"})
+    public DatabaseType dbType;
+
+    @Param({"1000"})
+    public int valueCount;
+
+    private ColumnValueFormatter columnValueFormatter;
+
+    private Object[] columnValues;
+
+    private final StringBuilder sqlText = new StringBuilder();
+
+    @Setup
+    public void setUp() {
+        columnValueFormatter = ColumnValueFormatter.of(dbType);
+        Object[] valueSamples = { "Mary's book"
+                                , 42
+                                , 123456789L
+                                , new BigDecimal("1234.56")
+                                , Timestamp.valueOf("2021-06-01 12:30:45.5")
+                                , Date.valueOf("2021-06-01")
+                                , Time.valueOf("12:30:45")
+                                , OffsetDateTime.of(2021, 6, 1, 12, 30, 45, 0, ZoneOffset.UTC)
+                                , new byte[] {1, 2, 3, 127}
+                                , UUID.fromString("7b3a1f8e-4c2d-4e5f-9a6b-1c2d3e4f5a6b")
+                                , true
+                                , null
+                                };
+        columnValues = new Object[valueCount];
+        for (int i = 0; i < valueCount; i++) {
+            columnValues[i] = valueSamples[i % valueSamples.length];
+        }
+    }
+
+    @Benchmark
+    public int appendColumnValues() {
+        sqlText.setLength(0);
+        for (Object columnValue : columnValues) {
+            columnValueFormatter.appendColumnValue(sqlText, columnValue);
+            sqlText.append(", ");
+        }
+        return sqlText.length();
+    }
+
+}
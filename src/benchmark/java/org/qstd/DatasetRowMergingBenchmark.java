@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges the rows fetched from the database into the joined rows only holding their primary key,
+ * as done when a joined row is met again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatasetRowMergingBenchmark {
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    @Param({"5", "20"})
+    public int columnCount;
+
+    private List<DatasetRow> fetchedRows;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSchema benchmarkSchema = new BenchmarkSchema(rowCount, columnCount, 0);
+        fetchedRows = benchmarkSchema.buildRowsOf(0);
+    }
+
+    @Benchmark
+    public void mergeRows(Blackhole blackhole) {
+        for (DatasetRow fetchedRow : fetchedRows) {
+            DatasetRow joinedRow = DatasetRow.ofTable(BenchmarkSchema.ROOT_TABLE)
+                                             .addColumnValue("ID", fetchedRow.getValueOf("ID"));
+            if (joinedRow.isMergeableWith(fetchedRow)) {
+                joinedRow.addValuesOf(fetchedRow);
+            }
+            blackhole.consume(joinedRow);
+        }
+    }
+
+}
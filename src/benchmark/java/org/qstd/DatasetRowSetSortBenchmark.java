@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.qstd.dbtype.DatabaseMetadataFinderFactory;
+import org.qstd.dbtype.DatabaseMetadataFinderWithCache;
+import org.qstd.dbtype.DatabaseType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts the rows of all the tables of the synthetic schema, the referenced rows first.
+ * The database metadata are cached before the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatasetRowSetSortBenchmark {
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    @Param({"5", "20"})
+    public int columnCount;
+
+    @Param({"1", "4"})
+    public int fkDepth;
+
+    private HikariDataSource dataSource;
+
+    private DatasetRowSet datasetRowSet;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSchema benchmarkSchema = new BenchmarkSchema(rowCount, columnCount, fkDepth);
+        dataSource = benchmarkSchema.createDatabase(DatabaseType.H2);
+        DatabaseMetadataFinder databaseMetadataFinder =
+                DatabaseMetadataFinderWithCache.buildFrom(DatabaseMetadataFinderFactory.createDatabaseMetadataFinderFrom(dataSource, DatabaseType.H2));
+        datasetRowSet = new DatasetRowSet(dataSource, DatabaseType.H2, databaseMetadataFinder, MetadataPrefetcher.NONE);
+        datasetRowSet.add(benchmarkSchema.buildRows());
+        datasetRowSet.sort();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<DatasetRow> sort() {
+        return datasetRowSet.sort();
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.qstd.dbtype.DatabaseType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the INSERT script of the rows of the root table of the synthetic schema
+ * and of all the rows they reference, against an embedded database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"H2", "HSQLDB"})
+    public DatabaseType dbType;
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    @Param({"5", "20"})
+    public int columnCount;
+
+    @Param({"1", "4"})
+    public int fkDepth;
+
+    private HikariDataSource dataSource;
+
+    private QuickSqlTestData quickSqlTestData;
+
+    @Setup
+    public void setUp() {
+        dataSource = new BenchmarkSchema(rowCount, columnCount, fkDepth).createDatabase(dbType);
+        quickSqlTestData = QuickSqlTestData.buildFrom(dataSource);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public String generateInsertScript() {
+        return quickSqlTestData.generateInsertScriptFor("SELECT * FROM " + BenchmarkSchema.ROOT_TABLE);
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import org.openjdk.jmh.annotations.*;
+import org.qstd.dbtype.DatabaseType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the INSERT script of the rows of one table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertStatementsGeneratorBenchmark {
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    @Param({"5", "20"})
+    public int columnCount;
+
+    @Param({"false", "true"})
+    public boolean multiRowInserts;
+
+    private InsertStatementsGenerator insertStatementsGenerator;
+
+    private List<DatasetRow> datasetRows;
+
+    @Setup
+    public void setUp() {
+        InsertStatementsGenerator insertStatementsGenerator = new InsertStatementsGenerator(DatabaseType.H2);
+        this.insertStatementsGenerator = multiRowInserts ? insertStatementsGenerator.withMultiRowInserts()
+                                                         : insertStatementsGenerator;
+        datasetRows = new BenchmarkSchema(rowCount, columnCount, 0).buildRowsOf(0);
+    }
+
+    @Benchmark
+    public String generateInsertScript() {
+        return insertStatementsGenerator.generateInsertScriptFor(datasetRows);
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import org.openjdk.jmh.annotations.*;
+import org.qstd.dbtype.DatabaseType;
+import org.qstd.test.SyntheticSchema;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the INSERT script of the rows of a chain of tables in synthetic schemas of growing size,
+ * with the database metadata retrieved for each generation (cold) or cached by a previous generation (warm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaScalingBenchmark {
+
+    @Param({"H2", "HSQLDB"})
+    public DatabaseType dbType;
+
+    @Param({"1", "20"})
+    public int chainCount;
+
+    @Param({"2", "10"})
+    public int chainDepth;
+
+    private DataSource dataSource;
+
+    private SyntheticSchema.Tables tables;
+
+    private String select;
+
+    private QuickSqlTestData warmQuickSqlTestData;
+
+    @Setup
+    public void setUp() {
+        dataSource = SyntheticSchema.buildEmbeddedDataSource(dbType, "scaling");
+        tables = SyntheticSchema.withSeed(42)
+                                .withChains(chainCount)
+                                .withChainDepth(chainDepth)
+                                .withRowsByTable(100)
+                                .withFanOut(10)
+                                .withCompositeKeys()
+                                .withSelfReferences()
+                                .createIn(dataSource);
+        select = "SELECT * FROM " + tables.getLastTableName(0) + " WHERE ID <= 10";
+        warmQuickSqlTestData = QuickSqlTestData.buildFrom(dataSource);
+        warmQuickSqlTestData.generateInsertScriptFor(select);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tables.drop();
+    }
+
+    @Benchmark
+    public String generateWithColdMetadata() {
+        return QuickSqlTestData.buildFrom(dataSource).generateInsertScriptFor(select);
+    }
+
+    @Benchmark
+    public String generateWithWarmMetadata() {
+        return warmQuickSqlTestData.generateInsertScriptFor(select);
+    }
+
+}
@@ -12,14 +12,13 @@
  */
 package org.qstd;
 
-import net.sf.jsqlparser.expression.BinaryExpression;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
 import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.SubSelect;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 
 class ColumnNamesExtractor {
@@ -29,47 +28,53 @@ class ColumnNamesExtractor {
     private ColumnNamesExtractor() {
     }
 
+    /**
+     * Collects the columns of an expression and of all its sub-expressions: parentheses, AND, OR,
+     * functions, IN, BETWEEN, CASE, ... A subquery is not visited.
+     */
     private static class ColumnExpressionVisitor extends ExpressionVisitorAdapter {
 
-        private String visitedColumnName;
+        private final Set<String> visitedColumnNames = new HashSet<>();
+
+        private boolean subSelectVisited;
 
         @Override
         public void visit(Column column) {
-            this.visitedColumnName = column.getColumnName();
+            visitedColumnNames.add(column.getColumnName());
         }
 
-        String getVisitedColumnName() {
-            return visitedColumnName;
+        @Override
+        public void visit(SubSelect subSelect) {
+            subSelectVisited = true;
         }
 
     }
 
+    /**
+     * Finds the columns of the expression, apart from the columns of its subqueries
+     */
     Set<String> findColumnNamesOf(Expression expression) {
-        Set<String> columnNames = new HashSet<>();
-        if (expression instanceof BinaryExpression) {
-            // AndExpression, OrExpression, LikeExpression, ...
-            BinaryExpression binaryExpression = (BinaryExpression) expression;
-            Collection<String> leftRightColumnNames = extractColumnNamesOf(binaryExpression);
-            columnNames.addAll(leftRightColumnNames);
-        } else if (expression != null) {
-            // Column names
-            ColumnExpressionVisitor columnExpressionVisitor = new ColumnExpressionVisitor();
-            expression.accept(columnExpressionVisitor);
-            String visitedColumnName = columnExpressionVisitor.getVisitedColumnName();
-            if(visitedColumnName != null) {
-                columnNames.add(visitedColumnName);
-            }
+        return visit(expression).visitedColumnNames;
+    }
+
+    /**
+     * Finds all the columns of the expression.
+     * @return empty if the expression has a subquery, whose columns may belong to other tables
+     */
+    Optional<Set<String>> findAllColumnNamesOf(Expression expression) {
+        ColumnExpressionVisitor columnExpressionVisitor = visit(expression);
+        if (columnExpressionVisitor.subSelectVisited) {
+            return Optional.empty();
         }
-        return columnNames;
+        return Optional.of(columnExpressionVisitor.visitedColumnNames);
     }
 
-    private Collection<String> extractColumnNamesOf(BinaryExpression binaryExpression) {
-        Collection<String> leftRightColumnNames = new ArrayList<>();
-        Collection<String> leftColumnNames = findColumnNamesOf(binaryExpression.getLeftExpression());
-        Collection<String> rightColumnNames = findColumnNamesOf(binaryExpression.getRightExpression());
-        leftRightColumnNames.addAll(leftColumnNames);
-        leftRightColumnNames.addAll(rightColumnNames);
-        return leftRightColumnNames;
+    private static ColumnExpressionVisitor visit(Expression expression) {
+        ColumnExpressionVisitor columnExpressionVisitor = new ColumnExpressionVisitor();
+        if (expression != null) {
+            expression.accept(columnExpressionVisitor);
+        }
+        return columnExpressionVisitor;
     }
 
 }
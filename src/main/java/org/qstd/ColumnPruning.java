@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyList;
+
+class ColumnPruning {
+
+    static final ColumnPruning NONE = new ColumnPruning(null) {
+        @Override
+        List<String> findColumnsToSelect(String tableName, Collection<String> referencedColumnNames) {
+            return emptyList();
+        }
+    };
+
+    private final DatabaseMetadataFinder databaseMetadataFinder;
+
+    ColumnPruning(DatabaseMetadataFinder databaseMetadataFinder) {
+        this.databaseMetadataFinder = databaseMetadataFinder;
+    }
+
+    /**
+     * Finds the columns of a table needed by the dataset: the referenced columns and the primary key,
+     * foreign key and not null columns, in the database declaration order.
+     * An empty list is returned when the columns of the table are unknown, all the columns have then to be selected.
+     */
+    List<String> findColumnsToSelect(String tableName, Collection<String> referencedColumnNames) {
+
+        Optional<String> optionalMetadataTableName = findMetadataTableNameOf(tableName);
+        if (!optionalMetadataTableName.isPresent()) {
+            return emptyList();
+        }
+        String metadataTableName = optionalMetadataTableName.get();
+
+        Set<String> neededColumnNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        neededColumnNames.addAll(referencedColumnNames);
+        neededColumnNames.addAll(databaseMetadataFinder.findPrimaryColumnsOf(metadataTableName));
+        neededColumnNames.addAll(databaseMetadataFinder.findNotNullColumnsOf(metadataTableName));
+        neededColumnNames.addAll(databaseMetadataFinder.findColumnsMappingsOf(metadataTableName).findMappedColumnNames());
+
+        List<String> columnsToSelect = new ArrayList<>();
+        for (String columnName : databaseMetadataFinder.findDatabaseColumnOrdersOf(metadataTableName)) {
+            if (neededColumnNames.contains(columnName)) {
+                columnsToSelect.add(columnName);
+            }
+        }
+        return columnsToSelect;
+
+    }
+
+    private Optional<String> findMetadataTableNameOf(String tableName) {
+        // An unquoted table name of a statement may have another case than in the metadata
+        Function<String, String> functionToHaveMetadataTableName = databaseMetadataFinder.getFunctionToHaveMetadataTableName();
+        List<String> candidateTableNames = Arrays.asList(functionToHaveMetadataTableName.apply(tableName)
+                                                        , tableName.toUpperCase()
+                                                        , tableName.toLowerCase());
+        return   candidateTableNames
+                .stream()
+                .filter(candidateTableName -> !databaseMetadataFinder.findDatabaseColumnOrdersOf(candidateTableName).isEmpty())
+                .findFirst();
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import org.qstd.dbtype.DatabaseType;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+
+/**
+ * Reads the value of a result set column with a getter depending on the JDBC type of the column.
+ * Timestamps with time zone are read as {@link OffsetDateTime} whatever the driver.
+ */
+@FunctionalInterface
+interface ColumnValueExtractor {
+
+    // microsoft.sql.Types.DATETIMEOFFSET
+    int MS_SQL_SERVER_DATETIMEOFFSET = -155;
+
+    Object extractFrom(ResultSet resultSet) throws SQLException;
+
+    static ColumnValueExtractor[] buildAllFrom(ResultSetMetaData resultSetMetaData, DatabaseType dbType) throws SQLException {
+        int columnCount = resultSetMetaData.getColumnCount();
+        ColumnValueExtractor[] columnValueExtractors = new ColumnValueExtractor[columnCount];
+        for (int colIndex = 1; colIndex <= columnCount; colIndex++) {
+            columnValueExtractors[colIndex - 1] = buildFrom(resultSetMetaData, colIndex, dbType);
+        }
+        return columnValueExtractors;
+    }
+
+    static ColumnValueExtractor buildFrom(ResultSetMetaData resultSetMetaData, int colIndex, DatabaseType dbType) throws SQLException {
+        if (DatabaseType.ORACLE.equals(dbType)) {
+            // Oracle dates and timestamps are formatted from the driver types
+            return resultSet -> resultSet.getObject(colIndex);
+        }
+        switch (resultSetMetaData.getColumnType(colIndex)) {
+            case Types.INTEGER:
+                if (!resultSetMetaData.isSigned(colIndex)) {
+                    break;
+                }
+                return resultSet -> {
+                    int value = resultSet.getInt(colIndex);
+                    return resultSet.wasNull() ? null : value;
+                };
+            case Types.BIGINT:
+                if (!resultSetMetaData.isSigned(colIndex)) {
+                    break;
+                }
+                return resultSet -> {
+                    long value = resultSet.getLong(colIndex);
+                    return resultSet.wasNull() ? null : value;
+                };
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return resultSet -> resultSet.getBigDecimal(colIndex);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return resultSet -> resultSet.getString(colIndex);
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+            case MS_SQL_SERVER_DATETIMEOFFSET:
+                return resultSet -> resultSet.getObject(colIndex, OffsetDateTime.class);
+            default:
+                break;
+        }
+        return resultSet -> resultSet.getObject(colIndex);
+    }
+
+}
@@ -12,99 +12,180 @@
  */
 package org.qstd;
 
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
 import org.qstd.dbtype.DatabaseType;
 
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.time.OffsetDateTime;
 import java.time.OffsetTime;
-import java.util.Calendar;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Formats the column values of a database type. The formatter of a value class is searched
+ * once, in the class hierarchy, and then kept for this class.
+ */
 class ColumnValueFormatter {
 
-    static final ColumnValueFormatter INSTANCE = new ColumnValueFormatter();
+    private static final DateTimeFormatter HSQL_DB_OFFSET_DATE_TIME_FORMATTER =
+            new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .parseLenient()
+            .appendOffset("+HH:MM", "Z")
+            .toFormatter();
+
+    private static final DateTimeFormatter OFFSET_DATE_TIME_FORMATTER =
+            new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .appendOffset("+HH:MM", "+00:00")
+            .toFormatter();
+
+    //https://stackoverflow.com/questions/9180014/using-oracle-to-date-function-for-date-string-with-milliseconds
+    // "An Oracle DATE does not store times with more precision than a second."
+    private static final DateTimeFormatter ORACLE_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-d-H-m-ss");
+
+    private static final ValueFormatter<Object> TO_STRING_FORMATTER = StringBuilder::append;
+
+    private static final ValueFormatter<Object> QUOTED_TO_STRING_FORMATTER =
+            (sqlText, value) -> sqlText.append('\'').append(value).append('\'');
+
+    private static final Map<DatabaseType, ColumnValueFormatter> DEFAULT_FORMATTER_BY_DB_TYPE = new EnumMap<>(DatabaseType.class);
 
-    private ColumnValueFormatter() { }
+    static {
+        for (DatabaseType dbType : DatabaseType.values()) {
+            DEFAULT_FORMATTER_BY_DB_TYPE.put(dbType, buildDefaultFormatterOf(dbType));
+        }
+    }
+
+    private final Map<Class<?>, ValueFormatter<?>> formatterByClass;
+
+    // For the classes of JDBC drivers that may be missing from the class path
+    private final Map<String, ValueFormatter<?>> formatterByClassName;
+
+    private final ClassValue<ValueFormatter<Object>> formatterOfClass = new ClassValue<ValueFormatter<Object>>() {
+        @Override
+        protected ValueFormatter<Object> computeValue(Class<?> valueClass) {
+            return searchFormatterOf(valueClass);
+        }
+    };
 
-    String formatColumnValue(Object columnValue, DatabaseType dbType) {
+    private ColumnValueFormatter( Map<Class<?>, ValueFormatter<?>> formatterByClass
+                                , Map<String, ValueFormatter<?>> formatterByClassName) {
+        this.formatterByClass = formatterByClass;
+        this.formatterByClassName = formatterByClassName;
+    }
+
+    static ColumnValueFormatter of(DatabaseType dbType) {
+        return DEFAULT_FORMATTER_BY_DB_TYPE.get(dbType);
+    }
+
+    private static ColumnValueFormatter buildDefaultFormatterOf(DatabaseType dbType) {
+
+        Map<Class<?>, ValueFormatter<?>> formatterByClass = new HashMap<>();
+        Map<String, ValueFormatter<?>> formatterByClassName = new HashMap<>();
+
+        SqlLiteralWriter sqlLiteralWriter = SqlLiteralWriter.of(dbType);
+        ValueFormatter<String> stringFormatter = sqlLiteralWriter::appendStringLiteral;
+        ValueFormatter<Clob> clobFormatter = sqlLiteralWriter::appendClobLiteral;
+        ValueFormatter<byte[]> binaryFormatter = sqlLiteralWriter::appendBinaryLiteral;
+        ValueFormatter<Blob> blobFormatter = sqlLiteralWriter::appendBlobLiteral;
+        formatterByClass.put(String.class, stringFormatter);
+        formatterByClass.put(Clob.class, clobFormatter);
+        formatterByClass.put(byte[].class, binaryFormatter);
+        formatterByClass.put(Blob.class, blobFormatter);
+        formatterByClass.put(java.sql.Date.class, QUOTED_TO_STRING_FORMATTER);
+        formatterByClass.put(Timestamp.class, QUOTED_TO_STRING_FORMATTER);
+        formatterByClass.put(Time.class, QUOTED_TO_STRING_FORMATTER);
+        formatterByClass.put(OffsetTime.class, QUOTED_TO_STRING_FORMATTER);
+        formatterByClass.put(OffsetDateTime.class, offsetDateTimeFormatterWith(OFFSET_DATE_TIME_FORMATTER));
+
+        if (DatabaseType.ORACLE.equals(dbType)) {
+            ValueFormatter<Timestamp> oracleTimestampFormatter = ColumnValueFormatter::appendOracleToDateFunctionFor;
+            formatterByClass.put(Timestamp.class, oracleTimestampFormatter);
+            formatterByClassName.put("oracle.sql.TIMESTAMP", ColumnValueFormatter::appendOracleToTimeStampFunctionFor);
+        } else if (DatabaseType.HSQLDB.equals(dbType)) {
+            formatterByClass.put(OffsetDateTime.class, offsetDateTimeFormatterWith(HSQL_DB_OFFSET_DATE_TIME_FORMATTER));
+        }
+
+        return new ColumnValueFormatter(formatterByClass, formatterByClassName);
+
+    }
+
+    <T> ColumnValueFormatter withFormatter(Class<T> valueClass, ValueFormatter<? super T> valueFormatter) {
+        Map<Class<?>, ValueFormatter<?>> formatterByClass = new HashMap<>(this.formatterByClass);
+        formatterByClass.put(valueClass, valueFormatter);
+        return new ColumnValueFormatter(formatterByClass, formatterByClassName);
+    }
+
+    void appendColumnValue(StringBuilder sqlText, Object columnValue) {
         if(columnValue == null) {
-            return "NULL";
-        } else if(DatabaseType.ORACLE.equals(dbType)
-               && columnValue instanceof Timestamp) {
-            Timestamp timeStamp = (Timestamp) columnValue;
-            return buildOracleToDateFunctionFor(timeStamp);
-        } else if(DatabaseType.ORACLE.equals(dbType)
-               && isOracleSqlTimestamp(columnValue)) {
-            return buildOracleToTimeStampFunctionFor(columnValue);
-        }else if(DatabaseType.HSQLDB.equals(dbType)
-               && columnValue instanceof OffsetDateTime){
-            OffsetDateTime offsetDateTime = (OffsetDateTime) columnValue;
-            return formatForHsqlDBOffsetDateTime(offsetDateTime);
-        } else if (columnValue instanceof String
-                || columnValue instanceof java.sql.Date
-                || columnValue instanceof Timestamp
-                || columnValue instanceof Time
-                || columnValue instanceof OffsetTime
-                || isTimestampWithTimeZoneH2Type(columnValue)
-                || isMicrosoftDateTimeOffset(columnValue)) {
-            String stringColumnValue = columnValue.toString();
-            return "'" + stringColumnValue + "'";
+            sqlText.append("NULL");
+        } else {
+            ValueFormatter<Object> valueFormatter = formatterOfClass.get(columnValue.getClass());
+            valueFormatter.appendTo(sqlText, columnValue);
         }
-        return columnValue.toString();
     }
 
-    private boolean isMicrosoftDateTimeOffset(Object columnValue) {
-        Class<?> columnValueClass = columnValue.getClass();
-        String classCanonicalName = columnValueClass.getCanonicalName();
-        return "microsoft.sql.DateTimeOffset".equals(classCanonicalName);
+    @SuppressWarnings("unchecked")
+    private ValueFormatter<Object> searchFormatterOf(Class<?> valueClass) {
+        for (Class<?> aClass = valueClass; aClass != null; aClass = aClass.getSuperclass()) {
+            ValueFormatter<?> valueFormatter = formatterByClass.get(aClass);
+            if (valueFormatter == null) {
+                valueFormatter = formatterByClassName.get(aClass.getName());
+            }
+            if (valueFormatter == null) {
+                valueFormatter = searchInterfaceFormatterOf(aClass);
+            }
+            if (valueFormatter != null) {
+                return (ValueFormatter<Object>) valueFormatter;
+            }
+        }
+        return TO_STRING_FORMATTER;
     }
 
-    private String formatForHsqlDBOffsetDateTime(OffsetDateTime offsetDateTime) {
-        DateTimeFormatter fmt = new DateTimeFormatterBuilder()
-            .appendPattern("yyyy-MM-dd HH:mm:ss")
-            .parseLenient()
-            .appendOffset("+HH:MM", "Z")
-            .toFormatter();
-        return "'" + fmt.format(offsetDateTime) + "'";
+    private ValueFormatter<?> searchInterfaceFormatterOf(Class<?> aClass) {
+        for (Class<?> anInterface : aClass.getInterfaces()) {
+            ValueFormatter<?> valueFormatter = formatterByClass.get(anInterface);
+            if (valueFormatter == null) {
+                valueFormatter = searchInterfaceFormatterOf(anInterface);
+            }
+            if (valueFormatter != null) {
+                return valueFormatter;
+            }
+        }
+        return null;
     }
 
-    private String buildOracleToDateFunctionFor(Timestamp timeStamp) {
-        //https://stackoverflow.com/questions/9180014/using-oracle-to-date-function-for-date-string-with-milliseconds
-        // "An Oracle DATE does not store times with more precision than a second."
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(timeStamp);
-        int monthNumber = calendar.get(Calendar.MONTH) + 1;
-        int secondNumber = calendar.get(Calendar.SECOND);
-        String toDateString = calendar.get(Calendar.YEAR)
-                            + "-" + (monthNumber < 10 ? "0" : "") + monthNumber
-                            + "-" + calendar.get(Calendar.DAY_OF_MONTH)
-                            + "-" + calendar.get(Calendar.HOUR_OF_DAY)
-                            + "-" + calendar.get(Calendar.MINUTE)
-                            + "-" + (secondNumber < 10 ? "0" : "") + secondNumber;
-        return "TO_DATE('" + toDateString + "', 'yyyy-mm-dd-HH24-mi-ss')";
+    private static ValueFormatter<OffsetDateTime> offsetDateTimeFormatterWith(DateTimeFormatter dateTimeFormatter) {
+        return (sqlText, offsetDateTime) -> {
+            sqlText.append('\'');
+            dateTimeFormatter.formatTo(offsetDateTime, sqlText);
+            sqlText.append('\'');
+        };
     }
 
-    private boolean isOracleSqlTimestamp(Object columnValue) {
-        Class<?> columnValueClass = columnValue.getClass();
-        String classCanonicalName = columnValueClass.getCanonicalName();
-        return classCanonicalName.equals("oracle.sql.TIMESTAMP");
+    private static void appendOracleToDateFunctionFor(StringBuilder sqlText, Timestamp timeStamp) {
+        sqlText.append("TO_DATE('");
+        ORACLE_DATE_FORMATTER.formatTo(timeStamp.toLocalDateTime(), sqlText);
+        sqlText.append("', 'yyyy-mm-dd-HH24-mi-ss')");
     }
 
-    private String buildOracleToTimeStampFunctionFor(Object columnValue) {
+    private static void appendOracleToTimeStampFunctionFor(StringBuilder sqlText, Object columnValue) {
         String oracleTimeStampAsString = columnValue.toString();
         String aDateWithMsLessThan100 = "2012-09-17 19:56:47.10";
         boolean dateHasMsLessThan100 = oracleTimeStampAsString.length() == aDateWithMsLessThan100.length();
-        String dateForTimeStampCreation = dateHasMsLessThan100 ? oracleTimeStampAsString + "0" : oracleTimeStampAsString;
-        return "TO_TIMESTAMP('" + dateForTimeStampCreation
-                           + "', 'YYYY-MM-DD HH24:MI:SS.FF')";
-    }
-
-    private boolean isTimestampWithTimeZoneH2Type(Object columnValue) {
-        Class<?> columnValueClass = columnValue.getClass();
-        String classCanonicalName = columnValueClass.getCanonicalName();
-        return classCanonicalName.equals("org.h2.api.TimestampWithTimeZone");
+        sqlText.append("TO_TIMESTAMP('").append(oracleTimeStampAsString);
+        if (dateHasMsLessThan100) {
+            sqlText.append('0');
+        }
+        sqlText.append("', 'YYYY-MM-DD HH24:MI:SS.FF')");
     }
 
 }
@@ -27,6 +27,10 @@ public class ColumnsMapping {
         return columnMappingPart1.hasColumn(columnName);
     }
 
+    String getMappedColumnName() {
+        return columnMappingPart1.tableColumn;
+    }
+
     ColumnMappingPart getMapping() {
         return columnMappingPart2;
     }
@@ -15,7 +15,9 @@ package org.qstd;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 public class ColumnsMappingGroup {
 
@@ -27,6 +29,14 @@ public class ColumnsMappingGroup {
         this.columnsMappings = new ArrayList<>(columnsMappings);
     }
 
+    Set<String> findMappedColumnNames() {
+        Set<String> mappedColumnNames = new HashSet<>();
+        for (ColumnsMapping columnsMapping : columnsMappings) {
+            mappedColumnNames.add(columnsMapping.getMappedColumnName());
+        }
+        return mappedColumnNames;
+    }
+
     Optional<ColumnMappingPart> findMappingForColumn(String columnName) {
         return   columnsMappings
                 .stream()
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+/**
+ * Gives the listener of the dataset generation running on the current thread.
+ * The classes notifying the events retrieve the listener here. The metadata cache of <code>org.qstd.dbtype</code>
+ * receives {@link #get()} from <code>QuickSqlTestData</code>.
+ */
+final class CurrentGenerationListener {
+
+    private static final ThreadLocal<GenerationListener> CURRENT_LISTENER = new ThreadLocal<>();
+
+    private CurrentGenerationListener() { }
+
+    /**
+     * @return The listener of the generation running on the current thread,
+     * <code>GenerationListener.NONE</code> if there is no generation or no listener
+     */
+    static GenerationListener get() {
+        GenerationListener listener = CURRENT_LISTENER.get();
+        return listener == null ? GenerationListener.NONE : listener;
+    }
+
+    static void set(GenerationListener listener) {
+        if (listener != GenerationListener.NONE) {
+            CURRENT_LISTENER.set(listener);
+        }
+    }
+
+    static void remove() {
+        CURRENT_LISTENER.remove();
+    }
+
+    static long startPhase(GenerationListener listener) {
+        return listener == GenerationListener.NONE ? 0 : System.nanoTime();
+    }
+
+    static void endPhase(GenerationListener listener, GenerationPhase phase, long phaseStartNanoTime) {
+        if (listener != GenerationListener.NONE) {
+            listener.onPhaseEnd(phase, System.nanoTime() - phaseStartNanoTime);
+        }
+    }
+
+}
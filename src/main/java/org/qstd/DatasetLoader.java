@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.joining;
+
+class DatasetLoader {
+
+    private static final int MAX_ROWS_BY_BATCH = 1000;
+
+    private final DataSource targetDataSource;
+
+    DatasetLoader(DataSource targetDataSource) {
+        this.targetDataSource = targetDataSource;
+    }
+
+    void load(List<DatasetRow> datasetRows) {
+        try (Connection connection = targetDataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                insert(datasetRows, connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException exception) {
+                connection.rollback();
+                throw exception;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException sqlException) {
+            throw new IllegalStateException("Unable to load the dataset rows", sqlException);
+        }
+    }
+
+    private void insert(List<DatasetRow> datasetRows, Connection connection) throws SQLException {
+        // Consecutive rows are inserted in the same batch to keep the order of the rows
+        int fromIndex = 0;
+        while (fromIndex < datasetRows.size()) {
+            DatasetRow firstDatasetRow = datasetRows.get(fromIndex);
+            List<String> columnNames = firstDatasetRow.getColumnNames();
+            int toIndex = fromIndex + 1;
+            while (toIndex < datasetRows.size()
+                && hasTableAndColumns(datasetRows.get(toIndex), firstDatasetRow.getTableName(), columnNames)) {
+                toIndex++;
+            }
+            insertBatch(datasetRows.subList(fromIndex, toIndex), columnNames, connection);
+            fromIndex = toIndex;
+        }
+    }
+
+    private static boolean hasTableAndColumns(DatasetRow datasetRow, String tableName, List<String> columnNames) {
+        return datasetRow.getTableName().equals(tableName)
+            && columnNames.equals(datasetRow.getColumnNames());
+    }
+
+    private void insertBatch(List<DatasetRow> datasetRows, List<String> columnNames, Connection connection) throws SQLException {
+        String tableName = datasetRows.get(0).getTableName();
+        String insertQuery = buildInsertQuery(tableName, columnNames);
+        try (PreparedStatement insertStatement = connection.prepareStatement(insertQuery)) {
+            int[] sqlTypes = null;
+            int batchRowCount = 0;
+            for (DatasetRow datasetRow : datasetRows) {
+                Collection<Object> columnValues = datasetRow.getColumnValues();
+                int parameterIndex = 1;
+                for (Object columnValue : columnValues) {
+                    if (columnValue == null) {
+                        // Some drivers, such as the Oracle and DB2 ones, reject a null value without its type
+                        if (sqlTypes == null) {
+                            sqlTypes = findSqlTypesOf(tableName, columnNames, insertStatement, connection);
+                        }
+                        insertStatement.setNull(parameterIndex, sqlTypes[parameterIndex - 1]);
+                    } else {
+                        insertStatement.setObject(parameterIndex, columnValue);
+                    }
+                    parameterIndex++;
+                }
+                insertStatement.addBatch();
+                batchRowCount++;
+                if (batchRowCount == MAX_ROWS_BY_BATCH) {
+                    insertStatement.executeBatch();
+                    batchRowCount = 0;
+                }
+            }
+            if (batchRowCount > 0) {
+                insertStatement.executeBatch();
+            }
+        } catch (SQLException sqlException) {
+            throw new SQLException("Unable to execute " + insertQuery
+                                 , sqlException.getSQLState(), sqlException.getErrorCode(), sqlException);
+        }
+    }
+
+    private static int[] findSqlTypesOf(String tableName, List<String> columnNames
+                                      , PreparedStatement insertStatement, Connection connection) throws SQLException {
+        int[] sqlTypes = new int[columnNames.size()];
+        try {
+            ParameterMetaData parameterMetaData = insertStatement.getParameterMetaData();
+            for (int i = 0; i < sqlTypes.length; i++) {
+                sqlTypes[i] = parameterMetaData.getParameterType(i + 1);
+            }
+            return sqlTypes;
+        } catch (SQLException parameterTypesNotSupported) {
+            // The Oracle driver, for example, does not give the parameter types of an INSERT statement
+            Map<String, Integer> sqlTypeByColumnName = findSqlTypeByColumnNameOf(tableName, connection);
+            for (int i = 0; i < sqlTypes.length; i++) {
+                String columnName = columnNames.get(i).toUpperCase();
+                sqlTypes[i] = sqlTypeByColumnName.getOrDefault(columnName, Types.NULL);
+            }
+            return sqlTypes;
+        }
+    }
+
+    private static Map<String, Integer> findSqlTypeByColumnNameOf(String tableName, Connection connection) throws SQLException {
+        int dotIndex = tableName.lastIndexOf('.');
+        String schemaName = dotIndex == -1 ? null : tableName.substring(0, dotIndex);
+        String simpleTableName = tableName.substring(dotIndex + 1);
+        DatabaseMetaData databaseMetaData = connection.getMetaData();
+        Map<String, Integer> sqlTypeByColumnName = new HashMap<>();
+        for (String tableNamePattern : Arrays.asList(simpleTableName, simpleTableName.toUpperCase(), simpleTableName.toLowerCase())) {
+            try (ResultSet columns = databaseMetaData.getColumns(null, schemaName, tableNamePattern, null)) {
+                while (columns.next()) {
+                    sqlTypeByColumnName.put(columns.getString("COLUMN_NAME").toUpperCase(), columns.getInt("DATA_TYPE"));
+                }
+            }
+            if (!sqlTypeByColumnName.isEmpty()) {
+                break;
+            }
+        }
+        return sqlTypeByColumnName;
+    }
+
+    private static String buildInsertQuery(String tableName, List<String> columnNames) {
+        String bindParameters = columnNames.stream()
+                                           .map(columnName -> "?")
+                                           .collect(joining(", "));
+        return "INSERT INTO " + tableName
+             + "(" + String.join(", ", columnNames) + ")"
+             + " VALUES(" + bindParameters + ")";
+    }
+
+}
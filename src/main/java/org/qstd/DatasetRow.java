@@ -14,77 +14,98 @@ package org.qstd;
 
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Stream;
-
-import static java.util.stream.Collectors.toList;
 
 public class DatasetRow {
 
+    // Value of the columns of the layout that are not part of the row
+    private static final Object ABSENT = new Object();
+
     private String tableName;
 
-    private TreeMap<String, Object> columnValueByColumnName = new TreeMap<>();
+    private TableLayout layout;
 
-    private DatasetRow(String tableName) {
+    private Object[] values;
+
+    private DatasetRow(String tableName, TableLayout layout) {
         this.tableName = tableName;
+        this.layout = layout;
+        this.values = new Object[layout.getColumnCount()];
+        Arrays.fill(values, ABSENT);
     }
 
     public static DatasetRow ofTable(String tableName) {
-        return new DatasetRow(tableName);
+        return new DatasetRow(tableName, TableLayout.EMPTY);
+    }
+
+    static DatasetRow ofLayout(String tableName, TableLayout layout) {
+        return new DatasetRow(tableName, layout);
     }
 
     protected void addColumnValues(Map<String, Object> columnValues) {
-        columnValueByColumnName.putAll(columnValues);
+        for (Map.Entry<String, Object> columnValue : columnValues.entrySet()) {
+            addColumnValue(columnValue.getKey(), columnValue.getValue());
+        }
     }
 
-    Set<String> getColumnNames() {
-        return columnValueByColumnName.keySet();
+    List<String> getColumnNames() {
+        List<String> columnNames = new ArrayList<>(values.length);
+        for (int position = 0; position < values.length; position++) {
+            if (values[position] != ABSENT) {
+                columnNames.add(layout.getColumnNameAt(position));
+            }
+        }
+        return columnNames;
     }
 
-    Collection<Object> getColumnValues() {
-        return columnValueByColumnName.values();
+    List<Object> getColumnValues() {
+        List<Object> columnValues = new ArrayList<>(values.length);
+        for (Object value : values) {
+            if (value != ABSENT) {
+                columnValues.add(value);
+            }
+        }
+        return columnValues;
     }
 
     Map<String, Object> getColumnValueByColumnName() {
-        return new HashMap<>(columnValueByColumnName);
+        Map<String, Object> columnValueByColumnName = new HashMap<>();
+        for (int position = 0; position < values.length; position++) {
+            if (values[position] != ABSENT) {
+                columnValueByColumnName.put(layout.getColumnNameAt(position), values[position]);
+            }
+        }
+        return columnValueByColumnName;
     }
 
     boolean hasNotNullValueForColumn(String columnName) {
-        return columnValueByColumnName.get(columnName) != null;
+        return getValueOf(columnName) != null;
     }
 
-    void sortColumnsFollowing(List<String> databaseColumnOrders) {
-        if (!databaseColumnOrders.isEmpty()) {
-            ColumnNamesComparator columnNamesComparator = ColumnNamesComparator.from(databaseColumnOrders);
-            TreeMap<String, Object> columnValueByColumnName = new TreeMap<>(columnNamesComparator);
-            columnValueByColumnName.putAll(this.columnValueByColumnName);
-            this.columnValueByColumnName = columnValueByColumnName;
+    /**
+     * Stores the values following the given layout. The layout has to contain the columns of the row.
+     */
+    void bindTo(TableLayout layout) {
+        if (layout == this.layout) {
+            return;
         }
-    }
-
-    boolean mergeWithARowOf(Collection<DatasetRow> datasetRows) {
-        Optional<DatasetRow> optionalRowToMergeWith = searchARowToMergeIn(datasetRows);
-        if(optionalRowToMergeWith.isPresent()) {
-            DatasetRow rowToMergeWith = optionalRowToMergeWith.get();
-            rowToMergeWith.addValuesOf(this);
-            return true;
+        Object[] values = new Object[layout.getColumnCount()];
+        Arrays.fill(values, ABSENT);
+        for (int position = 0; position < this.values.length; position++) {
+            if (this.values[position] != ABSENT) {
+                String columnName = this.layout.getColumnNameAt(position);
+                values[layout.findPositionOf(columnName)] = this.values[position];
+            }
         }
-        return false;
-    }
-
-    private Optional<DatasetRow> searchARowToMergeIn(Collection<DatasetRow> datasetRows) {
-        return   datasetRows
-                .stream()
-                .filter(this::isMergeableWith)
-                .findFirst();
+        this.layout = layout;
+        this.values = values;
     }
 
     void addValuesOf(DatasetRow datasetRow) {
-        TreeMap<String, Object> columnValueByColumnName = datasetRow.columnValueByColumnName;
-        for (Map.Entry<String, Object> columnValueOfColumnName : columnValueByColumnName.entrySet()) {
-            Object value = columnValueOfColumnName.getValue();
-            if(value != null) {
-                String columnName = columnValueOfColumnName.getKey();
-                this.columnValueByColumnName.put(columnName, value);
+        for (int position = 0; position < datasetRow.values.length; position++) {
+            Object value = datasetRow.values[position];
+            if (value != null && value != ABSENT) {
+                String columnName = datasetRow.layout.getColumnNameAt(position);
+                addColumnValue(columnName, value);
             }
         }
     }
@@ -101,12 +122,11 @@ public class DatasetRow {
     }
 
     private boolean sameNotNullColumns(DatasetRow otherDatasetRow) {
-        TreeMap<String, Object> columnValueByColumnName = otherDatasetRow.columnValueByColumnName;
-        for (Map.Entry<String, Object> columnValueOfColumnName : columnValueByColumnName.entrySet()) {
-            Object mergeableValue = columnValueOfColumnName.getValue();
-            if(mergeableValue != null) {
-                String column = columnValueOfColumnName.getKey();
-                Object value = this.columnValueByColumnName.get(column);
+        for (int position = 0; position < otherDatasetRow.values.length; position++) {
+            Object mergeableValue = otherDatasetRow.values[position];
+            if (mergeableValue != null && mergeableValue != ABSENT) {
+                String column = otherDatasetRow.layout.getColumnNameAt(position);
+                Object value = getValueOf(column);
                 if(!mergeableValue.equals(value) && value != null) {
                     return false;
                 }
@@ -116,40 +136,57 @@ public class DatasetRow {
         return true;
     }
 
-    Collection<DatasetRow> extractJoinedRowsFrom(ColumnsMappingGroup columnsMappingGroup) {
-        return  columnValueByColumnName
-                .entrySet()
-                .stream()
-                .map(valueForColumn -> {
-                    String column = valueForColumn.getKey();
-                    Optional<ColumnMappingPart> optionalMappingForColumn =
-                            columnsMappingGroup.findMappingForColumn(column);
-                    return buildOptionalRowFrom(valueForColumn, optionalMappingForColumn);
-                })
-                .flatMap(DatasetRow::streamOf)
-                .collect(toList());
+    Collection<DatasetRow> extractJoinedRows() {
+        Collection<DatasetRow> joinedRows = new ArrayList<>();
+        for (int position = 0; position < values.length; position++) {
+            ColumnMappingPart referencedColumn = layout.findReferencedColumnAt(position);
+            if (referencedColumn != null && values[position] != ABSENT) {
+                DatasetRow joinedRow = new DatasetRow(referencedColumn.tableName, TableLayout.EMPTY);
+                joinedRow.addColumnValue(referencedColumn.tableColumn, values[position]);
+                joinedRows.add(joinedRow);
+            }
+        }
+        return joinedRows;
+    }
+
+    public DatasetRow addColumnValue(String columnName, Object value) {
+        int position = layout.findPositionOf(columnName);
+        if (position == -1) {
+            // The row has its own layout growing with the added columns until it is bound to the layout of its table
+            layout = layout.withColumn(columnName);
+            position = layout.getColumnCount() - 1;
+            if (position == values.length) {
+                int previousLength = values.length;
+                values = Arrays.copyOf(values, Math.max(4, 2 * previousLength));
+                Arrays.fill(values, previousLength, values.length, ABSENT);
+            }
+        }
+        values[position] = value;
+        return this;
     }
 
-    private Optional<DatasetRow> buildOptionalRowFrom(Map.Entry<String, Object> valueForColumn, Optional<ColumnMappingPart> optionalMappingForColumn) {
-        return optionalMappingForColumn.map(columnMappingPart -> {
-            Object value = valueForColumn.getValue();
-            DatasetRow joinedRow = new DatasetRow(columnMappingPart.tableName);
-            joinedRow.addColumnValue(columnMappingPart.tableColumn, value);
-            return joinedRow;
-        });
+    void setValueAt(int position, Object value) {
+        values[position] = value;
     }
 
-    private static <T> Stream<T> streamOf(Optional<T> optional) {
-        return optional.map(Stream::of).orElseGet(Stream::empty);
+    /**
+     * @return the positions of the primary key columns in the layout of the row
+     */
+    int[] getPrimaryKeyPositions() {
+        return layout.getPrimaryKeyPositions();
     }
 
-    public DatasetRow addColumnValue(String columnName, Object value) {
-        columnValueByColumnName.put(columnName, value);
-        return this;
+    Object getValueAt(int position) {
+        Object value = values[position];
+        return value == ABSENT ? null : value;
     }
 
     Object getValueOf(String columnName) {
-        return columnValueByColumnName.get(columnName);
+        int position = layout.findPositionOf(columnName);
+        if (position == -1 || values[position] == ABSENT) {
+            return null;
+        }
+        return values[position];
     }
 
     void updateTableNameWith(Function<String, String> tableNameFunction) {
@@ -13,29 +13,25 @@
 package org.qstd;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.List;
 
 class DatasetRowComparatorBuilder {
 
     private DatasetRowComparatorBuilder() { }
 
-    static Comparator<DatasetRow> buildFrom(DatabaseMetadataFinder databaseMetadataFinder) {
-        ComparatorOnTableDependencies comparatorOnTableDependencies = new ComparatorOnTableDependencies(databaseMetadataFinder);
-        ComparatorOnPrimaryKey comparatorOnPrimaryKey = new ComparatorOnPrimaryKey(databaseMetadataFinder);
-        ComparatorOnTableName comparatorOnTableName = new ComparatorOnTableName();
-        return comparatorOnTableDependencies.thenComparing(comparatorOnPrimaryKey)
-                                            .thenComparing(comparatorOnTableName);
+    static Comparator<DatasetRow> buildFrom(DatabaseMetadataFinder databaseMetadataFinder, Collection<String> tableNames) {
+        TableDependencyOrder tableDependencyOrder = TableDependencyOrder.buildFrom(tableNames, databaseMetadataFinder);
+        ComparatorOnTableDependencies comparatorOnTableDependencies = new ComparatorOnTableDependencies(tableDependencyOrder);
+        ComparatorOnPrimaryKey comparatorOnPrimaryKey = new ComparatorOnPrimaryKey();
+        return comparatorOnTableDependencies.thenComparing(comparatorOnPrimaryKey);
     }
 
+    /**
+     * Compares the rows of a table bound to the layout of this table, with the primary key positions of the layout
+     */
     private static class ComparatorOnPrimaryKey implements Comparator<DatasetRow> {
 
-        private final PrimaryKeyColumnsFinder primaryKeyColumnsFinder;
-
-        ComparatorOnPrimaryKey(PrimaryKeyColumnsFinder primaryKeyColumnsFinder) {
-            this.primaryKeyColumnsFinder = primaryKeyColumnsFinder;
-        }
-
         @Override
         public int compare(DatasetRow datasetRow1, DatasetRow datasetRow2) {
 
@@ -43,11 +39,8 @@ class DatasetRowComparatorBuilder {
                 return 0;
             }
 
-            String tableName = datasetRow1.getTableName();
-            List<String> primaryKeyColumns = primaryKeyColumnsFinder.findPrimaryColumnsOf(tableName);
-
-            for (String primaryKeyColumn : primaryKeyColumns) {
-                int intComparison = compareIntPkValues(primaryKeyColumn, datasetRow1, datasetRow2);
+            for (int primaryKeyPosition : datasetRow1.getPrimaryKeyPositions()) {
+                int intComparison = compareIntPkValues(primaryKeyPosition, datasetRow1, datasetRow2);
                 if(intComparison != 0) {
                     return intComparison;
                 }
@@ -61,9 +54,9 @@ class DatasetRowComparatorBuilder {
             return datasetRow1.getTableName().equals(datasetRow2.getTableName());
         }
 
-        private int compareIntPkValues(String primaryKeyColumn, DatasetRow datasetRow1, DatasetRow datasetRow2) {
-            Object pkValue1 = datasetRow1.getValueOf(primaryKeyColumn);
-            Object pkValue2 = datasetRow2.getValueOf(primaryKeyColumn);
+        private int compareIntPkValues(int primaryKeyPosition, DatasetRow datasetRow1, DatasetRow datasetRow2) {
+            Object pkValue1 = datasetRow1.getValueAt(primaryKeyPosition);
+            Object pkValue2 = datasetRow2.getValueAt(primaryKeyPosition);
             boolean integerPrimaryKey = pkValue1 instanceof Integer
                                      || pkValue1 instanceof Long
                                      || pkValue1 instanceof BigDecimal;
@@ -81,43 +74,17 @@ class DatasetRowComparatorBuilder {
 
     private static class ComparatorOnTableDependencies implements Comparator<DatasetRow> {
 
-        private final ReferencedTablesFinder referencedTablesFinder;
+        private final TableDependencyOrder tableDependencyOrder;
 
-        public ComparatorOnTableDependencies(ReferencedTablesFinder referencedTablesFinder) {
-            this.referencedTablesFinder = referencedTablesFinder;
+        ComparatorOnTableDependencies(TableDependencyOrder tableDependencyOrder) {
+            this.tableDependencyOrder = tableDependencyOrder;
         }
 
         @Override
         public int compare(DatasetRow datasetRow1, DatasetRow datasetRow2) {
-
-            String tableName1 = datasetRow1.getTableName();
-            String tableName2 = datasetRow2.getTableName();
-
-            ReferencedTableSet referencedTableSetOfTable1
-                    = referencedTablesFinder.findReferencedTablesOf(tableName1);
-            if(referencedTableSetOfTable1.referencesTable(tableName2)) {
-                return 1;
-            }
-
-            ReferencedTableSet referencedTableSetOfTable2
-                    = referencedTablesFinder.findReferencedTablesOf(tableName2);
-            if(referencedTableSetOfTable2.referencesTable(tableName1)) {
-                return -1;
-            }
-
-            return 0;
-
-        }
-
-    }
-
-    private static class ComparatorOnTableName implements Comparator<DatasetRow> {
-
-        @Override
-        public int compare(DatasetRow row1, DatasetRow row2) {
-            String row1TableName = row1.getTableName();
-            String row2TableName = row2.getTableName();
-            return row1TableName.compareTo(row2TableName);
+            int rankOfTable1 = tableDependencyOrder.findRankOf(datasetRow1.getTableName());
+            int rankOfTable2 = tableDependencyOrder.findRankOf(datasetRow2.getTableName());
+            return Integer.compare(rankOfTable1, rankOfTable2);
         }
 
     }
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.util.*;
+
+class DatasetRowIndex {
+
+    private final PrimaryKeyColumnsFinder primaryKeyColumnsFinder;
+
+    private final Map<String, TableRows> rowsByTableName = new HashMap<>();
+
+    DatasetRowIndex(PrimaryKeyColumnsFinder primaryKeyColumnsFinder) {
+        this.primaryKeyColumnsFinder = primaryKeyColumnsFinder;
+    }
+
+    boolean mergeWithAnIndexedRow(DatasetRow datasetRow) {
+        TableRows tableRows = findTableRowsOf(datasetRow);
+        return tableRows.mergeWithARowOfTable(datasetRow);
+    }
+
+    void add(DatasetRow datasetRow) {
+        TableRows tableRows = findTableRowsOf(datasetRow);
+        tableRows.add(datasetRow);
+    }
+
+    private TableRows findTableRowsOf(DatasetRow datasetRow) {
+        String tableName = datasetRow.getTableName();
+        return rowsByTableName.computeIfAbsent(tableName, this::buildTableRows);
+    }
+
+    private TableRows buildTableRows(String tableName) {
+        List<String> primaryKeyColumns = primaryKeyColumnsFinder.findPrimaryColumnsOf(tableName);
+        return new TableRows(primaryKeyColumns);
+    }
+
+    private static class TableRows {
+
+        private final List<String> primaryKeyColumns;
+
+        private final Collection<DatasetRow> rows = new ArrayList<>();
+
+        private final Map<List<Object>, Collection<DatasetRow>> rowsByPrimaryKey = new HashMap<>();
+
+        private final Collection<DatasetRow> rowsWithoutPrimaryKey = new LinkedHashSet<>();
+
+        TableRows(List<String> primaryKeyColumns) {
+            this.primaryKeyColumns = primaryKeyColumns;
+        }
+
+        void add(DatasetRow datasetRow) {
+            rows.add(datasetRow);
+            Optional<List<Object>> optionalPrimaryKey = findPrimaryKeyOf(datasetRow);
+            if (optionalPrimaryKey.isPresent()) {
+                List<Object> primaryKey = optionalPrimaryKey.get();
+                indexWithPrimaryKey(datasetRow, primaryKey);
+            } else if (!primaryKeyColumns.isEmpty()) {
+                rowsWithoutPrimaryKey.add(datasetRow);
+            }
+        }
+
+        private void indexWithPrimaryKey(DatasetRow datasetRow, List<Object> primaryKey) {
+            rowsByPrimaryKey.computeIfAbsent(primaryKey, pk -> new ArrayList<>())
+                            .add(datasetRow);
+        }
+
+        boolean mergeWithARowOfTable(DatasetRow datasetRow) {
+            Optional<List<Object>> optionalPrimaryKey = findPrimaryKeyOf(datasetRow);
+            if (optionalPrimaryKey.isPresent()) {
+                List<Object> primaryKey = optionalPrimaryKey.get();
+                return mergeWithARowHavingPrimaryKey(datasetRow, primaryKey)
+                    || mergeWithARowWithoutPrimaryKey(datasetRow);
+            }
+            // The table has no primary key or the row does not have all the primary key values:
+            // any row of the table may be a candidate
+            Optional<DatasetRow> optionalRowToMergeWith = searchARowToMergeIn(rows, datasetRow);
+            optionalRowToMergeWith.ifPresent(rowToMergeWith -> mergeRows(rowToMergeWith, datasetRow));
+            return optionalRowToMergeWith.isPresent();
+        }
+
+        private boolean mergeWithARowHavingPrimaryKey(DatasetRow datasetRow, List<Object> primaryKey) {
+            Collection<DatasetRow> rowsHavingPrimaryKey =
+                    rowsByPrimaryKey.getOrDefault(primaryKey, Collections.emptyList());
+            Optional<DatasetRow> optionalRowToMergeWith = searchARowToMergeIn(rowsHavingPrimaryKey, datasetRow);
+            optionalRowToMergeWith.ifPresent(rowToMergeWith -> rowToMergeWith.addValuesOf(datasetRow));
+            return optionalRowToMergeWith.isPresent();
+        }
+
+        private boolean mergeWithARowWithoutPrimaryKey(DatasetRow datasetRow) {
+            Optional<DatasetRow> optionalRowToMergeWith = searchARowToMergeIn(rowsWithoutPrimaryKey, datasetRow);
+            optionalRowToMergeWith.ifPresent(rowToMergeWith -> mergeRows(rowToMergeWith, datasetRow));
+            return optionalRowToMergeWith.isPresent();
+        }
+
+        private void mergeRows(DatasetRow rowToMergeWith, DatasetRow datasetRow) {
+            rowToMergeWith.addValuesOf(datasetRow);
+            boolean rowHadNoPrimaryKey = rowsWithoutPrimaryKey.contains(rowToMergeWith);
+            if (rowHadNoPrimaryKey) {
+                Optional<List<Object>> optionalPrimaryKey = findPrimaryKeyOf(rowToMergeWith);
+                optionalPrimaryKey.ifPresent(primaryKey -> {
+                    rowsWithoutPrimaryKey.remove(rowToMergeWith);
+                    indexWithPrimaryKey(rowToMergeWith, primaryKey);
+                });
+            }
+        }
+
+        private static Optional<DatasetRow> searchARowToMergeIn(Collection<DatasetRow> datasetRows, DatasetRow datasetRow) {
+            return   datasetRows
+                    .stream()
+                    .filter(datasetRow::isMergeableWith)
+                    .findFirst();
+        }
+
+        private Optional<List<Object>> findPrimaryKeyOf(DatasetRow datasetRow) {
+            if (primaryKeyColumns.isEmpty()) {
+                return Optional.empty();
+            }
+            List<Object> primaryKey = new ArrayList<>(primaryKeyColumns.size());
+            for (String primaryKeyColumn : primaryKeyColumns) {
+                Object primaryKeyValue = datasetRow.getValueOf(primaryKeyColumn);
+                if (primaryKeyValue == null) {
+                    return Optional.empty();
+                }
+                primaryKey.add(primaryKeyValue);
+            }
+            return Optional.of(primaryKey);
+        }
+
+    }
+
+}
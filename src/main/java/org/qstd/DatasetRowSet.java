@@ -26,67 +26,109 @@ class DatasetRowSet {
 
     private final Collection<DatasetRow> datasetRows = new ArrayDeque<>();
 
+    private final DatasetRowIndex datasetRowIndex;
+
+    private final MetadataPrefetcher metadataPrefetcher;
+
+    private final TableLayouts tableLayouts;
+
     DatasetRowSet( DataSource dataSource
                  , DatabaseType dbType
-                 , DatabaseMetadataFinder databaseMetadataFinder) {
+                 , DatabaseMetadataFinder databaseMetadataFinder
+                 , MetadataPrefetcher metadataPrefetcher) {
         this.databaseMetadataFinder = databaseMetadataFinder;
+        this.metadataPrefetcher = metadataPrefetcher;
+        this.datasetRowIndex = new DatasetRowIndex(databaseMetadataFinder);
+        this.tableLayouts = new TableLayouts(databaseMetadataFinder);
         this.missingNotNullColumnsFinder = new MissingNotNullColumnsFinder(dataSource
                                                                           , dbType
                                                                           , databaseMetadataFinder);
     }
 
     void add(Collection<DatasetRow> datasetRows) {
-        for (DatasetRow datasetRow : datasetRows) {
-            add(datasetRow);
+        // Breadth-first expansion: each level holds the rows joined by the rows of the previous level
+        GenerationListener listener = CurrentGenerationListener.get();
+        Collection<DatasetRow> rowsOfLevel = datasetRows;
+        while (!rowsOfLevel.isEmpty()) {
+            List<DatasetRow> rowsToAdd = findRowsToAdd(rowsOfLevel, listener);
+            Collection<DatasetRow> rowsOfNextLevel = addRows(rowsToAdd);
+            listener.onJoinedRowsFound(rowsOfNextLevel.size());
+            rowsOfLevel = rowsOfNextLevel;
         }
     }
 
-    private void add(DatasetRow datasetRow) {
+    private List<DatasetRow> findRowsToAdd(Collection<DatasetRow> rowsOfLevel, GenerationListener listener) {
 
         Function<String, String> functionToHaveMetadataTableName = databaseMetadataFinder.getFunctionToHaveMetadataTableName();
-        datasetRow.updateTableNameWith(functionToHaveMetadataTableName);
+        Set<String> tableNames = new HashSet<>();
+        for (DatasetRow datasetRow : rowsOfLevel) {
+            datasetRow.updateTableNameWith(functionToHaveMetadataTableName);
+            tableNames.add(datasetRow.getTableName());
+        }
+        metadataPrefetcher.prefetchMetadataOf(tableNames);
+
+        List<DatasetRow> rowsToAdd = new ArrayList<>();
+        DatasetRowIndex rowsToAddIndex = new DatasetRowIndex(databaseMetadataFinder);
+        for (DatasetRow datasetRow : rowsOfLevel) {
+            boolean rowIsMerged = datasetRowIndex.mergeWithAnIndexedRow(datasetRow)
+                               || rowsToAddIndex.mergeWithAnIndexedRow(datasetRow);
+            if (rowIsMerged) {
+                listener.onRowMerged(datasetRow.getTableName());
+            } else {
+                rowsToAdd.add(datasetRow);
+                rowsToAddIndex.add(datasetRow);
+            }
+        }
+
+        return rowsToAdd;
+
+    }
+
+    private Collection<DatasetRow> addRows(List<DatasetRow> rowsToAdd) {
 
-        boolean rowIsMerged = datasetRow.mergeWithARowOf(datasetRows);
+        // The rows of the same table and of the same missing not null columns are searched together
+        Map<DatasetRow, Map<String, Object>> missingNotNullColumnsByRow =
+                missingNotNullColumnsFinder.findMissingNoNullColumnsOf(rowsToAdd);
 
-        if (!rowIsMerged) {
+        Collection<DatasetRow> joinedRows = new ArrayList<>();
+        for (DatasetRow datasetRow : rowsToAdd) {
             Map<String, Object> missingNotNullColumns =
-                    missingNotNullColumnsFinder.findMissingNoNullColumnsOf(datasetRow);
+                    missingNotNullColumnsByRow.getOrDefault(datasetRow, Collections.emptyMap());
             datasetRow.addColumnValues(missingNotNullColumns);
+            datasetRow.bindTo(tableLayouts.findLayoutOf(datasetRow));
 
-            datasetRows.add(datasetRow);
+            this.datasetRows.add(datasetRow);
+            datasetRowIndex.add(datasetRow);
 
-            Collection<DatasetRow> joinedRows = findJoinedRowsOf(datasetRow);
-            for (DatasetRow joinRow : joinedRows) {
-                add(joinRow);
-            }
+            joinedRows.addAll(datasetRow.extractJoinedRows());
         }
+        return joinedRows;
 
     }
 
-    private Collection<DatasetRow> findJoinedRowsOf(DatasetRow datasetRow) {
-        String tableName = datasetRow.getTableName();
-        ColumnsMappingGroup columnsMappingGroup =
-                databaseMetadataFinder.findColumnsMappingsOf(tableName);
-        return datasetRow.extractJoinedRowsFrom(columnsMappingGroup);
-    }
-
     List<DatasetRow> sort() {
-        sortColumnsFollowingDatabaseDeclaration(datasetRows);
+        bindRowsToTableLayouts();
         return sortRows();
     }
 
-    private void sortColumnsFollowingDatabaseDeclaration(Collection<DatasetRow> allRows) {
-        for (DatasetRow datasetRow : allRows) {
-            String tableName = datasetRow.getTableName();
-            List<String> databaseColumnOrders = databaseMetadataFinder.findDatabaseColumnOrdersOf(tableName);
-            datasetRow.sortColumnsFollowing(databaseColumnOrders);
+    private void bindRowsToTableLayouts() {
+        // Rows merged with other rows may have columns that are not in the layout of their table
+        for (DatasetRow datasetRow : datasetRows) {
+            tableLayouts.findLayoutOf(datasetRow);
+        }
+        for (DatasetRow datasetRow : datasetRows) {
+            datasetRow.bindTo(tableLayouts.findLayoutOf(datasetRow));
         }
     }
 
     private List<DatasetRow> sortRows() {
         List<DatasetRow> rowsAsList = new ArrayList<>(datasetRows);
+        Set<String> tableNames = new HashSet<>();
+        for (DatasetRow datasetRow : rowsAsList) {
+            tableNames.add(datasetRow.getTableName());
+        }
         Comparator<DatasetRow> datasetRowComparator =
-                DatasetRowComparatorBuilder.buildFrom(databaseMetadataFinder);
+                DatasetRowComparatorBuilder.buildFrom(databaseMetadataFinder, tableNames);
         rowsAsList.sort(datasetRowComparator);
         return rowsAsList;
     }
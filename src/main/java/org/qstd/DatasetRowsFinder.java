@@ -18,6 +18,8 @@ import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.select.Select;
 import net.sf.jsqlparser.util.TablesNamesFinder;
 
+import org.qstd.dbtype.DatabaseType;
+
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.*;
@@ -29,18 +31,47 @@ class DatasetRowsFinder {
 
     private final DataSource dataSource;
 
-    DatasetRowsFinder(DataSource dataSource) {
+    private final DatabaseType dbType;
+
+    private final ColumnPruning columnPruning;
+
+    private final int maxRowsByQuery;
+
+    DatasetRowsFinder(DataSource dataSource, DatabaseType dbType) {
+        this(dataSource, dbType, ColumnPruning.NONE, 0);
+    }
+
+    private DatasetRowsFinder(DataSource dataSource, DatabaseType dbType, ColumnPruning columnPruning, int maxRowsByQuery) {
         this.dataSource = dataSource;
+        this.dbType = dbType;
+        this.columnPruning = columnPruning;
+        this.maxRowsByQuery = maxRowsByQuery;
+    }
+
+    DatasetRowsFinder withColumnPruning(ColumnPruning columnPruning) {
+        return new DatasetRowsFinder(dataSource, dbType, columnPruning, maxRowsByQuery);
+    }
+
+    DatasetRowsFinder withMaxRowsByQuery(int maxRowsByQuery) {
+        return new DatasetRowsFinder(dataSource, dbType, columnPruning, maxRowsByQuery);
     }
 
     Collection<DatasetRow> findDatasetRowsOf(SqlQuery sqlQuery) {
 
-        SelectTransformer selectTransformer = createSelectTransformer(sqlQuery);
+        GenerationListener listener = CurrentGenerationListener.get();
+
+        long transformStartNanoTime = CurrentGenerationListener.startPhase(listener);
+        SelectTransformer selectTransformer = createSelectTransformer(sqlQuery, columnPruning);
         Optional<SqlQuery> optionalSelectQuery = selectTransformer.toSelect(sqlQuery);
+        CurrentGenerationListener.endPhase(listener, GenerationPhase.TRANSFORM, transformStartNanoTime);
 
         if (optionalSelectQuery.isPresent()) {
             SqlQuery selectQuery = optionalSelectQuery.get();
-            return execute(selectQuery);
+            long fetchStartNanoTime = CurrentGenerationListener.startPhase(listener);
+            Collection<DatasetRow> datasetRows = execute(selectQuery);
+            CurrentGenerationListener.endPhase(listener, GenerationPhase.FETCH, fetchStartNanoTime);
+            listener.onRowsFetched(selectQuery.getQueryAsString(), datasetRows.size());
+            return datasetRows;
         }
 
         return emptyList();
@@ -53,18 +84,30 @@ class DatasetRowsFinder {
         try (Connection connection = dataSource.getConnection();
              PreparedStatement selectStatement = PreparedStatementBuilder.buildFrom(sqlQuery, connection)) {
 
+            if (maxRowsByQuery > 0 && maxRowsByQuery < Integer.MAX_VALUE) {
+                // One more row is fetched to know if the rows are truncated
+                selectStatement.setMaxRows(maxRowsByQuery + 1);
+            }
+
             ResultSet resultSet = selectStatement.executeQuery();
 
             ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
-            int columnCount = resultSetMetaData.getColumnCount();
+            ResultSetLayout resultSetLayout = buildResultSetLayout(resultSetMetaData, sqlQuery);
 
+            int rowCount = 0;
             while (resultSet.next()) {
+                if (maxRowsByQuery > 0 && rowCount == maxRowsByQuery) {
+                    CurrentGenerationListener.get().onRowsTruncated(sqlQuery.getQueryAsString(), maxRowsByQuery);
+                    break;
+                }
                 Collection<DatasetRow> datasetRows =
-                        buildDatasetRowsFrom(resultSet, resultSetMetaData
-                                           , columnCount, sqlQuery);
+                        buildDatasetRowsFrom(resultSet, resultSetLayout);
                 datasetRowsToReturn.addAll(datasetRows);
+                rowCount++;
             }
         } catch (SQLException sqlException) {
+            // An incomplete dataset is not returned when the query times out
+            QueryTimeoutException.throwIfTimeout(sqlException, sqlQuery);
             sqlException.printStackTrace();
         }
 
@@ -72,29 +115,62 @@ class DatasetRowsFinder {
 
     }
 
-    private Collection<DatasetRow> buildDatasetRowsFrom(ResultSet resultSet, ResultSetMetaData resultSetMetaData
-                                                      , int columnCount, SqlQuery sqlQuery) throws SQLException {
-        Map<String, DatasetRow> rowsByTableName = new HashMap<>();
+    private ResultSetLayout buildResultSetLayout(ResultSetMetaData resultSetMetaData, SqlQuery sqlQuery) throws SQLException {
+        int columnCount = resultSetMetaData.getColumnCount();
+        String[] columnNames = new String[columnCount];
+        int[] tableIndexes = new int[columnCount];
+        List<String> tableNames = new ArrayList<>();
+        String tableNameOfQuery = null;
         for (int colIndex = 1; colIndex <= columnCount; colIndex++) {
-            final String tableName = findTableName(resultSetMetaData, colIndex, sqlQuery);
-            DatasetRow datasetRow =
-                    rowsByTableName.computeIfAbsent(tableName
-                                                  , t -> DatasetRow.ofTable(tableName));
-
-            String column = resultSetMetaData.getColumnName(colIndex);
-            Object value = resultSet.getObject(colIndex);
-            datasetRow.addColumnValue(column, value);
+            String tableName = resultSetMetaData.getTableName(colIndex);
+            if (tableName.isEmpty()) {
+                // The driver does not give the table of the column, the table of the query is parsed once
+                if (tableNameOfQuery == null) {
+                    tableNameOfQuery = extractTableNameFrom(sqlQuery.getQueryAsString());
+                }
+                tableName = tableNameOfQuery;
+            }
+            int tableIndex = tableNames.indexOf(tableName);
+            if (tableIndex == -1) {
+                tableIndex = tableNames.size();
+                tableNames.add(tableName);
+            }
+            tableIndexes[colIndex - 1] = tableIndex;
+            columnNames[colIndex - 1] = resultSetMetaData.getColumnName(colIndex);
         }
-        return rowsByTableName.values();
+        TableLayout[] tableLayouts = new TableLayout[tableNames.size()];
+        int[] columnPositions = new int[columnCount];
+        for (int tableIndex = 0; tableIndex < tableLayouts.length; tableIndex++) {
+            List<String> columnNamesOfTable = new ArrayList<>();
+            for (int colIndex = 0; colIndex < columnCount; colIndex++) {
+                if (tableIndexes[colIndex] == tableIndex) {
+                    columnNamesOfTable.add(columnNames[colIndex]);
+                }
+            }
+            tableLayouts[tableIndex] = TableLayout.of(columnNamesOfTable);
+        }
+        for (int colIndex = 0; colIndex < columnCount; colIndex++) {
+            columnPositions[colIndex] = tableLayouts[tableIndexes[colIndex]].findPositionOf(columnNames[colIndex]);
+        }
+        ColumnValueExtractor[] columnValueExtractors = ColumnValueExtractor.buildAllFrom(resultSetMetaData, dbType);
+        return new ResultSetLayout(tableNames.toArray(new String[0]), tableLayouts, columnPositions, tableIndexes, columnValueExtractors);
     }
 
-    private String findTableName(ResultSetMetaData resultSetMetaData, int colIndex, SqlQuery sqlQuery) throws SQLException {
-        String tableName = resultSetMetaData.getTableName(colIndex);
-        if (!tableName.isEmpty()) {
-            return tableName;
+    private Collection<DatasetRow> buildDatasetRowsFrom(ResultSet resultSet, ResultSetLayout resultSetLayout) throws SQLException {
+        String[] tableNames = resultSetLayout.tableNames;
+        TableLayout[] tableLayouts = resultSetLayout.tableLayouts;
+        DatasetRow[] datasetRows = new DatasetRow[tableNames.length];
+        for (int tableIndex = 0; tableIndex < tableNames.length; tableIndex++) {
+            datasetRows[tableIndex] = DatasetRow.ofLayout(tableNames[tableIndex], tableLayouts[tableIndex]);
+        }
+        int[] columnPositions = resultSetLayout.columnPositions;
+        int[] tableIndexes = resultSetLayout.tableIndexes;
+        ColumnValueExtractor[] columnValueExtractors = resultSetLayout.columnValueExtractors;
+        for (int colIndex = 0; colIndex < columnPositions.length; colIndex++) {
+            Object value = columnValueExtractors[colIndex].extractFrom(resultSet);
+            datasetRows[tableIndexes[colIndex]].setValueAt(columnPositions[colIndex], value);
         }
-        String queryAsString = sqlQuery.getQueryAsString();
-        return extractTableNameFrom(queryAsString);
+        return Arrays.asList(datasetRows);
     }
 
     private String extractTableNameFrom(String sqlQueryAsString) {
@@ -112,4 +188,30 @@ class DatasetRowsFinder {
         return "";
     }
 
+    private static class ResultSetLayout {
+
+        private final String[] tableNames;
+
+        private final TableLayout[] tableLayouts;
+
+        private final int[] columnPositions;
+
+        private final int[] tableIndexes;
+
+        private final ColumnValueExtractor[] columnValueExtractors;
+
+        ResultSetLayout( String[] tableNames
+                       , TableLayout[] tableLayouts
+                       , int[] columnPositions
+                       , int[] tableIndexes
+                       , ColumnValueExtractor[] columnValueExtractors) {
+            this.tableNames = tableNames;
+            this.tableLayouts = tableLayouts;
+            this.columnPositions = columnPositions;
+            this.tableIndexes = tableIndexes;
+            this.columnValueExtractors = columnValueExtractors;
+        }
+
+    }
+
 }
@@ -28,22 +28,61 @@ class DatasetRowsGenerator {
 
     private final DatasetRowsFinder datasetRowsFinder;
 
+    private final MetadataPrefetcher metadataPrefetcher;
+
     DatasetRowsGenerator(DataSource dataSource
                        , DatabaseType dbType
                        , DatabaseMetadataFinder databaseMetadataFinder) {
+        this(dataSource, dbType, databaseMetadataFinder, MetadataPrefetcher.NONE);
+    }
+
+    DatasetRowsGenerator(DataSource dataSource
+                       , DatabaseType dbType
+                       , DatabaseMetadataFinder databaseMetadataFinder
+                       , MetadataPrefetcher metadataPrefetcher) {
+        this(dataSource, dbType, databaseMetadataFinder, metadataPrefetcher, new DatasetRowsFinder(dataSource, dbType));
+    }
+
+    private DatasetRowsGenerator(DataSource dataSource
+                               , DatabaseType dbType
+                               , DatabaseMetadataFinder databaseMetadataFinder
+                               , MetadataPrefetcher metadataPrefetcher
+                               , DatasetRowsFinder datasetRowsFinder) {
         this.dataSource = dataSource;
         this.dbType = dbType;
         this.databaseMetadataFinder = databaseMetadataFinder;
-        this.datasetRowsFinder = new DatasetRowsFinder(dataSource);
+        this.datasetRowsFinder = datasetRowsFinder;
+        this.metadataPrefetcher = metadataPrefetcher;
+    }
+
+    DatasetRowsGenerator withColumnPruning() {
+        ColumnPruning columnPruning = new ColumnPruning(databaseMetadataFinder);
+        DatasetRowsFinder datasetRowsFinder = this.datasetRowsFinder.withColumnPruning(columnPruning);
+        return new DatasetRowsGenerator(dataSource, dbType, databaseMetadataFinder, metadataPrefetcher, datasetRowsFinder);
+    }
+
+    DatasetRowsGenerator withMaxRowsByQuery(int maxRowsByQuery) {
+        DatasetRowsFinder datasetRowsFinder = this.datasetRowsFinder.withMaxRowsByQuery(maxRowsByQuery);
+        return new DatasetRowsGenerator(dataSource, dbType, databaseMetadataFinder, metadataPrefetcher, datasetRowsFinder);
     }
 
     List<DatasetRow> generateDatasetRowsFor(List<SqlQuery> sqlQueries) {
-        DatasetRowSet datasetRowSet = new DatasetRowSet(dataSource, dbType, databaseMetadataFinder);
-        for (SqlQuery sqlQuery : sqlQueries) {
-            Collection<DatasetRow> datasetRows = datasetRowsFinder.findDatasetRowsOf(sqlQuery);
-            datasetRowSet.add(datasetRows);
+        GenerationListener listener = CurrentGenerationListener.get();
+        DatasetRowSet datasetRowSet = new DatasetRowSet(dataSource, dbType, databaseMetadataFinder, metadataPrefetcher);
+        try {
+            for (SqlQuery sqlQuery : sqlQueries) {
+                Collection<DatasetRow> datasetRows = datasetRowsFinder.findDatasetRowsOf(sqlQuery);
+                long expandStartNanoTime = CurrentGenerationListener.startPhase(listener);
+                datasetRowSet.add(datasetRows);
+                CurrentGenerationListener.endPhase(listener, GenerationPhase.EXPAND, expandStartNanoTime);
+            }
+            long sortStartNanoTime = CurrentGenerationListener.startPhase(listener);
+            List<DatasetRow> sortedRows = datasetRowSet.sort();
+            CurrentGenerationListener.endPhase(listener, GenerationPhase.SORT, sortStartNanoTime);
+            return sortedRows;
+        } finally {
+            metadataPrefetcher.cancelPendingPrefetches();
         }
-        return datasetRowSet.sort();
     }
 
 }
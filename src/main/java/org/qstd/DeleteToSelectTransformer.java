@@ -15,14 +15,19 @@ package org.qstd;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.statement.delete.Delete;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 class DeleteToSelectTransformer implements SelectTransformer {
 
     private Delete deleteStatement;
 
-    DeleteToSelectTransformer(Delete delete) {
+    private final ColumnPruning columnPruning;
+
+    DeleteToSelectTransformer(Delete delete, ColumnPruning columnPruning) {
         deleteStatement = delete;
+        this.columnPruning = columnPruning;
     }
 
     @Override
@@ -38,11 +43,21 @@ class DeleteToSelectTransformer implements SelectTransformer {
 
         String whereClauseAsString = findWhereClauseAsString();
 
-        return    " SELECT " + "*"
+        return    " SELECT " + findSelectedColumnsSeparatedWithCommas(tableName)
                 + " FROM " + tableName
                 + whereClauseAsString;
     }
 
+    private String findSelectedColumnsSeparatedWithCommas(String tableName) {
+        Expression whereExpression = deleteStatement.getWhere();
+        Optional<Set<String>> optionalWhereColumnNames = ColumnNamesExtractor.INSTANCE.findAllColumnNamesOf(whereExpression);
+        if (!optionalWhereColumnNames.isPresent()) {
+            return "*";
+        }
+        List<String> columnsToSelect = columnPruning.findColumnsToSelect(tableName, optionalWhereColumnNames.get());
+        return columnsToSelect.isEmpty() ? "*" : String.join(", ", columnsToSelect);
+    }
+
     private String findWhereClauseAsString() {
         Expression whereExpression = deleteStatement.getWhere();
         String whereClauseAsString = whereExpression == null ? ""
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+/**
+ * Listener of the events of the dataset generations, to instrument them with metrics or traces.
+ * The methods are called on the thread of the generation and do nothing by default.
+ * The metadata retrieved concurrently with an executor are not notified.
+ *
+ * @see QuickSqlTestData#withListener(GenerationListener)
+ */
+public interface GenerationListener {
+
+    /**
+     * Listener ignoring the events.
+     */
+    GenerationListener NONE = new GenerationListener() {
+    };
+
+    /**
+     * Called before the execution of a query, retrieving data or metadata.
+     * @param sql The SQL text of the query
+     */
+    default void onQueryStart(String sql) {
+    }
+
+    /**
+     * Called after the execution of a query, retrieving data or metadata.
+     * @param sql The SQL text of the query
+     * @param durationNanos The execution duration in nanoseconds
+     */
+    default void onQueryEnd(String sql, long durationNanos) {
+    }
+
+    /**
+     * Called before the execution of a query retrieving metadata, such as the not null columns of a table,
+     * and after {@link #onQueryStart(String)}.
+     * @param sql The SQL text of the query
+     */
+    default void onMetadataQuery(String sql) {
+    }
+
+    /**
+     * Called when the rows of a query given to generate the dataset are fetched.
+     * @param sql The SQL text of the SELECT query
+     * @param rowCount The number of fetched rows
+     */
+    default void onRowsFetched(String sql, int rowCount) {
+    }
+
+    /**
+     * Called when the rows of a query given to generate the dataset are truncated
+     * to the maximum number of rows by query of the query limits.
+     * @param sql The SQL text of the SELECT query
+     * @param maxRowCount The maximum number of rows kept
+     * @see QueryLimits#withMaxRowsByQuery(int)
+     */
+    default void onRowsTruncated(String sql, int maxRowCount) {
+    }
+
+    /**
+     * Called when rows are searched in the database to retrieve their missing not null column values.
+     * @param tableName The table of the searched rows
+     * @param rowCount The number of searched rows
+     */
+    default void onRowLookup(String tableName, int rowCount) {
+    }
+
+    /**
+     * Called when rows referenced by the rows of the dataset are found.
+     * @param rowCount The number of joined rows, before their merge with the rows of the dataset
+     */
+    default void onJoinedRowsFound(int rowCount) {
+    }
+
+    /**
+     * Called when a row is merged with a row already in the dataset.
+     * @param tableName The table of the row
+     */
+    default void onRowMerged(String tableName) {
+    }
+
+    /**
+     * Called when metadata of a table are served from the metadata cache.
+     * @param tableName The table of the metadata
+     */
+    default void onMetadataCacheHit(String tableName) {
+    }
+
+    /**
+     * Called when metadata of a table are missing from the metadata cache and retrieved.
+     * @param tableName The table of the metadata
+     */
+    default void onMetadataCacheMiss(String tableName) {
+    }
+
+    /**
+     * Called when the generation borrows a connection from the data source.
+     */
+    default void onConnectionBorrowed() {
+    }
+
+    /**
+     * Called at the end of a generation phase. A phase may happen several times during a generation,
+     * for example once for each SQL query given to generate the dataset.
+     * @param phase The generation phase
+     * @param durationNanos The phase duration in nanoseconds
+     */
+    default void onPhaseEnd(GenerationPhase phase, long durationNanos) {
+    }
+
+}
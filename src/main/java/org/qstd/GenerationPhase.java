@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+/**
+ * Phases of a dataset generation.
+ *
+ * @see GenerationListener#onPhaseEnd(GenerationPhase, long)
+ */
+public enum GenerationPhase {
+
+    /**
+     * Transformation of an SQL query into a SELECT query
+     */
+    TRANSFORM,
+
+    /**
+     * Execution of a SELECT query and reading of its rows
+     */
+    FETCH,
+
+    /**
+     * Addition of the joined rows and of the missing not null column values
+     */
+    EXPAND,
+
+    /**
+     * Sort of the rows according to the database integrity constraints
+     */
+    SORT,
+
+    /**
+     * Formatting of the INSERT statements
+     */
+    FORMAT
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+/**
+ * An SQL script of INSERT statements with the statistics of its generation.
+ *
+ * @see QuickSqlTestData#generateInsertScriptWithStatsFor(String...)
+ */
+public class GenerationResult {
+
+    private final String insertScript;
+
+    private final GenerationStats stats;
+
+    GenerationResult(String insertScript, GenerationStats stats) {
+        this.insertScript = insertScript;
+        this.stats = stats;
+    }
+
+    /**
+     * @return An SQL script containing INSERT statements
+     */
+    public String getInsertScript() {
+        return insertScript;
+    }
+
+    /**
+     * @return The statistics of the generation of the script
+     */
+    public GenerationStats getStats() {
+        return stats;
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+class GenerationSession implements AutoCloseable {
+
+    // Each cached statement keeps a cursor open in the database, as Oracle limits them to 300 by default
+    private static final int MAX_CACHED_STATEMENTS = 32;
+
+    private final DataSource dataSource;
+
+    private final Runnable closingAction;
+
+    private final QueryLimits queryLimits;
+
+    private final GenerationListener listener;
+
+    private final long deadlineNanoTime;
+
+    // In access order to close the least recently used statements
+    private final Map<String, PreparedStatement> preparedStatementBySql = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Set<String> sqlOfStatementsInUse = new HashSet<>();
+
+    private Connection connection;
+
+    private Connection sessionConnection;
+
+    private Connection metadataSessionConnection;
+
+    private int openingCount;
+
+    GenerationSession(DataSource dataSource, QueryLimits queryLimits, GenerationListener listener, Runnable closingAction) {
+        this.dataSource = dataSource;
+        this.queryLimits = queryLimits;
+        this.listener = listener;
+        this.closingAction = closingAction;
+        Duration deadline = queryLimits.getDeadline();
+        this.deadlineNanoTime = deadline.isZero() ? 0 : System.nanoTime() + deadline.toNanos();
+    }
+
+    GenerationSession open() {
+        openingCount++;
+        return this;
+    }
+
+    Connection getConnection(boolean metadataQueries) throws SQLException {
+        if (connection == null) {
+            connection = dataSource.getConnection();
+            listener.onConnectionBorrowed();
+            sessionConnection = new SessionConnection(this, connection, false);
+            metadataSessionConnection = new SessionConnection(this, connection, true);
+        }
+        return metadataQueries ? metadataSessionConnection : sessionConnection;
+    }
+
+    PreparedStatement prepareStatement(String sql, boolean metadataQueries) throws SQLException {
+        boolean cached = sqlOfStatementsInUse.add(sql);
+        PreparedStatement preparedStatement;
+        try {
+            if (cached) {
+                preparedStatement = preparedStatementBySql.get(sql);
+                if (preparedStatement == null || preparedStatement.isClosed()) {
+                    preparedStatement = connection.prepareStatement(sql);
+                    preparedStatementBySql.put(sql, preparedStatement);
+                    closeLeastRecentlyUsedStatements();
+                }
+            } else {
+                // The statement of the same SQL text is still in use, for example by a query nested in its result set reading
+                preparedStatement = connection.prepareStatement(sql);
+            }
+            applyQueryLimitsTo(preparedStatement);
+        } catch (SQLException | RuntimeException exception) {
+            if (cached) {
+                sqlOfStatementsInUse.remove(sql);
+            }
+            throw exception;
+        }
+        return new SessionPreparedStatement(this, sql, preparedStatement, cached, metadataQueries);
+    }
+
+    private void closeLeastRecentlyUsedStatements() throws SQLException {
+        Iterator<Map.Entry<String, PreparedStatement>> statementIterator = preparedStatementBySql.entrySet().iterator();
+        while (preparedStatementBySql.size() > MAX_CACHED_STATEMENTS && statementIterator.hasNext()) {
+            Map.Entry<String, PreparedStatement> statementEntry = statementIterator.next();
+            // A statement in use is closed by its user
+            if (!sqlOfStatementsInUse.contains(statementEntry.getKey())) {
+                statementIterator.remove();
+                statementEntry.getValue().close();
+            }
+        }
+    }
+
+    private void applyQueryLimitsTo(PreparedStatement preparedStatement) throws SQLException {
+        if (queryLimits == QueryLimits.NONE) {
+            return;
+        }
+        if (queryLimits.getFetchSize() > 0) {
+            preparedStatement.setFetchSize(queryLimits.getFetchSize());
+        }
+        // The maximum number of rows is only set for the queries given to generate the dataset
+        preparedStatement.setMaxRows(0);
+        int timeoutInSeconds = toSecondsRoundedUp(queryLimits.getStatementTimeout().toNanos());
+        if (deadlineNanoTime != 0) {
+            long remainingNanos = deadlineNanoTime - System.nanoTime();
+            if (remainingNanos <= 0) {
+                throw new QueryTimeoutException("The dataset generation exceeds its deadline of " + queryLimits.getDeadline());
+            }
+            int remainingSeconds = toSecondsRoundedUp(remainingNanos);
+            timeoutInSeconds = timeoutInSeconds == 0 ? remainingSeconds : Math.min(timeoutInSeconds, remainingSeconds);
+        }
+        preparedStatement.setQueryTimeout(timeoutInSeconds);
+    }
+
+    private static int toSecondsRoundedUp(long nanos) {
+        long seconds = (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        return (int) Math.min(seconds, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() {
+        openingCount--;
+        if (openingCount == 0) {
+            closingAction.run();
+            release();
+        }
+    }
+
+    private void release() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            for (PreparedStatement preparedStatement : preparedStatementBySql.values()) {
+                preparedStatement.close();
+            }
+        } catch (SQLException sqlException) {
+            sqlException.printStackTrace();
+        } finally {
+            preparedStatementBySql.clear();
+            sqlOfStatementsInUse.clear();
+            try {
+                connection.close();
+            } catch (SQLException sqlException) {
+                sqlException.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Executes a statement of the session, notifying the generation listener
+     * @throws QueryTimeoutException If the execution exceeds the statement timeout
+     */
+    <T> T execute(String sql, boolean metadataQuery, StatementExecution<T> execution) throws SQLException {
+        try {
+            if (listener == GenerationListener.NONE) {
+                return execution.execute();
+            }
+            listener.onQueryStart(sql);
+            if (metadataQuery) {
+                listener.onMetadataQuery(sql);
+            }
+            long startNanoTime = System.nanoTime();
+            try {
+                return execution.execute();
+            } finally {
+                listener.onQueryEnd(sql, System.nanoTime() - startNanoTime);
+            }
+        } catch (SQLException sqlException) {
+            QueryTimeoutException.throwIfTimeout(sqlException, sql);
+            throw sqlException;
+        }
+    }
+
+    /**
+     * Releases a statement closed by its user. A cached statement is kept to be reused with the same SQL text.
+     */
+    void release(String sql, PreparedStatement preparedStatement, boolean cached) throws SQLException {
+        if (!cached) {
+            preparedStatement.close();
+            return;
+        }
+        sqlOfStatementsInUse.remove(sql);
+        ResultSet resultSet = preparedStatement.getResultSet();
+        if (resultSet != null) {
+            resultSet.close();
+        }
+        preparedStatement.clearParameters();
+    }
+
+    interface StatementExecution<T> {
+
+        T execute() throws SQLException;
+
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Statistics of a dataset generation.
+ *
+ * @see QuickSqlTestData#generateInsertScriptWithStatsFor(String...)
+ */
+public class GenerationStats {
+
+    private final int sourceRowCount;
+
+    private final int joinedRowCount;
+
+    private final int mergedRowCount;
+
+    private final int metadataQueryCount;
+
+    private final int metadataCacheHitCount;
+
+    private final int rowFinderLookupCount;
+
+    private final int borrowedConnectionCount;
+
+    private final Duration transformDuration;
+
+    private final Duration fetchDuration;
+
+    private final Duration expandDuration;
+
+    private final Duration sortDuration;
+
+    private final Duration formatDuration;
+
+    private final List<String> truncatedQueries;
+
+    GenerationStats( int sourceRowCount
+                   , int joinedRowCount
+                   , int mergedRowCount
+                   , int metadataQueryCount
+                   , int metadataCacheHitCount
+                   , int rowFinderLookupCount
+                   , int borrowedConnectionCount
+                   , Duration transformDuration
+                   , Duration fetchDuration
+                   , Duration expandDuration
+                   , Duration sortDuration
+                   , Duration formatDuration
+                   , List<String> truncatedQueries) {
+        this.sourceRowCount = sourceRowCount;
+        this.joinedRowCount = joinedRowCount;
+        this.mergedRowCount = mergedRowCount;
+        this.metadataQueryCount = metadataQueryCount;
+        this.metadataCacheHitCount = metadataCacheHitCount;
+        this.rowFinderLookupCount = rowFinderLookupCount;
+        this.borrowedConnectionCount = borrowedConnectionCount;
+        this.transformDuration = transformDuration;
+        this.fetchDuration = fetchDuration;
+        this.expandDuration = expandDuration;
+        this.sortDuration = sortDuration;
+        this.formatDuration = formatDuration;
+        this.truncatedQueries = truncatedQueries;
+    }
+
+    /**
+     * @return The number of rows retrieved by the SQL queries given to generate the dataset
+     */
+    public int getSourceRowCount() {
+        return sourceRowCount;
+    }
+
+    /**
+     * @return The number of rows discovered by following the foreign keys, before their merge with the known rows
+     */
+    public int getJoinedRowCount() {
+        return joinedRowCount;
+    }
+
+    /**
+     * @return The number of rows merged with a row already in the dataset
+     */
+    public int getMergedRowCount() {
+        return mergedRowCount;
+    }
+
+    /**
+     * @return The number of metadata queries executed by the generation thread.
+     * The metadata retrieved concurrently with an executor are not counted, nor the metadata retrieved
+     * by a database metadata finder given to <code>QuickSqlTestData</code>.
+     * @see GenerationListener#onMetadataQuery(String)
+     */
+    public int getMetadataQueryCount() {
+        return metadataQueryCount;
+    }
+
+    /**
+     * @return The number of metadata lookups served from the metadata cache
+     */
+    public int getMetadataCacheHitCount() {
+        return metadataCacheHitCount;
+    }
+
+    /**
+     * @return The number of queries searching the missing not null column values of rows
+     */
+    public int getRowFinderLookupCount() {
+        return rowFinderLookupCount;
+    }
+
+    /**
+     * @return The number of connections borrowed from the data source
+     */
+    public int getBorrowedConnectionCount() {
+        return borrowedConnectionCount;
+    }
+
+    /**
+     * @return The time spent transforming the SQL queries into SELECT queries
+     */
+    public Duration getTransformDuration() {
+        return transformDuration;
+    }
+
+    /**
+     * @return The time spent executing the SELECT queries and reading their rows
+     */
+    public Duration getFetchDuration() {
+        return fetchDuration;
+    }
+
+    /**
+     * @return The time spent adding the joined rows and the missing not null column values
+     */
+    public Duration getExpandDuration() {
+        return expandDuration;
+    }
+
+    /**
+     * @return The time spent sorting the rows according to the database integrity constraints
+     */
+    public Duration getSortDuration() {
+        return sortDuration;
+    }
+
+    /**
+     * @return The time spent formatting the INSERT statements
+     */
+    public Duration getFormatDuration() {
+        return formatDuration;
+    }
+
+    /**
+     * @return The SQL queries given to generate the dataset whose rows are truncated
+     * to the maximum number of rows by query
+     * @see QueryLimits#withMaxRowsByQuery(int)
+     */
+    public List<String> getTruncatedQueries() {
+        return truncatedQueries;
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationStats{" +
+                "sourceRowCount=" + sourceRowCount +
+                ", joinedRowCount=" + joinedRowCount +
+                ", mergedRowCount=" + mergedRowCount +
+                ", metadataQueryCount=" + metadataQueryCount +
+                ", metadataCacheHitCount=" + metadataCacheHitCount +
+                ", rowFinderLookupCount=" + rowFinderLookupCount +
+                ", borrowedConnectionCount=" + borrowedConnectionCount +
+                ", transformDuration=" + transformDuration +
+                ", fetchDuration=" + fetchDuration +
+                ", expandDuration=" + expandDuration +
+                ", sortDuration=" + sortDuration +
+                ", formatDuration=" + formatDuration +
+                ", truncatedQueries=" + truncatedQueries +
+                '}';
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the statistics of a dataset generation from its events, then notifies the events to another listener.
+ */
+class GenerationStatsRecorder implements GenerationListener {
+
+    private final GenerationListener listener;
+
+    private final long[] nanosByPhase = new long[GenerationPhase.values().length];
+
+    private final List<String> truncatedQueries = new ArrayList<>();
+
+    private int metadataQueryCount;
+
+    private int sourceRowCount;
+
+    private int joinedRowCount;
+
+    private int mergedRowCount;
+
+    private int metadataCacheHitCount;
+
+    private int rowFinderLookupCount;
+
+    private int borrowedConnectionCount;
+
+    GenerationStatsRecorder(GenerationListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void onQueryStart(String sql) {
+        listener.onQueryStart(sql);
+    }
+
+    @Override
+    public void onQueryEnd(String sql, long durationNanos) {
+        listener.onQueryEnd(sql, durationNanos);
+    }
+
+    @Override
+    public void onMetadataQuery(String sql) {
+        metadataQueryCount++;
+        listener.onMetadataQuery(sql);
+    }
+
+    @Override
+    public void onRowsFetched(String sql, int rowCount) {
+        sourceRowCount += rowCount;
+        listener.onRowsFetched(sql, rowCount);
+    }
+
+    @Override
+    public void onRowsTruncated(String sql, int maxRowCount) {
+        truncatedQueries.add(sql);
+        listener.onRowsTruncated(sql, maxRowCount);
+    }
+
+    @Override
+    public void onRowLookup(String tableName, int rowCount) {
+        rowFinderLookupCount++;
+        listener.onRowLookup(tableName, rowCount);
+    }
+
+    @Override
+    public void onJoinedRowsFound(int rowCount) {
+        joinedRowCount += rowCount;
+        listener.onJoinedRowsFound(rowCount);
+    }
+
+    @Override
+    public void onRowMerged(String tableName) {
+        mergedRowCount++;
+        listener.onRowMerged(tableName);
+    }
+
+    @Override
+    public void onMetadataCacheHit(String tableName) {
+        metadataCacheHitCount++;
+        listener.onMetadataCacheHit(tableName);
+    }
+
+    @Override
+    public void onMetadataCacheMiss(String tableName) {
+        listener.onMetadataCacheMiss(tableName);
+    }
+
+    @Override
+    public void onConnectionBorrowed() {
+        borrowedConnectionCount++;
+        listener.onConnectionBorrowed();
+    }
+
+    @Override
+    public void onPhaseEnd(GenerationPhase phase, long durationNanos) {
+        nanosByPhase[phase.ordinal()] += durationNanos;
+        listener.onPhaseEnd(phase, durationNanos);
+    }
+
+    GenerationStats toStats() {
+        return new GenerationStats( sourceRowCount
+                                  , joinedRowCount
+                                  , mergedRowCount
+                                  , metadataQueryCount
+                                  , metadataCacheHitCount
+                                  , rowFinderLookupCount
+                                  , borrowedConnectionCount
+                                  , durationOf(GenerationPhase.TRANSFORM)
+                                  , durationOf(GenerationPhase.FETCH)
+                                  , durationOf(GenerationPhase.EXPAND)
+                                  , durationOf(GenerationPhase.SORT)
+                                  , durationOf(GenerationPhase.FORMAT)
+                                  , Collections.unmodifiableList(new ArrayList<>(truncatedQueries)));
+    }
+
+    private Duration durationOf(GenerationPhase phase) {
+        return Duration.ofNanos(nanosByPhase[phase.ordinal()]);
+    }
+
+}
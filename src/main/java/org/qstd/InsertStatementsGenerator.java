@@ -14,55 +14,173 @@ package org.qstd;
 
 import org.qstd.dbtype.DatabaseType;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 import static java.lang.System.lineSeparator;
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
+import static java.util.Collections.singletonList;
 
 class InsertStatementsGenerator {
 
+    // SQL Server does not accept more than 1000 rows in a VALUES clause
+    private static final int MAX_ROWS_BY_INSERT_STATEMENT = 1000;
+
     private final DatabaseType dbType;
 
+    private final boolean multiRowInserts;
+
+    private final ColumnValueFormatter columnValueFormatter;
+
     InsertStatementsGenerator(DatabaseType dbType) {
+        this(dbType, false, ColumnValueFormatter.of(dbType));
+    }
+
+    private InsertStatementsGenerator(DatabaseType dbType, boolean multiRowInserts, ColumnValueFormatter columnValueFormatter) {
         this.dbType = dbType;
+        this.multiRowInserts = multiRowInserts;
+        this.columnValueFormatter = columnValueFormatter;
     }
 
-    String generateInsertScriptFor(List<DatasetRow> datasetRows) {
-        return   datasetRows
-                .stream()
-                .map(this::generateInsertStatementFrom)
-                .map(insertStatement -> insertStatement + ";" + lineSeparator())
-                .collect(joining());
+    InsertStatementsGenerator withMultiRowInserts() {
+        return new InsertStatementsGenerator(dbType, true, columnValueFormatter);
     }
 
-    private String generateInsertStatementFrom(DatasetRow datasetRow) {
-        String tableName = datasetRow.getTableName();
-        Set<String> columnNames = datasetRow.getColumnNames();
-        Collection<Object> columnValues = datasetRow.getColumnValues();
-        return  "INSERT INTO " + tableName + "(" + formatColumnNames(columnNames) + ")"
-              + " VALUES(" + formatColumnValues(columnValues) + ")";
+    <T> InsertStatementsGenerator withValueFormatter(Class<T> valueClass, ValueFormatter<? super T> valueFormatter) {
+        ColumnValueFormatter columnValueFormatter = this.columnValueFormatter.withFormatter(valueClass, valueFormatter);
+        return new InsertStatementsGenerator(dbType, multiRowInserts, columnValueFormatter);
     }
 
-    private String formatColumnNames(Set<String> columnNames) {
-        return String.join(", ", columnNames);
+    String generateInsertScriptFor(List<DatasetRow> datasetRows) {
+        StringBuilder insertScript = new StringBuilder();
+        writeInsertScriptFor(datasetRows, insertScript);
+        return insertScript.toString();
     }
 
-    private String formatColumnValues(Collection<Object> columnValues) {
-        return  columnValues
-               .stream()
-               .map(columnValue -> ColumnValueFormatter.INSTANCE
-                                  .formatColumnValue(columnValue, dbType))
-               .collect(joining(", "));
+    void writeInsertScriptFor(List<DatasetRow> datasetRows, Appendable output) {
+        GenerationListener listener = CurrentGenerationListener.get();
+        long formatStartNanoTime = CurrentGenerationListener.startPhase(listener);
+        StringBuilder insertStatement = new StringBuilder();
+        for (List<DatasetRow> rowsOfInsertStatement : groupRowsByInsertStatement(datasetRows)) {
+            insertStatement.setLength(0);
+            appendInsertStatementTo(insertStatement, rowsOfInsertStatement);
+            insertStatement.append(';').append(lineSeparator());
+            try {
+                output.append(insertStatement);
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+        CurrentGenerationListener.endPhase(listener, GenerationPhase.FORMAT, formatStartNanoTime);
     }
 
     List<String> generateInsertStatementsFor(List<DatasetRow> datasetRows) {
-        return   datasetRows
-                .stream()
-                .map(this::generateInsertStatementFrom)
-                .collect(toList());
+        GenerationListener listener = CurrentGenerationListener.get();
+        long formatStartNanoTime = CurrentGenerationListener.startPhase(listener);
+        List<String> insertStatements = new ArrayList<>();
+        for (List<DatasetRow> rowsOfInsertStatement : groupRowsByInsertStatement(datasetRows)) {
+            StringBuilder insertStatement = new StringBuilder();
+            appendInsertStatementTo(insertStatement, rowsOfInsertStatement);
+            insertStatements.add(insertStatement.toString());
+        }
+        CurrentGenerationListener.endPhase(listener, GenerationPhase.FORMAT, formatStartNanoTime);
+        return insertStatements;
+    }
+
+    private List<List<DatasetRow>> groupRowsByInsertStatement(List<DatasetRow> datasetRows) {
+        List<List<DatasetRow>> rowGroups = new ArrayList<>();
+        if (!multiRowInserts) {
+            for (DatasetRow datasetRow : datasetRows) {
+                rowGroups.add(singletonList(datasetRow));
+            }
+            return rowGroups;
+        }
+        // Only consecutive rows are grouped to keep the order of the rows
+        List<DatasetRow> currentGroup = new ArrayList<>();
+        for (DatasetRow datasetRow : datasetRows) {
+            if (!currentGroup.isEmpty()
+             && (currentGroup.size() == MAX_ROWS_BY_INSERT_STATEMENT
+              || !haveSameTableAndColumns(currentGroup.get(0), datasetRow))) {
+                rowGroups.add(currentGroup);
+                currentGroup = new ArrayList<>();
+            }
+            currentGroup.add(datasetRow);
+        }
+        if (!currentGroup.isEmpty()) {
+            rowGroups.add(currentGroup);
+        }
+        return rowGroups;
+    }
+
+    private static boolean haveSameTableAndColumns(DatasetRow datasetRow, DatasetRow otherDatasetRow) {
+        if (!datasetRow.getTableName().equals(otherDatasetRow.getTableName())) {
+            return false;
+        }
+        List<String> columnNames = datasetRow.getColumnNames();
+        List<String> otherColumnNames = otherDatasetRow.getColumnNames();
+        return columnNames.equals(otherColumnNames);
+    }
+
+    private void appendInsertStatementTo(StringBuilder insertStatement, List<DatasetRow> datasetRows) {
+        if (datasetRows.size() > 1 && DatabaseType.ORACLE.equals(dbType)) {
+            appendOracleInsertAllStatementTo(insertStatement, datasetRows);
+            return;
+        }
+        DatasetRow firstDatasetRow = datasetRows.get(0);
+        appendInsertIntoTo(insertStatement, firstDatasetRow);
+        insertStatement.append(" VALUES");
+        for (int i = 0; i < datasetRows.size(); i++) {
+            if (i > 0) {
+                insertStatement.append(", ");
+            }
+            appendRowValuesTo(insertStatement, datasetRows.get(i));
+        }
+    }
+
+    private void appendOracleInsertAllStatementTo(StringBuilder insertStatement, List<DatasetRow> datasetRows) {
+        insertStatement.append("INSERT ALL");
+        for (DatasetRow datasetRow : datasetRows) {
+            insertStatement.append(" INTO ").append(datasetRow.getTableName());
+            appendColumnNamesTo(insertStatement, datasetRow);
+            insertStatement.append(" VALUES");
+            appendRowValuesTo(insertStatement, datasetRow);
+        }
+        insertStatement.append(" SELECT 1 FROM DUAL");
+    }
+
+    private void appendInsertIntoTo(StringBuilder insertStatement, DatasetRow datasetRow) {
+        insertStatement.append("INSERT INTO ").append(datasetRow.getTableName());
+        appendColumnNamesTo(insertStatement, datasetRow);
+    }
+
+    private void appendColumnNamesTo(StringBuilder insertStatement, DatasetRow datasetRow) {
+        List<String> columnNames = datasetRow.getColumnNames();
+        insertStatement.append('(');
+        boolean firstColumn = true;
+        for (String columnName : columnNames) {
+            if (!firstColumn) {
+                insertStatement.append(", ");
+            }
+            insertStatement.append(columnName);
+            firstColumn = false;
+        }
+        insertStatement.append(')');
+    }
+
+    private void appendRowValuesTo(StringBuilder insertStatement, DatasetRow datasetRow) {
+        Collection<Object> columnValues = datasetRow.getColumnValues();
+        insertStatement.append('(');
+        boolean firstValue = true;
+        for (Object columnValue : columnValues) {
+            if (!firstValue) {
+                insertStatement.append(", ");
+            }
+            columnValueFormatter.appendColumnValue(insertStatement, columnValue);
+            firstValue = false;
+        }
+        insertStatement.append(')');
     }
 
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+class MetadataPrefetcher {
+
+    static final MetadataPrefetcher NONE = new MetadataPrefetcher(null, null) {
+        @Override
+        void prefetchMetadataOf(Collection<String> tableNames) {
+        }
+    };
+
+    private final DatabaseMetadataFinder databaseMetadataFinder;
+
+    private final Executor executor;
+
+    private final Set<String> prefetchedTableNames = ConcurrentHashMap.newKeySet();
+
+    private final Map<CompletableFuture<?>, String> tableNameByPendingPrefetch = new ConcurrentHashMap<>();
+
+    MetadataPrefetcher(DatabaseMetadataFinder databaseMetadataFinder, Executor executor) {
+        this.databaseMetadataFinder = databaseMetadataFinder;
+        this.executor = executor;
+    }
+
+    /**
+     * Retrieves concurrently the metadata of the tables and of the tables they reference.
+     * The database metadata finder has to cache the metadata for the prefetching to be useful.
+     */
+    void prefetchMetadataOf(Collection<String> tableNames) {
+        for (String tableName : tableNames) {
+            if (prefetchedTableNames.add(tableName)) {
+                prefetchMetadataOf(tableName);
+            }
+        }
+    }
+
+    private void prefetchMetadataOf(String tableName) {
+        watch(tableName, CompletableFuture.runAsync(() -> databaseMetadataFinder.findNotNullColumnsOf(tableName), executor));
+        watch(tableName, CompletableFuture.runAsync(() -> databaseMetadataFinder.findColumnsMappingsOf(tableName), executor));
+        watch(tableName, CompletableFuture.runAsync(() -> databaseMetadataFinder.findPrimaryColumnsOf(tableName), executor));
+        watch(tableName, CompletableFuture.runAsync(() -> databaseMetadataFinder.findDatabaseColumnOrdersOf(tableName), executor));
+        CompletableFuture<ReferencedTableSet> referencedTablesPrefetch =
+                CompletableFuture.supplyAsync(() -> databaseMetadataFinder.findReferencedTablesOf(tableName), executor);
+        watch(tableName, referencedTablesPrefetch);
+        referencedTablesPrefetch.thenAccept(referencedTableSet -> prefetchMetadataOf(referencedTableSet.getReferencedTableNames()));
+    }
+
+    private void watch(String tableName, CompletableFuture<?> prefetch) {
+        tableNameByPendingPrefetch.put(prefetch, tableName);
+        prefetch.whenComplete((result, exception) -> {
+            tableNameByPendingPrefetch.remove(prefetch);
+            if (exception != null && !(exception instanceof CancellationException)) {
+                System.err.println("Unable to prefetch the metadata of " + tableName);
+                exception.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Cancels the prefetching tasks not completed at the end of a generation, so that they do not outlive it.
+     * A task already running completes, and the metadata of the tables whose prefetching is cancelled
+     * are prefetched again by the next generation meeting them.
+     */
+    void cancelPendingPrefetches() {
+        for (Map.Entry<CompletableFuture<?>, String> pendingPrefetch : tableNameByPendingPrefetch.entrySet()) {
+            if (pendingPrefetch.getKey().cancel(false)) {
+                prefetchedTableNames.remove(pendingPrefetch.getValue());
+            }
+        }
+    }
+
+}
@@ -15,14 +15,14 @@ package org.qstd;
 import org.qstd.dbtype.DatabaseType;
 
 import javax.sql.DataSource;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
+import java.util.*;
 
 import static java.util.stream.Collectors.toList;
 
 class MissingNotNullColumnsFinder {
 
+    private static final int MAX_ROWS_BY_QUERY = 500;
+
     private final DataSource dataSource;
 
     private final DatabaseType dbType;
@@ -35,25 +35,97 @@ class MissingNotNullColumnsFinder {
         this.databaseMetadataFinder = databaseMetadataFinder;
     }
 
-    Map<String, Object> findMissingNoNullColumnsOf(DatasetRow datasetRow) {
+    Map<DatasetRow, Map<String, Object>> findMissingNoNullColumnsOf(Collection<DatasetRow> datasetRows) {
 
-        String tableName = datasetRow.getTableName();
+        Map<DatasetRow, Map<String, Object>> missingNotNullColumnsByRow = new IdentityHashMap<>();
 
-        Collection<String> notNullColumns = databaseMetadataFinder.findNotNullColumnsOf(tableName);
+        Map<List<Object>, List<DatasetRow>> rowsToSearchByShape = new LinkedHashMap<>();
+        for (DatasetRow datasetRow : datasetRows) {
+            Collection<String> missingNotNullColumns = findMissingNotNullColumnNamesOf(datasetRow);
+            if (!missingNotNullColumns.isEmpty()) {
+                List<Object> rowShape = buildShapeOf(datasetRow, missingNotNullColumns);
+                rowsToSearchByShape.computeIfAbsent(rowShape, shape -> new ArrayList<>())
+                                   .add(datasetRow);
+            }
+        }
+
+        RowFinder rowFinder = new RowFinder(dataSource, dbType);
+        for (List<DatasetRow> rowsHavingSameShape : rowsToSearchByShape.values()) {
+            DatasetRow firstRow = rowsHavingSameShape.get(0);
+            String tableName = firstRow.getTableName();
+            Collection<String> missingNotNullColumns = findMissingNotNullColumnNamesOf(firstRow);
+            int maxRowsByQuery = findMaxRowsByQueryFor(firstRow);
+            for (int fromIndex = 0; fromIndex < rowsHavingSameShape.size(); fromIndex += maxRowsByQuery) {
+                int toIndex = Math.min(fromIndex + maxRowsByQuery, rowsHavingSameShape.size());
+                List<DatasetRow> rowsToSearch = rowsHavingSameShape.subList(fromIndex, toIndex);
+                Map<DatasetRow, DatasetRow> foundRows =
+                        rowsToSearch.size() == 1
+                        ? Collections.emptyMap()
+                        : rowFinder.findRowsFrom(tableName, missingNotNullColumns, rowsToSearch);
+                for (DatasetRow rowToSearch : rowsToSearch) {
+                    DatasetRow foundRow = foundRows.get(rowToSearch);
+                    if (foundRow == null) {
+                        foundRow = rowFinder.findOneRowFrom(tableName, missingNotNullColumns, rowToSearch);
+                    }
+                    missingNotNullColumnsByRow.put(rowToSearch, foundRow.getColumnValueByColumnName());
+                }
+            }
+        }
+
+        return missingNotNullColumnsByRow;
+
+    }
 
-        Collection<String> missingNotNullColumns =  notNullColumns
-                                                   .stream()
-                                                   .filter(columnName -> !datasetRow.hasNotNullValueForColumn(columnName))
-                                                   .collect(toList());
+    private static List<Object> buildShapeOf(DatasetRow datasetRow, Collection<String> missingNotNullColumns) {
+        List<Object> rowShape = new ArrayList<>();
+        rowShape.add(datasetRow.getTableName());
+        for (String columnName : datasetRow.getColumnNames()) {
+            rowShape.add(columnName);
+            rowShape.add(datasetRow.hasNotNullValueForColumn(columnName));
+        }
+        rowShape.add(missingNotNullColumns);
+        return rowShape;
+    }
 
-        if (!missingNotNullColumns.isEmpty()) {
-            RowFinder rowFinder = new RowFinder(dataSource, dbType);
-            DatasetRow datasetRowWithMissingNotNullColumns = rowFinder.findOneRowFrom(datasetRow.getTableName(), missingNotNullColumns, datasetRow);
-            return datasetRowWithMissingNotNullColumns.getColumnValueByColumnName();
+    private int findMaxRowsByQueryFor(DatasetRow datasetRow) {
+        long bindParameterCountByRow = datasetRow.getColumnValues()
+                                                 .stream()
+                                                 .filter(Objects::nonNull)
+                                                 .count();
+        if (bindParameterCountByRow == 0) {
+            return 1;
         }
+        long maxRowsByQuery = findMaxBindParameterCount() / bindParameterCountByRow;
+        return (int) Math.max(1, Math.min(MAX_ROWS_BY_QUERY, maxRowsByQuery));
+    }
 
-        return Collections.emptyMap();
+    private int findMaxBindParameterCount() {
+        switch (dbType) {
+            case MICROSOFT_SQL_SERVER:
+                return 2000;
+            case POSTGRE_SQL:
+                return 32767;
+            case ORACLE:
+            case MY_SQL:
+            case MARIA_DB:
+                return 65535;
+            case H2:
+            case HSQLDB:
+                // No lower limit than the ones of the other databases
+                return 65535;
+            default:
+                // Limit of the databases accepting the fewest bind parameters, such as SQLite
+                return 999;
+        }
+    }
 
+    private Collection<String> findMissingNotNullColumnNamesOf(DatasetRow datasetRow) {
+        String tableName = datasetRow.getTableName();
+        Collection<String> notNullColumns = databaseMetadataFinder.findNotNullColumnsOf(tableName);
+        return notNullColumns
+              .stream()
+              .filter(columnName -> !datasetRow.hasNotNullValueForColumn(columnName))
+              .collect(toList());
     }
 
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Replaces <code>*</code> in a select of one table with the columns needed by the dataset.
+ */
+class PrunedSelectTransformer implements SelectTransformer {
+
+    private final Select select;
+
+    private final ColumnPruning columnPruning;
+
+    PrunedSelectTransformer(Select select, ColumnPruning columnPruning) {
+        this.select = select;
+        this.columnPruning = columnPruning;
+    }
+
+    @Override
+    public Optional<SqlQuery> toSelect(SqlQuery sqlQuery) {
+        SelectBody selectBody = select.getSelectBody();
+        if (!(selectBody instanceof PlainSelect) || !selectsAllColumnsOfOneTable((PlainSelect) selectBody)) {
+            return Optional.of(sqlQuery);
+        }
+        PlainSelect plainSelect = (PlainSelect) selectBody;
+        String tableName = ((Table) plainSelect.getFromItem()).getName();
+        // The columns of a WHERE clause with a subquery are not all known: all the columns are selected
+        Optional<Set<String>> optionalWhereColumnNames = ColumnNamesExtractor.INSTANCE.findAllColumnNamesOf(plainSelect.getWhere());
+        if (!optionalWhereColumnNames.isPresent()) {
+            return Optional.of(sqlQuery);
+        }
+        List<String> columnsToSelect = columnPruning.findColumnsToSelect(tableName, optionalWhereColumnNames.get());
+        if (columnsToSelect.isEmpty()) {
+            return Optional.of(sqlQuery);
+        }
+        List<SelectItem> selectItems = columnsToSelect.stream()
+                                                      .map(columnName -> new SelectExpressionItem(new Column(columnName)))
+                                                      .collect(toList());
+        plainSelect.setSelectItems(selectItems);
+        SqlQuery prunedSelectQuery = new SqlQuery(select.toString(), sqlQuery.getParameters());
+        return Optional.of(prunedSelectQuery);
+    }
+
+    private static boolean selectsAllColumnsOfOneTable(PlainSelect plainSelect) {
+        List<SelectItem> selectItems = plainSelect.getSelectItems();
+        return selectItems.size() == 1
+            && selectItems.get(0) instanceof AllColumns
+            && plainSelect.getFromItem() instanceof Table
+            && (plainSelect.getJoins() == null || plainSelect.getJoins().isEmpty())
+            && plainSelect.getDistinct() == null
+            && plainSelect.getGroupBy() == null;
+    }
+
+}
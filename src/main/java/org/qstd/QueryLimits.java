@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.time.Duration;
+
+/**
+ * Limits of the queries executed to generate a dataset.
+ * A zero value means no limit.
+ *
+ * @see QuickSqlTestData#withQueryLimits(QueryLimits)
+ */
+public class QueryLimits {
+
+    /**
+     * No limit: the driver defaults are used.
+     */
+    public static final QueryLimits NONE = new QueryLimits(0, 0, Duration.ZERO, Duration.ZERO);
+
+    private final int fetchSize;
+
+    private final int maxRowsByQuery;
+
+    private final Duration statementTimeout;
+
+    private final Duration deadline;
+
+    private QueryLimits(int fetchSize, int maxRowsByQuery, Duration statementTimeout, Duration deadline) {
+        this.fetchSize = fetchSize;
+        this.maxRowsByQuery = maxRowsByQuery;
+        this.statementTimeout = statementTimeout;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns limits with the given number of rows fetched from the database in one round-trip.
+     * @param fetchSize A fetch size
+     * @return Query limits with the given fetch size
+     */
+    public QueryLimits withFetchSize(int fetchSize) {
+        checkNotNegative(fetchSize, "fetch size");
+        return new QueryLimits(fetchSize, maxRowsByQuery, statementTimeout, deadline);
+    }
+
+    /**
+     * Returns limits with a maximum number of rows retrieved by each SQL query given to generate the dataset.
+     * The rows beyond this maximum are ignored. The truncated queries are reported to the generation listener
+     * and in the generation statistics.
+     * @param maxRowsByQuery A maximum number of rows
+     * @return Query limits with the given maximum number of rows
+     */
+    public QueryLimits withMaxRowsByQuery(int maxRowsByQuery) {
+        checkNotNegative(maxRowsByQuery, "maximum number of rows");
+        return new QueryLimits(fetchSize, maxRowsByQuery, statementTimeout, deadline);
+    }
+
+    /**
+     * Returns limits with a timeout for the execution of each statement, with a precision of one second.
+     * A {@link QueryTimeoutException} stops the generation when a statement exceeds this timeout.
+     * @param statementTimeout A statement timeout
+     * @return Query limits with the given statement timeout
+     */
+    public QueryLimits withStatementTimeout(Duration statementTimeout) {
+        checkNotNegative(statementTimeout, "statement timeout");
+        return new QueryLimits(fetchSize, maxRowsByQuery, statementTimeout, deadline);
+    }
+
+    /**
+     * Returns limits with a maximum duration of each dataset generation.
+     * A {@link QueryTimeoutException}, an <code>IllegalStateException</code>, is thrown
+     * when a statement is prepared after this duration.
+     * @param deadline A maximum duration of a dataset generation
+     * @return Query limits with the given deadline
+     */
+    public QueryLimits withDeadline(Duration deadline) {
+        checkNotNegative(deadline, "deadline");
+        return new QueryLimits(fetchSize, maxRowsByQuery, statementTimeout, deadline);
+    }
+
+    int getFetchSize() {
+        return fetchSize;
+    }
+
+    int getMaxRowsByQuery() {
+        return maxRowsByQuery;
+    }
+
+    Duration getStatementTimeout() {
+        return statementTimeout;
+    }
+
+    Duration getDeadline() {
+        return deadline;
+    }
+
+    private static void checkNotNegative(int limit, String limitName) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The " + limitName + " has to be positive or zero");
+        }
+    }
+
+    private static void checkNotNegative(Duration limit, String limitName) {
+        if (limit.isNegative()) {
+            throw new IllegalArgumentException("The " + limitName + " has to be positive or zero");
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+/**
+ * Thrown when a query of a dataset generation exceeds the statement timeout or the deadline of the query limits.
+ * The generation is stopped instead of returning an incomplete dataset.
+ *
+ * @see QueryLimits
+ */
+public class QueryTimeoutException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    // SQL state of a query canceled, for example by a timeout, with the drivers not throwing SQLTimeoutException
+    private static final String QUERY_CANCELED_SQL_STATE = "57014";
+
+    QueryTimeoutException(String message) {
+        super(message);
+    }
+
+    QueryTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    static void throwIfTimeout(SQLException sqlException, Object query) {
+        if (sqlException instanceof SQLTimeoutException
+         || QUERY_CANCELED_SQL_STATE.equals(sqlException.getSQLState())) {
+            throw new QueryTimeoutException("The execution of " + query + " exceeds its timeout", sqlException);
+        }
+    }
+
+}
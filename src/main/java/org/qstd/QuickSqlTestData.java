@@ -18,7 +18,9 @@ import org.qstd.dbtype.DatabaseType;
 import org.qstd.dbtype.DatabaseUrlFinder;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static java.util.Arrays.stream;
 import static java.util.Collections.emptyList;
@@ -41,12 +43,30 @@ public class QuickSqlTestData {
 
     private final DatabaseType dbType;
 
-    private InsertStatementsGenerator insertStatementGenerator;
+    private final SessionDataSource sessionDataSource;
 
-    private QuickSqlTestData(DatasetRowsGenerator datasetRowsGenerator, DatabaseType dbType) {
+    private final InsertStatementsGenerator insertStatementGenerator;
+
+    private final QueryLimits queryLimits;
+
+    private final GenerationListener listener;
+
+    private QuickSqlTestData(DatasetRowsGenerator datasetRowsGenerator, DatabaseType dbType, SessionDataSource sessionDataSource) {
+        this(datasetRowsGenerator, dbType, sessionDataSource, new InsertStatementsGenerator(dbType), QueryLimits.NONE, GenerationListener.NONE);
+    }
+
+    private QuickSqlTestData(DatasetRowsGenerator datasetRowsGenerator
+                           , DatabaseType dbType
+                           , SessionDataSource sessionDataSource
+                           , InsertStatementsGenerator insertStatementGenerator
+                           , QueryLimits queryLimits
+                           , GenerationListener listener) {
         this.datasetRowsGenerator = datasetRowsGenerator;
         this.dbType = dbType;
-        insertStatementGenerator = new InsertStatementsGenerator(dbType);
+        this.sessionDataSource = sessionDataSource;
+        this.insertStatementGenerator = insertStatementGenerator;
+        this.queryLimits = queryLimits;
+        this.listener = listener;
     }
 
     /**
@@ -56,11 +76,55 @@ public class QuickSqlTestData {
      * @return An instance of <code>org.qstd.QuickSqlTestData</code>
      */
     public static QuickSqlTestData buildFrom(DataSource dataSource) {
-        String dbUrl = DatabaseUrlFinder.INSTANCE.findDbUrlFrom(dataSource);
-        DatabaseType dbType = DatabaseType.findFromDbUrl(dbUrl);
-        DatabaseMetadataFinder databaseMetadataFinder = DatabaseMetadataFinderFactory.createDatabaseMetadataFinderFrom(dataSource, dbType);
-        DatabaseMetadataFinder databaseMetadataFinderWithCache = DatabaseMetadataFinderWithCache.buildFrom(databaseMetadataFinder);
-        return buildFrom(dataSource, dbType, databaseMetadataFinderWithCache);
+        SessionDataSource sessionDataSource = SessionDataSource.buildFrom(dataSource);
+        DatabaseType dbType = findDatabaseTypeOf(sessionDataSource);
+        DatabaseMetadataFinder databaseMetadataFinderWithCache = buildDatabaseMetadataFinderWithCache(sessionDataSource, dbType);
+        return buildFrom(sessionDataSource, dbType, databaseMetadataFinderWithCache);
+    }
+
+    /**
+     * Factory method to build an instance of <code>org.qstd.QuickSqlTestData</code> from a data source
+     * and an executor.
+     * <em>The retrieval of database metadata, such as not null columns or primary keys, is cached for each table.</em>
+     * The metadata of the tables met during the generation, and of the tables they reference, are retrieved
+     * concurrently with the executor. Each concurrent retrieval uses its own connection.
+     * @param dataSource A data source
+     * @param executor An executor retrieving database metadata
+     * @return An instance of <code>org.qstd.QuickSqlTestData</code>
+     */
+    public static QuickSqlTestData buildFrom(DataSource dataSource, Executor executor) {
+        SessionDataSource sessionDataSource = SessionDataSource.buildFrom(dataSource);
+        DatabaseType dbType = findDatabaseTypeOf(sessionDataSource);
+        DatabaseMetadataFinder databaseMetadataFinderWithCache = buildDatabaseMetadataFinderWithCache(sessionDataSource, dbType);
+        return buildFrom(sessionDataSource, dbType, databaseMetadataFinderWithCache, executor);
+    }
+
+    /**
+     * Factory method to build an instance of <code>org.qstd.QuickSqlTestData</code> from a data source
+     * and a directory storing the database metadata between runs.
+     * <em>The retrieval of database metadata, such as not null columns or primary keys, is cached in memory
+     * and in the directory.</em> The metadata stored in the directory are used while the schema is not changed.
+     * @param dataSource A data source
+     * @param metadataCacheDirectory A directory storing the database metadata, created if missing
+     * @return An instance of <code>org.qstd.QuickSqlTestData</code>
+     * @see DatabaseMetadataFinderWithCache#buildFrom(DatabaseMetadataFinder, Path)
+     */
+    public static QuickSqlTestData buildFrom(DataSource dataSource, Path metadataCacheDirectory) {
+        SessionDataSource sessionDataSource = SessionDataSource.buildFrom(dataSource);
+        DatabaseType dbType = findDatabaseTypeOf(sessionDataSource);
+        DatabaseMetadataFinder databaseMetadataFinder = DatabaseMetadataFinderFactory.createDatabaseMetadataFinderFrom(sessionDataSource.forMetadataQueries(), dbType);
+        DatabaseMetadataFinder databaseMetadataFinderWithCache = DatabaseMetadataFinderWithCache.buildFrom(databaseMetadataFinder, metadataCacheDirectory);
+        return buildFrom(sessionDataSource, dbType, databaseMetadataFinderWithCache);
+    }
+
+    private static DatabaseType findDatabaseTypeOf(DataSource dataSource) {
+        String dbUrl = DatabaseUrlFinder.findDbUrlFrom(dataSource);
+        return DatabaseType.findFromDbUrl(dbUrl);
+    }
+
+    private static DatabaseMetadataFinder buildDatabaseMetadataFinderWithCache(SessionDataSource sessionDataSource, DatabaseType dbType) {
+        DatabaseMetadataFinder databaseMetadataFinder = DatabaseMetadataFinderFactory.createDatabaseMetadataFinderFrom(sessionDataSource.forMetadataQueries(), dbType);
+        return DatabaseMetadataFinderWithCache.buildFrom(databaseMetadataFinder);
     }
 
     /**
@@ -72,8 +136,96 @@ public class QuickSqlTestData {
      * @return An instance of <code>org.qstd.QuickSqlTestData</code>
      */
     public static QuickSqlTestData buildFrom(DataSource dataSource, DatabaseType dbType, DatabaseMetadataFinder databaseMetadataFinder) {
-        DatasetRowsGenerator datasetRowsGenerator = new DatasetRowsGenerator(dataSource, dbType, databaseMetadataFinder);
-        return new QuickSqlTestData(datasetRowsGenerator, dbType);
+        return buildFrom(dataSource, dbType, databaseMetadataFinder, MetadataPrefetcher.NONE);
+    }
+
+    /**
+     * Factory method to build an instance of <code>org.qstd.QuickSqlTestData</code> from a data source,
+     * a database type, a database metadata finder and an executor.
+     * The metadata of the tables met during the generation, and of the tables they reference, are retrieved
+     * concurrently with the executor. The database metadata finder should cache the metadata,
+     * as <code>org.qstd.dbtype.DatabaseMetadataFinderWithCache</code> does.
+     * @param dataSource A datasource
+     * @param dbType A database type
+     * @param databaseMetadataFinder A database metadata finder
+     * @param executor An executor retrieving database metadata
+     * @return An instance of <code>org.qstd.QuickSqlTestData</code>
+     */
+    public static QuickSqlTestData buildFrom(DataSource dataSource, DatabaseType dbType, DatabaseMetadataFinder databaseMetadataFinder, Executor executor) {
+        MetadataPrefetcher metadataPrefetcher = new MetadataPrefetcher(databaseMetadataFinder, executor);
+        return buildFrom(dataSource, dbType, databaseMetadataFinder, metadataPrefetcher);
+    }
+
+    private static QuickSqlTestData buildFrom(DataSource dataSource, DatabaseType dbType, DatabaseMetadataFinder databaseMetadataFinder, MetadataPrefetcher metadataPrefetcher) {
+        if (databaseMetadataFinder instanceof DatabaseMetadataFinderWithCache) {
+            DatabaseMetadataFinderWithCache databaseMetadataFinderWithCache = (DatabaseMetadataFinderWithCache) databaseMetadataFinder;
+            databaseMetadataFinderWithCache.setListenerSupplier(CurrentGenerationListener::get);
+        }
+        SessionDataSource sessionDataSource = SessionDataSource.buildFrom(dataSource);
+        DatasetRowsGenerator datasetRowsGenerator = new DatasetRowsGenerator(sessionDataSource, dbType, databaseMetadataFinder, metadataPrefetcher);
+        return new QuickSqlTestData(datasetRowsGenerator, dbType, sessionDataSource);
+    }
+
+    /**
+     * Returns an instance of <code>org.qstd.QuickSqlTestData</code> generating INSERT statements of several rows.
+     * Consecutive rows of the same table having the same columns are inserted with one statement,
+     * up to 1000 rows by statement. An <code>INSERT ALL</code> statement is generated for Oracle.
+     * The order of the rows is kept.
+     * @return An instance of <code>org.qstd.QuickSqlTestData</code> generating multi-row INSERT statements
+     */
+    public QuickSqlTestData withMultiRowInserts() {
+        InsertStatementsGenerator multiRowInsertStatementsGenerator = insertStatementGenerator.withMultiRowInserts();
+        return new QuickSqlTestData(datasetRowsGenerator, dbType, sessionDataSource, multiRowInsertStatementsGenerator, queryLimits, listener);
+    }
+
+    /**
+     * Returns an instance of <code>org.qstd.QuickSqlTestData</code> selecting only the needed columns.
+     * A DELETE statement, or a <code>SELECT *</code> query of one table, then retrieves only the columns
+     * of its WHERE clause and the primary key, foreign key and not null columns.
+     * The other columns are missing from the generated INSERT statements.
+     * @return An instance of <code>org.qstd.QuickSqlTestData</code> pruning the selected columns
+     */
+    public QuickSqlTestData withColumnPruning() {
+        DatasetRowsGenerator datasetRowsGenerator = this.datasetRowsGenerator.withColumnPruning();
+        return new QuickSqlTestData(datasetRowsGenerator, dbType, sessionDataSource, insertStatementGenerator, queryLimits, listener);
+    }
+
+    /**
+     * Returns an instance of <code>org.qstd.QuickSqlTestData</code> executing the queries with the given limits.
+     * The fetch size and the statement timeout apply to all the statements of a generation,
+     * the maximum number of rows to each SQL query given in parameter.
+     * @param queryLimits Query limits
+     * @return An instance of <code>org.qstd.QuickSqlTestData</code> using the query limits
+     */
+    public QuickSqlTestData withQueryLimits(QueryLimits queryLimits) {
+        DatasetRowsGenerator datasetRowsGenerator = this.datasetRowsGenerator.withMaxRowsByQuery(queryLimits.getMaxRowsByQuery());
+        return new QuickSqlTestData(datasetRowsGenerator, dbType, sessionDataSource, insertStatementGenerator, queryLimits, listener);
+    }
+
+    /**
+     * Returns an instance of <code>org.qstd.QuickSqlTestData</code> formatting with the given formatter the values
+     * of the given class, or of a subclass, in the generated INSERT statements.
+     * @param valueClass A class or an interface of column values
+     * @param valueFormatter A formatter writing the SQL literal of a value
+     * @param <T> The type of the formatted values
+     * @return An instance of <code>org.qstd.QuickSqlTestData</code> using the value formatter
+     */
+    public <T> QuickSqlTestData withValueFormatter(Class<T> valueClass, ValueFormatter<? super T> valueFormatter) {
+        InsertStatementsGenerator insertStatementGenerator =
+                this.insertStatementGenerator.withValueFormatter(valueClass, valueFormatter);
+        return new QuickSqlTestData(datasetRowsGenerator, dbType, sessionDataSource, insertStatementGenerator, queryLimits, listener);
+    }
+
+    /**
+     * Returns an instance of <code>org.qstd.QuickSqlTestData</code> notifying the given listener of the events
+     * of each generation, such as the executed queries, the fetched rows or the metadata cache hits.
+     * The listener is called on the thread running the generation.
+     * @param listener A generation listener
+     * @return An instance of <code>org.qstd.QuickSqlTestData</code> notifying the listener
+     * @see GenerationListener
+     */
+    public QuickSqlTestData withListener(GenerationListener listener) {
+        return new QuickSqlTestData(datasetRowsGenerator, dbType, sessionDataSource, insertStatementGenerator, queryLimits, listener);
     }
 
     /**
@@ -108,8 +260,13 @@ public class QuickSqlTestData {
      * @return An SQL script allowing to test the SQL queries given in parameter
      */
     public String generateInsertScriptFor(List<SqlQuery> sqlQueries) {
-        List<DatasetRow> datasetRows = datasetRowsGenerator.generateDatasetRowsFor(sqlQueries);
-        return insertStatementGenerator.generateInsertScriptFor(datasetRows);
+        GenerationSession session = sessionDataSource.openSession(queryLimits, listener);
+        try {
+            List<DatasetRow> datasetRows = datasetRowsGenerator.generateDatasetRowsFor(sqlQueries);
+            return insertStatementGenerator.generateInsertScriptFor(datasetRows);
+        } finally {
+            session.close();
+        }
     }
 
     /**
@@ -125,6 +282,151 @@ public class QuickSqlTestData {
         return generateInsertScriptFor(queries);
     }
 
+    /**
+     * Generates an SQL script allowing to test the SQL queries given in parameter,
+     * with the statistics of the generation, such as the number of retrieved rows or the time spent in each phase.
+     * This script contains INSERT statements.
+     * It takes into account the database integrity constraints.
+     * @param sqlQueries SQL queries
+     * @return An SQL script allowing to test the SQL queries given in parameter and the statistics of its generation
+     */
+    public GenerationResult generateInsertScriptWithStatsFor(String... sqlQueries) {
+        List<SqlQuery> queries = stream(sqlQueries)
+                                .map(SqlQuery::new)
+                                .collect(toList());
+        return generateInsertScriptWithStatsFor(queries);
+    }
+
+    /**
+     * Generates an SQL script allowing to test the list of SQL queries given in parameter,
+     * with the statistics of the generation.
+     * @param sqlQueries SQL queries
+     * @return An SQL script allowing to test the SQL queries given in parameter and the statistics of its generation
+     * @see #generateInsertScriptWithStatsFor(String...)
+     */
+    public GenerationResult generateInsertScriptWithStatsFor(List<SqlQuery> sqlQueries) {
+        GenerationStatsRecorder statsRecorder = new GenerationStatsRecorder(listener);
+        GenerationSession session = sessionDataSource.openSession(queryLimits, statsRecorder);
+        try {
+            List<DatasetRow> datasetRows = datasetRowsGenerator.generateDatasetRowsFor(sqlQueries);
+            String insertScript = insertStatementGenerator.generateInsertScriptFor(datasetRows);
+            return new GenerationResult(insertScript, statsRecorder.toStats());
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Writes an SQL script allowing to test the SQL query given in parameter.
+     * This script contains INSERT statements written one by one to the output.
+     * It takes into account the database integrity constraints.
+     * @param output An output, such as a <code>java.io.Writer</code>
+     * @param sqlQuery An SQL query
+     * @throws java.io.UncheckedIOException If an I/O error occurs while writing to the output
+     */
+    public void writeInsertScriptFor(Appendable output, String sqlQuery) {
+        writeInsertScriptFor(output, sqlQuery, emptyList());
+    }
+
+    /**
+     * Writes an SQL script allowing to test an SQL query with its bind parameter values.
+     * This script contains INSERT statements written one by one to the output.
+     * It takes into account the database integrity constraints.
+     * @param output An output, such as a <code>java.io.Writer</code>
+     * @param query An SQL query with bind parameters
+     * @param parameters Bind parameter values
+     * @throws java.io.UncheckedIOException If an I/O error occurs while writing to the output
+     */
+    public void writeInsertScriptFor(Appendable output, String query, List<Object> parameters) {
+        List<SqlQuery> sqlQueries = singletonList(new SqlQuery(query, parameters));
+        writeInsertScriptFor(output, sqlQueries);
+    }
+
+    /**
+     * Writes an SQL script allowing to test the list of SQL queries given in parameter.
+     * This script contains INSERT statements written one by one to the output.
+     * It takes into account the database integrity constraints.
+     * @param output An output, such as a <code>java.io.Writer</code>
+     * @param sqlQueries SQL queries
+     * @throws java.io.UncheckedIOException If an I/O error occurs while writing to the output
+     */
+    public void writeInsertScriptFor(Appendable output, List<SqlQuery> sqlQueries) {
+        GenerationSession session = sessionDataSource.openSession(queryLimits, listener);
+        try {
+            List<DatasetRow> datasetRows = datasetRowsGenerator.generateDatasetRowsFor(sqlQueries);
+            insertStatementGenerator.writeInsertScriptFor(datasetRows, output);
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Writes an SQL script allowing to test the SQL queries given in parameter.
+     * This script contains INSERT statements written one by one to the output.
+     * It takes into account the database integrity constraints.
+     * @param output An output, such as a <code>java.io.Writer</code>
+     * @param sqlQueries SQL queries
+     * @throws java.io.UncheckedIOException If an I/O error occurs while writing to the output
+     */
+    public void writeInsertScriptFor(Appendable output, String... sqlQueries) {
+        List<SqlQuery> queries = stream(sqlQueries)
+                                .map(SqlQuery::new)
+                                .collect(toList());
+        writeInsertScriptFor(output, queries);
+    }
+
+    /**
+     * Inserts into a target database the rows allowing to test the SQL queries given in parameter.
+     * The rows are inserted with batched prepared statements and bind parameters, up to 1000 rows by batch,
+     * in one transaction. The connection to the source database is kept until the rows are inserted.
+     * They take into account the database integrity constraints.
+     * @param targetDataSource The data source of the target database
+     * @param sqlQueries SQL queries
+     * @throws IllegalStateException If the rows can't be inserted, the transaction being rolled back
+     */
+    public void loadInto(DataSource targetDataSource, String... sqlQueries) {
+        List<SqlQuery> queries = stream(sqlQueries)
+                                .map(SqlQuery::new)
+                                .collect(toList());
+        loadInto(targetDataSource, queries);
+    }
+
+    /**
+     * Inserts into a target database the rows allowing to test an SQL query with its bind parameter values.
+     * The rows are inserted with batched prepared statements and bind parameters, up to 1000 rows by batch,
+     * in one transaction. The connection to the source database is kept until the rows are inserted.
+     * They take into account the database integrity constraints.
+     * @param targetDataSource The data source of the target database
+     * @param query An SQL query with bind parameters
+     * @param parameters Bind parameter values
+     * @throws IllegalStateException If the rows can't be inserted, the transaction being rolled back
+     */
+    public void loadInto(DataSource targetDataSource, String query, List<Object> parameters) {
+        List<SqlQuery> sqlQueries = singletonList(new SqlQuery(query, parameters));
+        loadInto(targetDataSource, sqlQueries);
+    }
+
+    /**
+     * Inserts into a target database the rows allowing to test the list of SQL queries given in parameter.
+     * The rows are inserted with batched prepared statements and bind parameters, up to 1000 rows by batch,
+     * in one transaction. The connection to the source database is kept until the rows are inserted.
+     * They take into account the database integrity constraints.
+     * @param targetDataSource The data source of the target database
+     * @param sqlQueries SQL queries
+     * @throws IllegalStateException If the rows can't be inserted, the transaction being rolled back
+     */
+    public void loadInto(DataSource targetDataSource, List<SqlQuery> sqlQueries) {
+        // The session stays open while loading, the LOB values being bound to the source connection
+        GenerationSession session = sessionDataSource.openSession(queryLimits, listener);
+        try {
+            List<DatasetRow> datasetRows = datasetRowsGenerator.generateDatasetRowsFor(sqlQueries);
+            DatasetLoader datasetLoader = new DatasetLoader(targetDataSource);
+            datasetLoader.load(datasetRows);
+        } finally {
+            session.close();
+        }
+    }
+
     /**
      * Generates a list of INSERT statements allowing to create in database the dataset row given in parameter.
      * These INSERT statements take into account the database integrity constraints.
@@ -132,8 +434,8 @@ public class QuickSqlTestData {
      * @return A list of INSERT statements allowing to create in database the dataset row given in parameter
      */
     public List<String> generateInsertListFor(DatasetRow datasetRow) {
-        SqlQuery sqlQuery = SqlQuery.buildFromRow(datasetRow, dbType);
-        return generateInsertListFor(sqlQuery.toString());
+        SqlQuery sqlQuery = SqlQuery.buildFromRow(datasetRow);
+        return generateInsertListFor(singletonList(sqlQuery));
     }
 
     /**
@@ -146,8 +448,17 @@ public class QuickSqlTestData {
         List<SqlQuery> sqlQueryObjects = stream(sqlQueries)
                                         .map(SqlQuery::new)
                                         .collect(toList());
-        List<DatasetRow> datasetRows = datasetRowsGenerator.generateDatasetRowsFor(sqlQueryObjects);
-        return insertStatementGenerator.generateInsertStatementsFor(datasetRows);
+        return generateInsertListFor(sqlQueryObjects);
+    }
+
+    private List<String> generateInsertListFor(List<SqlQuery> sqlQueries) {
+        GenerationSession session = sessionDataSource.openSession(queryLimits, listener);
+        try {
+            List<DatasetRow> datasetRows = datasetRowsGenerator.generateDatasetRowsFor(sqlQueries);
+            return insertStatementGenerator.generateInsertStatementsFor(datasetRows);
+        } finally {
+            session.close();
+        }
     }
 
 }
@@ -26,8 +26,8 @@ public class ReferencedTable {
         this.level = level;
     }
 
-    boolean references(String tableName) {
-        return tableName.equals(referencedTableName);
+    String getReferencedTableName() {
+        return referencedTableName;
     }
 
 }
@@ -13,6 +13,9 @@
 package org.qstd;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import static java.util.Collections.emptyList;
 
@@ -20,19 +23,21 @@ public class ReferencedTableSet {
 
     public static final ReferencedTableSet NONE = new ReferencedTableSet(emptyList());
 
-    private final Collection<ReferencedTable> referencedTablesOfTable;
+    private final Set<String> referencedTableNames;
 
     public ReferencedTableSet(Collection<ReferencedTable> referencedTablesOfTable) {
-        this.referencedTablesOfTable = referencedTablesOfTable;
+        this.referencedTableNames = new HashSet<>();
+        for (ReferencedTable referencedTable : referencedTablesOfTable) {
+            referencedTableNames.add(referencedTable.getReferencedTableName());
+        }
     }
 
     boolean referencesTable(String tableName) {
-        for (ReferencedTable referencedTable : referencedTablesOfTable) {
-            if (referencedTable.references(tableName)) {
-                return true;
-            }
-        }
-        return false;
+        return referencedTableNames.contains(tableName);
+    }
+
+    Collection<String> getReferencedTableNames() {
+        return Collections.unmodifiableSet(referencedTableNames);
     }
 
 }
@@ -18,8 +18,11 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.Collection;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
 
 class RowFinder {
 
@@ -37,8 +40,9 @@ class RowFinder {
                             , DatasetRow rowToSearch) {
 
         SqlQuery missingColumnValuesQuery =
-                SqlQuery.buildFromRow(columnNamesToSearch, rowToSearch, dbType);
+                SqlQuery.buildFromRow(columnNamesToSearch, rowToSearch);
 
+        CurrentGenerationListener.get().onRowLookup(tableName, 1);
         DatasetRow missingColumnValues = DatasetRow.ofTable(tableName);
         try (Connection connection = dataSource.getConnection();
              PreparedStatement missingColumnStatement = PreparedStatementBuilder.buildFrom(missingColumnValuesQuery, connection)) {
@@ -46,15 +50,124 @@ class RowFinder {
 
             queryResult.next(); // We keep only the first row found
 
+            Map<String, ColumnValueExtractor> extractorByColumnName =
+                    buildExtractorByColumnName(queryResult, columnNamesToSearch);
             for (String missingColumnName : columnNamesToSearch) {
-                Object columnValue = queryResult.getObject(missingColumnName);
+                Object columnValue = extractorByColumnName.get(missingColumnName).extractFrom(queryResult);
                 missingColumnValues.addColumnValue(missingColumnName, columnValue);
             }
         } catch (SQLException sqlException) {
+            QueryTimeoutException.throwIfTimeout(sqlException, missingColumnValuesQuery);
             System.err.println("Unable to execute " + missingColumnValuesQuery);
             sqlException.printStackTrace();
         }
         return missingColumnValues;
     }
 
+    /**
+     * Searches the rows with a single query. The rows to search have to share the same table,
+     * the same columns and the same null column values.
+     * A row not found by the query is missing from the returned map.
+     */
+    Map<DatasetRow, DatasetRow> findRowsFrom(String tableName
+                                           , Collection<String> columnNamesToSearch
+                                           , List<DatasetRow> rowsToSearch) {
+
+        List<String> keyColumnNames = findNotNullColumnsOf(rowsToSearch.get(0));
+        Set<String> columnNamesToSelect = new LinkedHashSet<>(columnNamesToSearch);
+        columnNamesToSelect.addAll(keyColumnNames);
+
+        Map<List<Object>, List<DatasetRow>> rowsToSearchByKey = new HashMap<>();
+        for (DatasetRow rowToSearch : rowsToSearch) {
+            List<Object> key = buildKey(keyColumnNames, rowToSearch::getValueOf);
+            rowsToSearchByKey.computeIfAbsent(key, k -> new ArrayList<>())
+                             .add(rowToSearch);
+        }
+
+        SqlQuery missingColumnValuesQuery =
+                SqlQuery.buildFromRows(columnNamesToSelect, rowsToSearch);
+
+        CurrentGenerationListener.get().onRowLookup(tableName, rowsToSearch.size());
+        Map<DatasetRow, DatasetRow> foundRows = new IdentityHashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement missingColumnStatement = PreparedStatementBuilder.buildFrom(missingColumnValuesQuery, connection)) {
+            ResultSet queryResult = missingColumnStatement.executeQuery();
+            Map<String, ColumnValueExtractor> extractorByColumnName =
+                    buildExtractorByColumnName(queryResult, columnNamesToSelect);
+            while (queryResult.next() && !rowsToSearchByKey.isEmpty()) {
+                List<Object> key = buildKey(keyColumnNames, columnName -> extractValue(queryResult, extractorByColumnName.get(columnName)));
+                // We keep only the first row found for each searched row
+                List<DatasetRow> searchedRows = rowsToSearchByKey.remove(key);
+                if (searchedRows != null) {
+                    for (DatasetRow searchedRow : searchedRows) {
+                        DatasetRow missingColumnValues = DatasetRow.ofTable(tableName);
+                        for (String missingColumnName : columnNamesToSearch) {
+                            Object columnValue = extractorByColumnName.get(missingColumnName).extractFrom(queryResult);
+                            missingColumnValues.addColumnValue(missingColumnName, columnValue);
+                        }
+                        foundRows.put(searchedRow, missingColumnValues);
+                    }
+                }
+            }
+        } catch (QueryTimeoutException queryTimeoutException) {
+            throw queryTimeoutException;
+        } catch (SQLException | IllegalStateException exception) {
+            if (exception instanceof SQLException) {
+                QueryTimeoutException.throwIfTimeout((SQLException) exception, missingColumnValuesQuery);
+            }
+            System.err.println("Unable to execute " + missingColumnValuesQuery + ", the rows are searched one by one");
+            exception.printStackTrace();
+            foundRows.clear();
+        }
+        return foundRows;
+    }
+
+    private static List<String> findNotNullColumnsOf(DatasetRow datasetRow) {
+        List<String> notNullColumns = new ArrayList<>();
+        for (String columnName : datasetRow.getColumnNames()) {
+            if (datasetRow.hasNotNullValueForColumn(columnName)) {
+                notNullColumns.add(columnName);
+            }
+        }
+        return notNullColumns;
+    }
+
+    private static List<Object> buildKey(List<String> keyColumnNames, Function<String, Object> valueOfColumn) {
+        List<Object> key = new ArrayList<>(keyColumnNames.size());
+        for (String keyColumnName : keyColumnNames) {
+            key.add(normalize(valueOfColumn.apply(keyColumnName)));
+        }
+        return key;
+    }
+
+    private static Object normalize(Object value) {
+        // The database may return a number with another type than the searched one
+        if (value instanceof Number) {
+            try {
+                return new BigDecimal(value.toString()).stripTrailingZeros();
+            } catch (NumberFormatException notFiniteNumber) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    private Map<String, ColumnValueExtractor> buildExtractorByColumnName(ResultSet resultSet, Collection<String> columnNames) throws SQLException {
+        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+        Map<String, ColumnValueExtractor> extractorByColumnName = new HashMap<>();
+        for (String columnName : columnNames) {
+            int colIndex = resultSet.findColumn(columnName);
+            extractorByColumnName.put(columnName, ColumnValueExtractor.buildFrom(resultSetMetaData, colIndex, dbType));
+        }
+        return extractorByColumnName;
+    }
+
+    private static Object extractValue(ResultSet resultSet, ColumnValueExtractor columnValueExtractor) {
+        try {
+            return columnValueExtractor.extractFrom(resultSet);
+        } catch (SQLException sqlException) {
+            throw new IllegalStateException(sqlException);
+        }
+    }
+
 }
@@ -36,11 +36,19 @@ class SelectTransformerFactory {
             };
 
     static SelectTransformer createSelectTransformer(SqlQuery sqlQuery) {
+        return createSelectTransformer(sqlQuery, ColumnPruning.NONE);
+    }
+
+    static SelectTransformer createSelectTransformer(SqlQuery sqlQuery, ColumnPruning columnPruning) {
 
         String sqlQueryAsString = sqlQuery.getQueryAsString();
         Statement statement = parse(sqlQueryAsString);
 
         if(statement instanceof Select) {
+            if (columnPruning != ColumnPruning.NONE) {
+                Select select = (Select) statement;
+                return new PrunedSelectTransformer(select, columnPruning);
+            }
             return SELECT_TO_SELECT_TRANSFORMER;
         }
         if(statement instanceof Update) {
@@ -49,7 +57,7 @@ class SelectTransformerFactory {
         }
         if(statement instanceof Delete) {
             Delete delete = (Delete) statement;
-            return new DeleteToSelectTransformer(delete);
+            return new DeleteToSelectTransformer(delete, columnPruning);
         }
 
         return SelectTransformer.NO_SELECT_TRANSFORMER;
@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * Data source giving the connection of the generation session open on the current thread.
+ * The finders of data and metadata keep taking a data source and borrowing a connection for each query:
+ * during a generation, they borrow the session connection and reuse its prepared statements without
+ * the connection being passed along the calls. The session, and the generation listener, are bound to the
+ * thread opening the session, so a query executed on another thread, as the metadata prefetching does,
+ * borrows a connection from the wrapped data source.
+ * The metadata finders take the data source returned by {@link #forMetadataQueries()}, so that the session
+ * notifies their queries as metadata queries.
+ */
+class SessionDataSource implements DataSource {
+
+    private final DataSource dataSource;
+
+    private final ThreadLocal<GenerationSession> currentSession;
+
+    private final boolean metadataQueries;
+
+    private SessionDataSource(DataSource dataSource, ThreadLocal<GenerationSession> currentSession, boolean metadataQueries) {
+        this.dataSource = dataSource;
+        this.currentSession = currentSession;
+        this.metadataQueries = metadataQueries;
+    }
+
+    static SessionDataSource buildFrom(DataSource dataSource) {
+        if (dataSource instanceof SessionDataSource) {
+            return (SessionDataSource) dataSource;
+        }
+        return new SessionDataSource(dataSource, new ThreadLocal<>(), false);
+    }
+
+    /**
+     * Returns a data source sharing the sessions of this data source,
+     * the queries executed with its connections being notified as metadata queries.
+     * @see GenerationListener#onMetadataQuery(String)
+     */
+    SessionDataSource forMetadataQueries() {
+        return new SessionDataSource(dataSource, currentSession, true);
+    }
+
+    /**
+     * Opens a session reusing a connection and its prepared statements
+     * until the session is closed. The session is bound to the current thread.
+     * Opening a session while a session is already open on the current thread
+     * returns the open session.
+     */
+    GenerationSession openSession() {
+        return openSession(QueryLimits.NONE);
+    }
+
+    /**
+     * Opens a session applying the query limits to the statements prepared during the session.
+     * @see #openSession()
+     */
+    GenerationSession openSession(QueryLimits queryLimits) {
+        return openSession(queryLimits, GenerationListener.NONE);
+    }
+
+    /**
+     * Opens a session notifying the listener of the generation events happening on the current thread
+     * until the session is closed.
+     * @see #openSession(QueryLimits)
+     */
+    GenerationSession openSession(QueryLimits queryLimits, GenerationListener listener) {
+        GenerationSession session = currentSession.get();
+        if (session == null) {
+            session = new GenerationSession(dataSource, queryLimits, listener, this::closeCurrentSession);
+            currentSession.set(session);
+            CurrentGenerationListener.set(listener);
+        }
+        return session.open();
+    }
+
+    private void closeCurrentSession() {
+        currentSession.remove();
+        CurrentGenerationListener.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        GenerationSession session = currentSession.get();
+        if (session == null) {
+            return dataSource.getConnection();
+        }
+        return session.getConnection(metadataQueries);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return dataSource.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+    }
+
+}
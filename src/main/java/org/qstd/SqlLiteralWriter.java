@@ -0,0 +1,243 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import org.qstd.dbtype.DatabaseType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * Appends escaped string literals and binary literals of a database type to an SQL text.
+ * The content of large objects is read by chunks.
+ * A string value too long for a literal of the database type is written as a concatenation of CLOB literals.
+ */
+class SqlLiteralWriter {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final int CHUNK_SIZE = 8192;
+
+    // Oracle limits a literal to 4000 bytes, that 1000 characters never exceed, and a RAW value to 2000 bytes
+    private static final int ORACLE_MAX_LITERAL_LENGTH = 1000;
+
+    private static final int ORACLE_MAX_BINARY_LENGTH = 2000;
+
+    private static final int NO_MAX_LENGTH = 0;
+
+    private final boolean backslashIsEscapeCharacter;
+
+    private final String binaryLiteralStart;
+
+    private final String binaryLiteralEnd;
+
+    private final int maxLiteralLength;
+
+    private final int maxBinaryLength;
+
+    private SqlLiteralWriter(boolean backslashIsEscapeCharacter, String binaryLiteralStart, String binaryLiteralEnd) {
+        this(backslashIsEscapeCharacter, binaryLiteralStart, binaryLiteralEnd, NO_MAX_LENGTH, NO_MAX_LENGTH);
+    }
+
+    private SqlLiteralWriter( boolean backslashIsEscapeCharacter
+                            , String binaryLiteralStart
+                            , String binaryLiteralEnd
+                            , int maxLiteralLength
+                            , int maxBinaryLength) {
+        this.backslashIsEscapeCharacter = backslashIsEscapeCharacter;
+        this.binaryLiteralStart = binaryLiteralStart;
+        this.binaryLiteralEnd = binaryLiteralEnd;
+        this.maxLiteralLength = maxLiteralLength;
+        this.maxBinaryLength = maxBinaryLength;
+    }
+
+    static SqlLiteralWriter of(DatabaseType dbType) {
+        switch (dbType) {
+            case MARIA_DB:
+            case MY_SQL:
+                return new SqlLiteralWriter(true, "X'", "'");
+            case MICROSOFT_SQL_SERVER:
+                return new SqlLiteralWriter(false, "0x", "");
+            case ORACLE:
+                return new SqlLiteralWriter(false, "HEXTORAW('", "')", ORACLE_MAX_LITERAL_LENGTH, ORACLE_MAX_BINARY_LENGTH);
+            case POSTGRE_SQL:
+                return new SqlLiteralWriter(false, "decode('", "', 'hex')");
+            default:
+                return new SqlLiteralWriter(false, "X'", "'");
+        }
+    }
+
+    void appendStringLiteral(StringBuilder sqlText, CharSequence value) {
+        if (exceedsMaxLiteralLength(value.length())) {
+            try {
+                appendClobConcatenation(sqlText, new StringReader(value.toString()));
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            return;
+        }
+        sqlText.append('\'');
+        appendEscaped(sqlText, value, 0, value.length());
+        sqlText.append('\'');
+    }
+
+    void appendClobLiteral(StringBuilder sqlText, Clob clob) {
+        try (Reader reader = clob.getCharacterStream()) {
+            if (exceedsMaxLiteralLength(clob.length())) {
+                appendClobConcatenation(sqlText, reader);
+                return;
+            }
+            sqlText.append('\'');
+            char[] chunk = new char[CHUNK_SIZE];
+            for (int length = reader.read(chunk); length != -1; length = reader.read(chunk)) {
+                appendEscaped(sqlText, new CharArraySequence(chunk), 0, length);
+            }
+            sqlText.append('\'');
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        } catch (SQLException sqlException) {
+            throw new IllegalStateException("Unable to read a CLOB value", sqlException);
+        }
+    }
+
+    private boolean exceedsMaxLiteralLength(long length) {
+        return maxLiteralLength != NO_MAX_LENGTH && length > maxLiteralLength;
+    }
+
+    /**
+     * Appends TO_CLOB('...') || TO_CLOB('...') ..., each literal having at most the maximum literal length
+     */
+    private void appendClobConcatenation(StringBuilder sqlText, Reader reader) throws IOException {
+        char[] piece = new char[maxLiteralLength];
+        int carriedLength = 0;
+        boolean firstPiece = true;
+        for (int length = fill(piece, carriedLength, reader); length != 0; length = fill(piece, carriedLength, reader)) {
+            int pieceLength = length;
+            // A surrogate pair is not split between two literals
+            if (length == piece.length && Character.isHighSurrogate(piece[length - 1])) {
+                pieceLength--;
+            }
+            if (!firstPiece) {
+                sqlText.append(" || ");
+            }
+            sqlText.append("TO_CLOB('");
+            appendEscaped(sqlText, new CharArraySequence(piece), 0, pieceLength);
+            sqlText.append("')");
+            firstPiece = false;
+            carriedLength = length - pieceLength;
+            if (carriedLength != 0) {
+                piece[0] = piece[length - 1];
+            }
+        }
+    }
+
+    /**
+     * Reads characters after the given offset until the buffer is full or the end of the stream
+     * @return the number of characters of the buffer
+     */
+    private static int fill(char[] buffer, int offset, Reader reader) throws IOException {
+        int length = offset;
+        while (length < buffer.length) {
+            int readLength = reader.read(buffer, length, buffer.length - length);
+            if (readLength == -1) {
+                break;
+            }
+            length += readLength;
+        }
+        return length;
+    }
+
+    private void appendEscaped(StringBuilder sqlText, CharSequence value, int start, int end) {
+        // Characters without escaping are appended by runs
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            char character = value.charAt(i);
+            if (character == '\'' || (character == '\\' && backslashIsEscapeCharacter)) {
+                sqlText.append(value, runStart, i + 1).append(character);
+                runStart = i + 1;
+            }
+        }
+        sqlText.append(value, runStart, end);
+    }
+
+    void appendBinaryLiteral(StringBuilder sqlText, byte[] value) {
+        checkBinaryLength(value.length);
+        sqlText.append(binaryLiteralStart);
+        appendHex(sqlText, value, value.length);
+        sqlText.append(binaryLiteralEnd);
+    }
+
+    void appendBlobLiteral(StringBuilder sqlText, Blob blob) {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try (InputStream inputStream = blob.getBinaryStream()) {
+            checkBinaryLength(blob.length());
+            sqlText.append(binaryLiteralStart);
+            for (int length = inputStream.read(chunk); length != -1; length = inputStream.read(chunk)) {
+                appendHex(sqlText, chunk, length);
+            }
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        } catch (SQLException sqlException) {
+            throw new IllegalStateException("Unable to read a BLOB value", sqlException);
+        }
+        sqlText.append(binaryLiteralEnd);
+    }
+
+    private void checkBinaryLength(long length) {
+        if (maxBinaryLength != NO_MAX_LENGTH && length > maxBinaryLength) {
+            throw new IllegalArgumentException("A binary value of " + length + " bytes exceeds the " + maxBinaryLength
+                                             + " bytes of a binary literal of the database, no insert statement can be generated for it");
+        }
+    }
+
+    private static void appendHex(StringBuilder sqlText, byte[] bytes, int length) {
+        sqlText.ensureCapacity(sqlText.length() + 2 * length);
+        for (int i = 0; i < length; i++) {
+            int aByte = bytes[i] & 0xFF;
+            sqlText.append(HEX_DIGITS[aByte >>> 4])
+                   .append(HEX_DIGITS[aByte & 0x0F]);
+        }
+    }
+
+    private static class CharArraySequence implements CharSequence {
+
+        private final char[] chars;
+
+        CharArraySequence(char[] chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int length() {
+            return chars.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, start, end - start);
+        }
+
+    }
+
+}
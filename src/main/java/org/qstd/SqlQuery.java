@@ -12,12 +12,8 @@
  */
 package org.qstd;
 
-import org.qstd.dbtype.DatabaseType;
-
 import java.util.*;
 
-import static java.util.stream.Collectors.joining;
-
 /**
  * Class to represent an SQL query
  */
@@ -46,35 +42,41 @@ public class SqlQuery {
         this.parameters = parameters;
     }
 
-    static SqlQuery buildFromRow(DatasetRow rowToSearch, DatabaseType dbType) {
-        Set<String> columnNames = rowToSearch.getColumnNames();
-        return buildFromRow(columnNames, rowToSearch, dbType);
-
+    static SqlQuery buildFromRow(DatasetRow rowToSearch) {
+        List<String> columnNames = rowToSearch.getColumnNames();
+        return buildFromRow(columnNames, rowToSearch);
     }
 
     static SqlQuery buildFromRow(Collection<String> columnNamesToSearch
-                                , DatasetRow rowToSearch
-                                , DatabaseType dbType) {
-            Map<String, Object> valuesToMatch = rowToSearch.getColumnValueByColumnName();
-            String whereConditions =
-                     valuesToMatch.entrySet()
-                    .stream()
-                    .map(entry -> {
-                        String columnName = entry.getKey();
-                        return columnName
-                                + (entry.getValue() == null
-                                   ? " IS NULL"
-                                   : "=" + ColumnValueFormatter.INSTANCE
-                                           .formatColumnValue(entry.getValue(), dbType));
-                    })
-                    .collect(joining(" AND "));
-            String queryAsString =
-                              "SELECT "
-                            + String.join(", ", columnNamesToSearch)
-                            + " FROM " + rowToSearch.getTableName()
-                            + " WHERE " + whereConditions;
-            return new SqlQuery(queryAsString);
+                               , DatasetRow rowToSearch) {
+        return buildFromRows(columnNamesToSearch, Collections.singletonList(rowToSearch));
+    }
 
+    static SqlQuery buildFromRows(Collection<String> columnNamesToSearch
+                                 , List<DatasetRow> rowsToSearch) {
+        DatasetRow firstRowToSearch = rowsToSearch.get(0);
+        List<String> conditionColumnNames = firstRowToSearch.getColumnNames();
+        List<Object> parameters = new ArrayList<>();
+        StringJoiner whereConditions = new StringJoiner(" OR ");
+        for (DatasetRow rowToSearch : rowsToSearch) {
+            StringJoiner rowConditions = new StringJoiner(" AND ", "(", ")");
+            for (String columnName : conditionColumnNames) {
+                Object value = rowToSearch.getValueOf(columnName);
+                if (value == null) {
+                    rowConditions.add(columnName + " IS NULL");
+                } else {
+                    rowConditions.add(columnName + "=?");
+                    parameters.add(value);
+                }
+            }
+            whereConditions.add(rowConditions.toString());
+        }
+        String queryAsString =
+                          "SELECT "
+                        + String.join(", ", columnNamesToSearch)
+                        + " FROM " + firstRowToSearch.getTableName()
+                        + " WHERE " + whereConditions;
+        return new SqlQuery(queryAsString, parameters);
     }
 
     @Override
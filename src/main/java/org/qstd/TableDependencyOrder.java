@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.util.*;
+
+class TableDependencyOrder {
+
+    private final Map<String, Integer> rankByTableName;
+
+    private TableDependencyOrder(Map<String, Integer> rankByTableName) {
+        this.rankByTableName = rankByTableName;
+    }
+
+    /**
+     * Ranks the tables so that a table is ranked after the tables it references (Kahn's algorithm).
+     * Tables without dependency between them are ranked by name.
+     * When only tables depending on a reference cycle remain, the tables of the cycles referencing no other
+     * remaining table are ranked by name, and the tables depending on them are then ranked after them.
+     */
+    static TableDependencyOrder buildFrom(Collection<String> tableNames, ReferencedTablesFinder referencedTablesFinder) {
+
+        Set<String> sortedTableNames = new TreeSet<>(tableNames);
+
+        Map<String, Collection<String>> referencingTablesByTableName = new HashMap<>();
+        Map<String, Collection<String>> referencedTablesByTableName = new HashMap<>();
+        Map<String, Integer> referencedTableCountByTableName = new HashMap<>();
+        for (String tableName : sortedTableNames) {
+            ReferencedTableSet referencedTableSet = referencedTablesFinder.findReferencedTablesOf(tableName);
+            Collection<String> referencedTables = new ArrayList<>();
+            for (String otherTableName : sortedTableNames) {
+                if (!otherTableName.equals(tableName) && referencedTableSet.referencesTable(otherTableName)) {
+                    referencingTablesByTableName.computeIfAbsent(otherTableName, t -> new ArrayList<>())
+                                                .add(tableName);
+                    referencedTables.add(otherTableName);
+                }
+            }
+            referencedTablesByTableName.put(tableName, referencedTables);
+            referencedTableCountByTableName.put(tableName, referencedTables.size());
+        }
+
+        PriorityQueue<String> readyTableNames = new PriorityQueue<>();
+        for (String tableName : sortedTableNames) {
+            if (referencedTableCountByTableName.get(tableName) == 0) {
+                readyTableNames.add(tableName);
+            }
+        }
+
+        Map<String, Integer> rankByTableName = new HashMap<>();
+        Set<String> unrankedTableNames = new TreeSet<>(sortedTableNames);
+        while (!unrankedTableNames.isEmpty()) {
+            if (readyTableNames.isEmpty()) {
+                // The tables of a reference cycle are never ready
+                Collection<String> cycleTableNames = findCycleTablesReferencingNoOtherTable(unrankedTableNames, referencedTablesByTableName);
+                readyTableNames.addAll(cycleTableNames.isEmpty() ? unrankedTableNames : cycleTableNames);
+            }
+            String tableName = readyTableNames.poll();
+            if (!unrankedTableNames.remove(tableName)) {
+                continue;
+            }
+            rankByTableName.put(tableName, rankByTableName.size());
+            Collection<String> referencingTables =
+                    referencingTablesByTableName.getOrDefault(tableName, Collections.emptyList());
+            for (String referencingTable : referencingTables) {
+                int referencedTableCount = referencedTableCountByTableName.merge(referencingTable, -1, Integer::sum);
+                if (referencedTableCount == 0 && unrankedTableNames.contains(referencingTable)) {
+                    readyTableNames.add(referencingTable);
+                }
+            }
+        }
+
+        return new TableDependencyOrder(rankByTableName);
+
+    }
+
+    /**
+     * Finds the tables of the reference cycles whose tables reference only tables of the same cycle,
+     * among the tables not ranked yet
+     */
+    private static Collection<String> findCycleTablesReferencingNoOtherTable(Set<String> unrankedTableNames
+                                                                           , Map<String, Collection<String>> referencedTablesByTableName) {
+        Map<String, Set<String>> reachableTablesByTableName = new HashMap<>();
+        for (String tableName : unrankedTableNames) {
+            reachableTablesByTableName.put(tableName, findReachableTablesOf(tableName, unrankedTableNames, referencedTablesByTableName));
+        }
+        Collection<String> cycleTableNames = new ArrayList<>();
+        for (String tableName : unrankedTableNames) {
+            Set<String> reachableTables = reachableTablesByTableName.get(tableName);
+            boolean referencesOnlyItsCycle =
+                    reachableTables.contains(tableName)
+                 && reachableTables.stream()
+                                   .allMatch(reachableTable -> reachableTablesByTableName.get(reachableTable).contains(tableName));
+            if (referencesOnlyItsCycle) {
+                cycleTableNames.add(tableName);
+            }
+        }
+        return cycleTableNames;
+    }
+
+    private static Set<String> findReachableTablesOf(String tableName
+                                                   , Set<String> unrankedTableNames
+                                                   , Map<String, Collection<String>> referencedTablesByTableName) {
+        Set<String> reachableTables = new HashSet<>();
+        Deque<String> tablesToVisit = new ArrayDeque<>();
+        tablesToVisit.push(tableName);
+        while (!tablesToVisit.isEmpty()) {
+            for (String referencedTable : referencedTablesByTableName.get(tablesToVisit.pop())) {
+                if (unrankedTableNames.contains(referencedTable) && reachableTables.add(referencedTable)) {
+                    tablesToVisit.push(referencedTable);
+                }
+            }
+        }
+        return reachableTables;
+    }
+
+    int findRankOf(String tableName) {
+        return rankByTableName.getOrDefault(tableName, Integer.MAX_VALUE);
+    }
+
+}
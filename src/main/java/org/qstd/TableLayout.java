@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.util.*;
+
+/**
+ * Column names of a table with the position of their values in the rows of this table,
+ * and the positions of the primary key columns.
+ * A layout built for a table is immutable and shared by the rows of this table.
+ * A row built column by column has a private layout growing in place.
+ */
+class TableLayout {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    static final TableLayout EMPTY = new TableLayout(new ArrayList<>(), new ColumnMappingPart[0], NO_POSITIONS, false);
+
+    private final List<String> columnNames;
+
+    private final Map<String, Integer> positionByColumnName;
+
+    private final ColumnMappingPart[] referencedColumnByPosition;
+
+    private final int[] primaryKeyPositions;
+
+    private final boolean growable;
+
+    private TableLayout(List<String> columnNames
+                      , ColumnMappingPart[] referencedColumnByPosition
+                      , int[] primaryKeyPositions
+                      , boolean growable) {
+        this.columnNames = columnNames;
+        this.positionByColumnName = new HashMap<>(columnNames.size() * 2);
+        for (int position = 0; position < columnNames.size(); position++) {
+            positionByColumnName.put(columnNames.get(position), position);
+        }
+        this.referencedColumnByPosition = referencedColumnByPosition;
+        this.primaryKeyPositions = primaryKeyPositions;
+        this.growable = growable;
+    }
+
+    static TableLayout of(Collection<String> columnNames) {
+        List<String> distinctColumnNames = new ArrayList<>(new LinkedHashSet<>(columnNames));
+        return new TableLayout(distinctColumnNames, new ColumnMappingPart[distinctColumnNames.size()], NO_POSITIONS, false);
+    }
+
+    static TableLayout buildFrom(List<String> columnNames
+                               , ColumnsMappingGroup columnsMappingGroup
+                               , List<String> primaryKeyColumnNames) {
+        ColumnMappingPart[] referencedColumnByPosition = new ColumnMappingPart[columnNames.size()];
+        for (int position = 0; position < columnNames.size(); position++) {
+            String columnName = columnNames.get(position);
+            referencedColumnByPosition[position] =
+                    columnsMappingGroup.findMappingForColumn(columnName).orElse(null);
+        }
+        // A primary key column missing from the layout has no value in the rows of the table
+        int[] primaryKeyPositions = primaryKeyColumnNames.stream()
+                                                         .mapToInt(columnNames::indexOf)
+                                                         .filter(position -> position != -1)
+                                                         .toArray();
+        return new TableLayout(new ArrayList<>(columnNames), referencedColumnByPosition, primaryKeyPositions, false);
+    }
+
+    /**
+     * Adds a column at the end of the layout. A shared layout is first copied into a growable layout,
+     * so the column positions of the shared layout stay valid.
+     * @return the growable layout having the column
+     */
+    TableLayout withColumn(String columnName) {
+        TableLayout layout = growable
+                           ? this
+                           : new TableLayout(new ArrayList<>(columnNames), referencedColumnByPosition, primaryKeyPositions, true);
+        layout.positionByColumnName.put(columnName, layout.columnNames.size());
+        layout.columnNames.add(columnName);
+        return layout;
+    }
+    int findPositionOf(String columnName) {
+        Integer position = positionByColumnName.get(columnName);
+        return position == null ? -1 : position;
+    }
+
+    boolean containsAll(Collection<String> columnNames) {
+        return positionByColumnName.keySet().containsAll(columnNames);
+    }
+
+    int getColumnCount() {
+        return columnNames.size();
+    }
+
+    String getColumnNameAt(int position) {
+        return columnNames.get(position);
+    }
+
+    List<String> getColumnNames() {
+        return Collections.unmodifiableList(columnNames);
+    }
+
+    int[] getPrimaryKeyPositions() {
+        return primaryKeyPositions;
+    }
+
+    /**
+     * @return the column referenced by the foreign key column at the given position, or null
+     */
+    ColumnMappingPart findReferencedColumnAt(int position) {
+        // The columns added to a growable layout have no referenced column
+        return position < referencedColumnByPosition.length ? referencedColumnByPosition[position] : null;
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+import java.util.*;
+
+class TableLayouts {
+
+    private final DatabaseMetadataFinder databaseMetadataFinder;
+
+    private final Map<String, TableLayout> layoutByTableName = new HashMap<>();
+
+    TableLayouts(DatabaseMetadataFinder databaseMetadataFinder) {
+        this.databaseMetadataFinder = databaseMetadataFinder;
+    }
+
+    TableLayout findLayoutOf(DatasetRow datasetRow) {
+        String tableName = datasetRow.getTableName();
+        List<String> rowColumnNames = datasetRow.getColumnNames();
+        TableLayout layout = layoutByTableName.get(tableName);
+        if (layout == null || !layout.containsAll(rowColumnNames)) {
+            layout = buildLayout(tableName, layout, rowColumnNames);
+            layoutByTableName.put(tableName, layout);
+        }
+        return layout;
+    }
+
+    private TableLayout buildLayout(String tableName, TableLayout previousLayout, List<String> rowColumnNames) {
+        // Columns follow the database declaration order, then the name order for the columns unknown to the metadata
+        List<String> databaseColumnOrders = databaseMetadataFinder.findDatabaseColumnOrdersOf(tableName);
+        SortedSet<String> otherColumnNames = new TreeSet<>(rowColumnNames);
+        if (previousLayout != null) {
+            otherColumnNames.addAll(previousLayout.getColumnNames());
+        }
+        otherColumnNames.removeAll(databaseColumnOrders);
+        List<String> columnNames = new ArrayList<>(databaseColumnOrders.size() + otherColumnNames.size());
+        columnNames.addAll(databaseColumnOrders);
+        columnNames.addAll(otherColumnNames);
+        ColumnsMappingGroup columnsMappingGroup = databaseMetadataFinder.findColumnsMappingsOf(tableName);
+        List<String> primaryKeyColumnNames = databaseMetadataFinder.findPrimaryColumnsOf(tableName);
+        return TableLayout.buildFrom(columnNames, columnsMappingGroup, primaryKeyColumnNames);
+    }
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd;
+
+/**
+ * Writes the SQL literal of a column value in an INSERT statement.
+ * @param <T> The type of the formatted values
+ * @see QuickSqlTestData#withValueFormatter(Class, ValueFormatter)
+ */
+@FunctionalInterface
+public interface ValueFormatter<T> {
+
+    /**
+     * Appends the SQL literal of a value
+     * @param sqlText The SQL text the literal is appended to
+     * @param value A value, never null
+     */
+    void appendTo(StringBuilder sqlText, T value);
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.dbtype;
+
+import org.qstd.PreparedStatementBuilder;
+import org.qstd.SqlQuery;
+import org.qstd.dbtype.SchemaMetadata.ForeignKeyColumn;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import static java.util.Arrays.stream;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.nCopies;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Retrieves the metadata of several tables with one query per metadata kind.
+ * The queries are expected to return:
+ * <ul>
+ *     <li>columns: table schema, table name, column name, position, is_nullable (<code>NO</code> or <code>N</code> for a not null column)</li>
+ *     <li>columns mappings: table schema, table name, column name, referenced table schema, referenced table name, referenced column name</li>
+ *     <li>primary key columns: table schema, table name, constraint name, column name, position</li>
+ * </ul>
+ */
+class BaseSchemaMetadataFinder implements SchemaMetadataFinder {
+
+    private static final int MAX_TABLE_NAMES_BY_QUERY = 1000;
+
+    private final DataSource dataSource;
+
+    private final String currentSchemaExpression;
+
+    private final SqlQuery columnsQuery;
+
+    private final SqlQuery columnsMappingsQuery;
+
+    private final Optional<SqlQuery> optionalPrimaryKeyColumnsQuery;
+
+    private final Optional<String> optionalHashExpressionPattern;
+
+    BaseSchemaMetadataFinder(DataSource dataSource
+                           , String currentSchemaExpression
+                           , SqlQuery columnsQuery
+                           , SqlQuery columnsMappingsQuery
+                           , SqlQuery primaryKeyColumnsQuery) {
+        this(dataSource, currentSchemaExpression, columnsQuery, columnsMappingsQuery, Optional.of(primaryKeyColumnsQuery));
+    }
+
+    BaseSchemaMetadataFinder(DataSource dataSource
+                           , String currentSchemaExpression
+                           , SqlQuery columnsQuery
+                           , SqlQuery columnsMappingsQuery) {
+        this(dataSource, currentSchemaExpression, columnsQuery, columnsMappingsQuery, Optional.empty());
+    }
+
+    private BaseSchemaMetadataFinder(DataSource dataSource
+                                   , String currentSchemaExpression
+                                   , SqlQuery columnsQuery
+                                   , SqlQuery columnsMappingsQuery
+                                   , Optional<SqlQuery> optionalPrimaryKeyColumnsQuery) {
+        this(dataSource, currentSchemaExpression, columnsQuery, columnsMappingsQuery, optionalPrimaryKeyColumnsQuery, Optional.empty());
+    }
+
+    private BaseSchemaMetadataFinder(DataSource dataSource
+                                   , String currentSchemaExpression
+                                   , SqlQuery columnsQuery
+                                   , SqlQuery columnsMappingsQuery
+                                   , Optional<SqlQuery> optionalPrimaryKeyColumnsQuery
+                                   , Optional<String> optionalHashExpressionPattern) {
+        this.dataSource = dataSource;
+        this.currentSchemaExpression = currentSchemaExpression;
+        this.columnsQuery = columnsQuery;
+        this.columnsMappingsQuery = columnsMappingsQuery;
+        this.optionalPrimaryKeyColumnsQuery = optionalPrimaryKeyColumnsQuery;
+        this.optionalHashExpressionPattern = optionalHashExpressionPattern;
+    }
+
+    /**
+     * Returns a finder hashing the metadata rows in database to compute the schema fingerprint.
+     * Without hash expression, the metadata rows are read to be hashed.
+     * @param hashExpressionPattern A pattern of SQL expression returning an integer hash of a character string,
+     *                              <code>%s</code> being replaced with the hashed expression
+     */
+    BaseSchemaMetadataFinder withHashExpressionPattern(String hashExpressionPattern) {
+        return new BaseSchemaMetadataFinder(dataSource, currentSchemaExpression, columnsQuery, columnsMappingsQuery
+                                          , optionalPrimaryKeyColumnsQuery, Optional.of(hashExpressionPattern));
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadata() {
+        SchemaMetadata schemaMetadata = new SchemaMetadata();
+        String schemaCondition = " where metadata.table_schema = " + currentSchemaExpression;
+        SqlQuery schemaColumnsQuery = filter(columnsQuery, schemaCondition, emptyList());
+        readColumns(schemaColumnsQuery, schemaMetadata, true);
+        SqlQuery schemaColumnsMappingsQuery = filter(columnsMappingsQuery, schemaCondition, emptyList());
+        readColumnsMappings(schemaColumnsMappingsQuery, schemaMetadata);
+        if (optionalPrimaryKeyColumnsQuery.isPresent()) {
+            SqlQuery schemaPrimaryKeyColumnsQuery = filter(optionalPrimaryKeyColumnsQuery.get(), schemaCondition, emptyList());
+            readPrimaryKeyColumns(schemaPrimaryKeyColumnsQuery, schemaMetadata);
+        }
+        return schemaMetadata;
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames) {
+        SchemaMetadata schemaMetadata = new SchemaMetadata();
+        List<String> tableNameList = new ArrayList<>(new LinkedHashSet<>(tableNames));
+        for (List<Object> tableNamesOfQuery : partition(tableNameList)) {
+            String tableNameCondition = buildTableNameCondition(tableNamesOfQuery.size());
+            // The tables missing from the database are not added, their metadata are retrieved table by table
+            readColumns(filter(columnsQuery, tableNameCondition, tableNamesOfQuery), schemaMetadata, true);
+            if (optionalPrimaryKeyColumnsQuery.isPresent()) {
+                SqlQuery primaryKeyColumnsQuery = filter(optionalPrimaryKeyColumnsQuery.get(), tableNameCondition, tableNamesOfQuery);
+                readPrimaryKeyColumns(primaryKeyColumnsQuery, schemaMetadata);
+            }
+        }
+        readColumnsMappingsReachableFrom(tableNameList, schemaMetadata);
+        return schemaMetadata;
+    }
+
+    /**
+     * Reads the foreign keys of the given tables, then of the tables they reference, level by level,
+     * to find the tables referenced directly or indirectly by the given tables
+     */
+    private void readColumnsMappingsReachableFrom(List<String> tableNames, SchemaMetadata schemaMetadata) {
+        Set<String> readTableNames = new HashSet<>();
+        Collection<String> tableNamesToRead = tableNames;
+        while (!tableNamesToRead.isEmpty()) {
+            readTableNames.addAll(tableNamesToRead);
+            Set<String> referencedTableNames = new LinkedHashSet<>();
+            for (List<Object> tableNamesOfQuery : partition(new ArrayList<>(tableNamesToRead))) {
+                String tableNameCondition = buildTableNameCondition(tableNamesOfQuery.size());
+                SqlQuery tablesColumnsMappingsQuery = filter(columnsMappingsQuery, tableNameCondition, tableNamesOfQuery);
+                for (ForeignKeyColumn foreignKeyColumn : readColumnsMappings(tablesColumnsMappingsQuery, schemaMetadata)) {
+                    if (!readTableNames.contains(foreignKeyColumn.referencedTableName)) {
+                        referencedTableNames.add(foreignKeyColumn.referencedTableName);
+                    }
+                }
+            }
+            tableNamesToRead = referencedTableNames;
+        }
+    }
+
+    private static List<List<Object>> partition(List<String> tableNames) {
+        List<List<Object>> tableNameLists = new ArrayList<>();
+        for (int fromIndex = 0; fromIndex < tableNames.size(); fromIndex += MAX_TABLE_NAMES_BY_QUERY) {
+            int toIndex = Math.min(fromIndex + MAX_TABLE_NAMES_BY_QUERY, tableNames.size());
+            tableNameLists.add(new ArrayList<>(tableNames.subList(fromIndex, toIndex)));
+        }
+        return tableNameLists;
+    }
+
+    private String buildTableNameCondition(int tableNameCount) {
+        return " where metadata.table_schema = " + currentSchemaExpression
+             + " and metadata.table_name in ("
+             + String.join(", ", nCopies(tableNameCount, "?"))
+             + ")";
+    }
+
+    @Override
+    public SchemaFingerprint findSchemaFingerprint() {
+        String dbUrl = DatabaseUrlFinder.findDbUrlFrom(dataSource);
+        String schemaCondition = " where metadata.table_schema = " + currentSchemaExpression;
+        SqlQuery schemaNameQuery = new SqlQuery("select max(metadata.table_schema) from (" + columnsQuery + ") metadata" + schemaCondition);
+        List<String[]> schemaNameRows = execute(schemaNameQuery, 1);
+        String schemaName = schemaNameRows.isEmpty() || schemaNameRows.get(0)[0] == null ? "" : schemaNameRows.get(0)[0];
+        // A renamed table or column, a moved not null constraint or a repointed foreign key changes the hashes
+        StringJoiner checksum = new StringJoiner(":");
+        checksum.add(findFingerprintOf(columnsQuery, schemaCondition, "table_name", "column_name", "position", "is_nullable"))
+                .add(findFingerprintOf(columnsMappingsQuery, schemaCondition, "table_name", "column_name", "ref_table_name", "ref_column_name"));
+        optionalPrimaryKeyColumnsQuery.ifPresent(primaryKeyColumnsQuery ->
+                checksum.add(findFingerprintOf(primaryKeyColumnsQuery, schemaCondition, "table_name", "column_name", "position")));
+        return new SchemaFingerprint(dbUrl, schemaName, checksum.toString());
+    }
+
+    /**
+     * Finds the number of rows of the metadata query and the sum of the hashes of the given columns of each row
+     */
+    private String findFingerprintOf(SqlQuery sqlQuery, String condition, String... columnNames) {
+        if (optionalHashExpressionPattern.isPresent()) {
+            String rowExpression = "metadata." + columnNames[0];
+            for (int i = 1; i < columnNames.length; i++) {
+                rowExpression = "concat(concat(" + rowExpression + ", '|'), metadata." + columnNames[i] + ")";
+            }
+            String rowHashExpression = String.format(optionalHashExpressionPattern.get(), rowExpression);
+            SqlQuery fingerprintQuery = new SqlQuery("select count(*), sum(" + rowHashExpression + ")"
+                                                   + " from (" + sqlQuery + ") metadata" + condition);
+            String[] row = execute(fingerprintQuery, 2).get(0);
+            return row[0] + "-" + row[1];
+        }
+        String selectedColumns = stream(columnNames).map(columnName -> "metadata." + columnName)
+                                                   .collect(joining(", "));
+        SqlQuery rowsQuery = new SqlQuery("select " + selectedColumns + " from (" + sqlQuery + ") metadata" + condition);
+        List<String[]> rows = execute(rowsQuery, columnNames.length);
+        long hashSum = 0;
+        for (String[] row : rows) {
+            CRC32 rowHash = new CRC32();
+            rowHash.update(String.join("|", row).getBytes(StandardCharsets.UTF_8));
+            hashSum += rowHash.getValue();
+        }
+        return rows.size() + "-" + hashSum;
+    }
+
+    private static SqlQuery filter(SqlQuery sqlQuery, String condition, List<Object> parameters) {
+        String queryAsString = "select * from (" + sqlQuery + ") metadata" + condition;
+        return new SqlQuery(queryAsString, parameters);
+    }
+
+    private void readColumns(SqlQuery sqlQuery, SchemaMetadata schemaMetadata, boolean addTables) {
+        List<String[]> rows = execute(sqlQuery, 5);
+        rows.sort(Comparator.comparing(row -> Integer.valueOf(row[3])));
+        for (String[] row : rows) {
+            String tableName = row[1];
+            if (addTables) {
+                schemaMetadata.addTable(tableName);
+            }
+            String nullable = row[4];
+            boolean notNull = "NO".equalsIgnoreCase(nullable) || "N".equalsIgnoreCase(nullable);
+            schemaMetadata.addColumn(tableName, row[2], notNull);
+        }
+    }
+
+    private List<ForeignKeyColumn> readColumnsMappings(SqlQuery sqlQuery, SchemaMetadata schemaMetadata) {
+        List<ForeignKeyColumn> foreignKeyColumns = new ArrayList<>();
+        for (String[] row : execute(sqlQuery, 6)) {
+            ForeignKeyColumn foreignKeyColumn = new ForeignKeyColumn(row[0], row[1], row[2], row[3], row[4], row[5]);
+            schemaMetadata.addForeignKeyColumn(foreignKeyColumn);
+            foreignKeyColumns.add(foreignKeyColumn);
+        }
+        return foreignKeyColumns;
+    }
+
+    private void readPrimaryKeyColumns(SqlQuery sqlQuery, SchemaMetadata schemaMetadata) {
+        List<String[]> rows = execute(sqlQuery, 5);
+        rows.sort(Comparator.comparing(row -> Integer.valueOf(row[4])));
+        for (String[] row : rows) {
+            schemaMetadata.addPrimaryKeyColumn(row[1], row[3]);
+        }
+    }
+
+    private List<String[]> execute(SqlQuery sqlQuery, int columnCount) {
+        List<String[]> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = PreparedStatementBuilder.buildFrom(sqlQuery, connection)) {
+            ResultSet queryResult = statement.executeQuery();
+            while (queryResult.next()) {
+                String[] row = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = queryResult.getString(i + 1);
+                }
+                rows.add(row);
+            }
+        } catch (SQLException sqlException) {
+            // Missing rows would be taken for missing tables, columns or constraints
+            throw new IllegalStateException("Unable to execute " + sqlQuery, sqlException);
+        }
+        return rows;
+    }
+
+}
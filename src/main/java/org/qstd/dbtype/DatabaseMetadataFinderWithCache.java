@@ -14,12 +14,22 @@ package org.qstd.dbtype;
 
 import org.qstd.ColumnsMappingGroup;
 import org.qstd.DatabaseMetadataFinder;
+import org.qstd.GenerationListener;
 import org.qstd.ReferencedTableSet;
 
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toSet;
 
 /**
  * A DatabaseMetadataFinder caching method calls
@@ -28,15 +38,17 @@ public class DatabaseMetadataFinderWithCache implements DatabaseMetadataFinder {
 
     private final DatabaseMetadataFinder delegate;
 
-    private final ConcurrentHashMap<String, Collection<String>> notNullColumnsByTableName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Collection<String>>> notNullColumnsByTableName = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, CompletableFuture<List<String>>> databaseColumnOrdersByTableName = new ConcurrentHashMap<>();
 
-    private final ConcurrentHashMap<String, List<String>> databaseColumnOrdersByTableName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<ColumnsMappingGroup>> columnsMappingsByTableName = new ConcurrentHashMap<>();
 
-    private final ConcurrentHashMap<String, ColumnsMappingGroup> columnsMappingsByTableName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<ReferencedTableSet>> referencedTableSetByTableName = new ConcurrentHashMap<>();
 
-    private final ConcurrentHashMap<String, ReferencedTableSet> referencedTableSetByTableName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<List<String>>> primaryColumnsByTableName = new ConcurrentHashMap<>();
 
-    private final ConcurrentHashMap<String, List<String>> primaryColumnsByTableName = new ConcurrentHashMap<>();
+    private volatile Supplier<GenerationListener> listenerSupplier = () -> GenerationListener.NONE;
 
     public DatabaseMetadataFinderWithCache(DatabaseMetadataFinder delegate) {
         this.delegate = delegate;
@@ -46,29 +58,165 @@ public class DatabaseMetadataFinderWithCache implements DatabaseMetadataFinder {
         return new DatabaseMetadataFinderWithCache(databaseMetadataFinder);
     }
 
+    /**
+     * Builds a DatabaseMetadataFinder caching the metadata in memory and in a directory.
+     * The metadata of the current schema are read from the directory if the schema has not changed
+     * since they were written, and retrieved from the database and written to the directory otherwise.
+     * A schema change is detected from the names of the tables, of their columns and of the columns of their
+     * primary and foreign keys, with the nullability and the position of the columns.
+     * Deleting the directory content forces the metadata retrieval.
+     * If a metadata query fails, the directory is neither read nor written and the metadata
+     * are retrieved table by table.
+     * Only the metadata of the database metadata finders built by
+     * <code>org.qstd.dbtype.DatabaseMetadataFinderFactory</code> are written to the directory.
+     * @param databaseMetadataFinder A database metadata finder
+     * @param cacheDirectory A directory storing the metadata, created if missing
+     * @return A DatabaseMetadataFinder caching the metadata
+     */
+    public static DatabaseMetadataFinderWithCache buildFrom(DatabaseMetadataFinder databaseMetadataFinder, Path cacheDirectory) {
+        DatabaseMetadataFinderWithCache databaseMetadataFinderWithCache = new DatabaseMetadataFinderWithCache(databaseMetadataFinder);
+        if (databaseMetadataFinder instanceof SchemaMetadataFinder) {
+            SchemaMetadataFinder schemaMetadataFinder = (SchemaMetadataFinder) databaseMetadataFinder;
+            try {
+                SchemaFingerprint schemaFingerprint = schemaMetadataFinder.findSchemaFingerprint();
+                SchemaMetadataFileCache schemaMetadataFileCache = new SchemaMetadataFileCache(cacheDirectory);
+                Optional<SchemaMetadata> optionalSchemaMetadata = schemaMetadataFileCache.read(schemaFingerprint);
+                SchemaMetadata schemaMetadata = optionalSchemaMetadata.orElseGet(() -> {
+                    SchemaMetadata foundSchemaMetadata = schemaMetadataFinder.findSchemaMetadata();
+                    schemaMetadataFileCache.write(schemaFingerprint, foundSchemaMetadata);
+                    return foundSchemaMetadata;
+                });
+                databaseMetadataFinderWithCache.cache(schemaMetadata);
+            } catch (IllegalStateException metadataQueryException) {
+                // Incomplete metadata are never written, nor compared with a fingerprint to be read
+                System.err.println("Unable to use the metadata stored in " + cacheDirectory + ", the metadata are retrieved table by table");
+                metadataQueryException.printStackTrace();
+            }
+        }
+        return databaseMetadataFinderWithCache;
+    }
+
+    /**
+     * Sets the supplier of the listener notified of the cache hits and misses.
+     * <code>org.qstd.QuickSqlTestData</code> sets a supplier giving the listener of the generation
+     * running on the current thread.
+     * @param listenerSupplier A supplier of generation listener
+     */
+    public void setListenerSupplier(Supplier<GenerationListener> listenerSupplier) {
+        this.listenerSupplier = listenerSupplier;
+    }
+
+    /**
+     * Retrieves and caches the metadata of all the tables of the current schema.
+     * The metadata are retrieved with one query per metadata kind for the built-in database types.
+     * Nothing is preloaded for a database metadata finder not supporting schema-wide retrieval.
+     * @throws IllegalStateException If a metadata query fails, nothing being cached
+     */
+    public void preloadMetadata() {
+        if (delegate instanceof SchemaMetadataFinder) {
+            SchemaMetadataFinder schemaMetadataFinder = (SchemaMetadataFinder) delegate;
+            SchemaMetadata schemaMetadata = schemaMetadataFinder.findSchemaMetadata();
+            cache(schemaMetadata);
+        }
+    }
+
+    /**
+     * Retrieves and caches the metadata of the given tables.
+     * The metadata are retrieved with one query per metadata kind for the built-in database types,
+     * and table by table otherwise.
+     * @param tableNames Table names
+     * @throws IllegalStateException If a metadata query fails, nothing being cached
+     */
+    public void preloadMetadataOf(Collection<String> tableNames) {
+        Function<String, String> functionToHaveMetadataTableName = getFunctionToHaveMetadataTableName();
+        Set<String> metadataTableNames = tableNames.stream()
+                                                   .map(functionToHaveMetadataTableName)
+                                                   .collect(toSet());
+        if (delegate instanceof SchemaMetadataFinder) {
+            SchemaMetadataFinder schemaMetadataFinder = (SchemaMetadataFinder) delegate;
+            SchemaMetadata schemaMetadata = schemaMetadataFinder.findSchemaMetadataOf(metadataTableNames);
+            cache(schemaMetadata);
+        } else {
+            for (String tableName : metadataTableNames) {
+                findDatabaseColumnOrdersOf(tableName);
+                findColumnsMappingsOf(tableName);
+                findNotNullColumnsOf(tableName);
+                findReferencedTablesOf(tableName);
+                findPrimaryColumnsOf(tableName);
+            }
+        }
+    }
+
+    private void cache(SchemaMetadata schemaMetadata) {
+        for (String tableName : schemaMetadata.getTableNames()) {
+            databaseColumnOrdersByTableName.put(tableName, completedFuture(schemaMetadata.findDatabaseColumnOrdersOf(tableName)));
+            columnsMappingsByTableName.put(tableName, completedFuture(schemaMetadata.findColumnsMappingsOf(tableName)));
+            notNullColumnsByTableName.put(tableName, completedFuture(schemaMetadata.findNotNullColumnsOf(tableName)));
+            referencedTableSetByTableName.put(tableName, completedFuture(schemaMetadata.findReferencedTablesOf(tableName)));
+            primaryColumnsByTableName.put(tableName, completedFuture(schemaMetadata.findPrimaryColumnsOf(tableName)));
+        }
+    }
+
     @Override
     public List<String> findDatabaseColumnOrdersOf(String tableName) {
-        return databaseColumnOrdersByTableName.computeIfAbsent(tableName, t -> delegate.findDatabaseColumnOrdersOf(tableName));
+        return find(tableName, databaseColumnOrdersByTableName, delegate::findDatabaseColumnOrdersOf, listenerSupplier.get());
     }
 
     @Override
     public ColumnsMappingGroup findColumnsMappingsOf(String tableName) {
-        return columnsMappingsByTableName.computeIfAbsent(tableName, t -> delegate.findColumnsMappingsOf(tableName));
+        return find(tableName, columnsMappingsByTableName, delegate::findColumnsMappingsOf, listenerSupplier.get());
     }
 
     @Override
     public Collection<String> findNotNullColumnsOf(String tableName) {
-        return notNullColumnsByTableName.computeIfAbsent(tableName, t -> delegate.findNotNullColumnsOf(tableName));
+        return find(tableName, notNullColumnsByTableName, delegate::findNotNullColumnsOf, listenerSupplier.get());
     }
 
     @Override
     public ReferencedTableSet findReferencedTablesOf(String tableName) {
-        return referencedTableSetByTableName.computeIfAbsent(tableName, t -> delegate.findReferencedTablesOf(tableName));
+        return find(tableName, referencedTableSetByTableName, delegate::findReferencedTablesOf, listenerSupplier.get());
     }
 
     @Override
     public List<String> findPrimaryColumnsOf(String tableName) {
-        return primaryColumnsByTableName.computeIfAbsent(tableName, t -> delegate.findPrimaryColumnsOf(tableName));
+        return find(tableName, primaryColumnsByTableName, delegate::findPrimaryColumnsOf, listenerSupplier.get());
+    }
+
+    private static <T> T find(String tableName
+                            , ConcurrentHashMap<String, CompletableFuture<T>> cache
+                            , Function<String, T> finder
+                            , GenerationListener listener) {
+        // A lookup in progress in another thread is awaited instead of being executed again
+        CompletableFuture<T> future = cache.get(tableName);
+        if (future == null) {
+            CompletableFuture<T> newFuture = new CompletableFuture<>();
+            future = cache.putIfAbsent(tableName, newFuture);
+            if (future == null) {
+                listener.onMetadataCacheMiss(tableName);
+                try {
+                    newFuture.complete(finder.apply(tableName));
+                } catch (RuntimeException | Error lookupFailure) {
+                    // The awaiting threads are released and the next lookup is executed again
+                    cache.remove(tableName, newFuture);
+                    newFuture.completeExceptionally(lookupFailure);
+                    throw lookupFailure;
+                }
+                return newFuture.join();
+            }
+        }
+        listener.onMetadataCacheHit(tableName);
+        try {
+            return future.join();
+        } catch (CompletionException completionException) {
+            Throwable cause = completionException.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw completionException;
+        }
     }
 
     @Override
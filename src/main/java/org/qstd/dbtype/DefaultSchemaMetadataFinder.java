@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.dbtype;
+
+import org.qstd.SqlQuery;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+
+class DefaultSchemaMetadataFinder implements SchemaMetadataFinder {
+
+    static final SqlQuery ALL_COLUMNS_QUERY = new SqlQuery(
+            "select table_schema," +
+                    "       table_name," +
+                    "       column_name," +
+                    "       ordinal_position as position," +
+                    "       is_nullable" +
+                    " from information_schema.columns");
+
+    private static final SqlQuery ALL_PRIMARY_KEY_COLUMNS_QUERY = new SqlQuery(
+            "select \n" +
+                    "     cons.table_schema,\n" +
+                    "     cons.table_name,\n" +
+                    "     cons.constraint_name,\n" +
+                    "     cols.column_name,\n" +
+                    "     cols.ordinal_position as position\n" +
+                    " from information_schema.table_constraints cons\n" +
+                    " join information_schema.key_column_usage cols on (cons.table_schema = cols.table_schema \n" +
+                    " and cons.table_name = cols.table_name\n" +
+                    " and cons.constraint_name = cols.constraint_name)\n" +
+                    " where cons.constraint_type='PRIMARY KEY'"
+    );
+
+    private final BaseSchemaMetadataFinder delegate;
+
+    DefaultSchemaMetadataFinder(DataSource dataSource, String currentSchemaExpression, SqlQuery allColumnsMappingsQuery) {
+        this(new BaseSchemaMetadataFinder(dataSource
+                                        , currentSchemaExpression
+                                        , ALL_COLUMNS_QUERY
+                                        , allColumnsMappingsQuery
+                                        , ALL_PRIMARY_KEY_COLUMNS_QUERY));
+    }
+
+    private DefaultSchemaMetadataFinder(BaseSchemaMetadataFinder delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @see BaseSchemaMetadataFinder#withHashExpressionPattern(String)
+     */
+    DefaultSchemaMetadataFinder withHashExpressionPattern(String hashExpressionPattern) {
+        return new DefaultSchemaMetadataFinder(delegate.withHashExpressionPattern(hashExpressionPattern));
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadata() {
+        return delegate.findSchemaMetadata();
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames) {
+        return delegate.findSchemaMetadataOf(tableNames);
+    }
+
+    @Override
+    public SchemaFingerprint findSchemaFingerprint() {
+        return delegate.findSchemaFingerprint();
+    }
+
+}
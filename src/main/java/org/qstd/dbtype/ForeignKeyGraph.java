@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.dbtype;
+
+import org.qstd.ReferencedTable;
+import org.qstd.ReferencedTableSet;
+
+import java.util.*;
+
+/**
+ * Foreign key dependencies between tables. The tables referenced directly or indirectly by a table
+ * are computed in memory, as a bit set of table ids, the first time they are requested.
+ */
+class ForeignKeyGraph {
+
+    private final Map<String, Integer> idByTableName = new HashMap<>();
+
+    private final List<String> tableNames = new ArrayList<>();
+
+    private final List<BitSet> referencedTableIdsById = new ArrayList<>();
+
+    private final Map<Integer, ReferencedTableSet> referencedTableSetById = new HashMap<>();
+
+    /**
+     * Adds a foreign key dependency. A self-reference is ignored.
+     */
+    void addForeignKey(String tableName, String referencedTableName) {
+        if (tableName.equals(referencedTableName)) {
+            return;
+        }
+        int tableId = findOrAddIdOf(tableName);
+        int referencedTableId = findOrAddIdOf(referencedTableName);
+        referencedTableIdsById.get(tableId).set(referencedTableId);
+    }
+
+    private int findOrAddIdOf(String tableName) {
+        Integer tableId = idByTableName.get(tableName);
+        if (tableId == null) {
+            tableId = tableNames.size();
+            idByTableName.put(tableName, tableId);
+            tableNames.add(tableName);
+            referencedTableIdsById.add(new BitSet());
+        }
+        return tableId;
+    }
+
+    /**
+     * Returns true if the table references at least one other table
+     */
+    synchronized boolean hasForeignKeysFrom(String tableName) {
+        Integer tableId = idByTableName.get(tableName);
+        return tableId != null && !referencedTableIdsById.get(tableId).isEmpty();
+    }
+
+    synchronized ReferencedTableSet findReferencedTablesOf(String tableName) {
+        Integer tableId = idByTableName.get(tableName);
+        if (tableId == null) {
+            return ReferencedTableSet.NONE;
+        }
+        return referencedTableSetById.computeIfAbsent(tableId, this::buildReferencedTableSet);
+    }
+
+    private ReferencedTableSet buildReferencedTableSet(int tableId) {
+        Collection<ReferencedTable> referencedTables = new ArrayList<>();
+        BitSet reachableTableIds = new BitSet();
+        reachableTableIds.set(tableId);
+        BitSet tableIdsOfLevel = new BitSet();
+        tableIdsOfLevel.set(tableId);
+        // Breadth-first traversal keeping the level of each referenced table
+        for (int level = 1; !tableIdsOfLevel.isEmpty(); level++) {
+            BitSet tableIdsOfNextLevel = new BitSet();
+            for (int childId = tableIdsOfLevel.nextSetBit(0); childId >= 0; childId = tableIdsOfLevel.nextSetBit(childId + 1)) {
+                BitSet parentIds = referencedTableIdsById.get(childId);
+                for (int parentId = parentIds.nextSetBit(0); parentId >= 0; parentId = parentIds.nextSetBit(parentId + 1)) {
+                    referencedTables.add(new ReferencedTable(tableNames.get(childId), tableNames.get(parentId), level));
+                    if (!reachableTableIds.get(parentId)) {
+                        tableIdsOfNextLevel.set(parentId);
+                    }
+                }
+            }
+            reachableTableIds.or(tableIdsOfNextLevel);
+            tableIdsOfLevel = tableIdsOfNextLevel;
+        }
+        return new ReferencedTableSet(referencedTables);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.dbtype;
+
+import org.qstd.PreparedStatementBuilder;
+import org.qstd.ReferencedTableSet;
+import org.qstd.ReferencedTablesFinder;
+import org.qstd.SqlQuery;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Finds the referenced tables from the foreign keys of the tables of the current schema, retrieved with one query.
+ * The query is expected to return: table schema, table name, column name,
+ * referenced table schema, referenced table name, referenced column name.
+ * A table of another schema is named with its schema, so that two tables of the same name in two schemas
+ * are not merged.
+ * The foreign keys are loaded again when a table without foreign key in the loaded ones has foreign keys
+ * in the database, for example a table created after the loading.
+ */
+class ForeignKeyGraphReferencedTablesFinder implements ReferencedTablesFinder {
+
+    private final DataSource dataSource;
+
+    private final SqlQuery schemaColumnsMappingsQuery;
+
+    private final SqlQuery tableColumnsMappingsQuery;
+
+    private volatile ForeignKeyGraph foreignKeyGraph;
+
+    ForeignKeyGraphReferencedTablesFinder(DataSource dataSource, String currentSchemaExpression, SqlQuery allColumnsMappingsQuery) {
+        this.dataSource = dataSource;
+        String schemaColumnsMappings = "select metadata.table_schema, metadata.table_name"
+                                     + ", metadata.ref_table_schema, metadata.ref_table_name"
+                                     + " from (" + allColumnsMappingsQuery + ") metadata"
+                                     + " where metadata.table_schema = " + currentSchemaExpression;
+        this.schemaColumnsMappingsQuery = new SqlQuery(schemaColumnsMappings);
+        this.tableColumnsMappingsQuery = new SqlQuery(schemaColumnsMappings + " and metadata.table_name = ?");
+    }
+
+    @Override
+    public ReferencedTableSet findReferencedTablesOf(String tableName) {
+        ForeignKeyGraph loadedForeignKeyGraph = getForeignKeyGraph();
+        if (!loadedForeignKeyGraph.hasForeignKeysFrom(tableName) && hasForeignKeys(tableName)) {
+            loadedForeignKeyGraph = reloadForeignKeyGraph(loadedForeignKeyGraph);
+        }
+        return loadedForeignKeyGraph.findReferencedTablesOf(tableName);
+    }
+
+    private ForeignKeyGraph getForeignKeyGraph() {
+        ForeignKeyGraph loadedForeignKeyGraph = foreignKeyGraph;
+        if (loadedForeignKeyGraph == null) {
+            synchronized (this) {
+                loadedForeignKeyGraph = foreignKeyGraph;
+                if (loadedForeignKeyGraph == null) {
+                    loadedForeignKeyGraph = loadForeignKeyGraph();
+                    foreignKeyGraph = loadedForeignKeyGraph;
+                }
+            }
+        }
+        return loadedForeignKeyGraph;
+    }
+
+    private synchronized ForeignKeyGraph reloadForeignKeyGraph(ForeignKeyGraph staleForeignKeyGraph) {
+        // Another thread may have already loaded the foreign keys again
+        if (foreignKeyGraph == staleForeignKeyGraph) {
+            foreignKeyGraph = loadForeignKeyGraph();
+        }
+        return foreignKeyGraph;
+    }
+
+    private boolean hasForeignKeys(String tableName) {
+        SqlQuery sqlQuery = new SqlQuery(tableColumnsMappingsQuery.toString(), singletonList(tableName));
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement columnsMappingsStatement = PreparedStatementBuilder.buildFrom(sqlQuery, connection)) {
+            ResultSet queryResult = columnsMappingsStatement.executeQuery();
+            while (queryResult.next()) {
+                if (!tableName.equals(queryResult.getString(4))) {
+                    return true;
+                }
+            }
+        } catch (SQLException sqlException) {
+            System.err.println("Unable to execute " + sqlQuery);
+            sqlException.printStackTrace();
+        }
+        return false;
+    }
+
+    private ForeignKeyGraph loadForeignKeyGraph() {
+        ForeignKeyGraph foreignKeyGraph = new ForeignKeyGraph();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement columnsMappingsStatement = PreparedStatementBuilder.buildFrom(schemaColumnsMappingsQuery, connection)) {
+            ResultSet queryResult = columnsMappingsStatement.executeQuery();
+            while (queryResult.next()) {
+                String schemaName = queryResult.getString(1);
+                String tableName = queryResult.getString(2);
+                String referencedTableName = nameInSchema(schemaName, queryResult.getString(3), queryResult.getString(4));
+                foreignKeyGraph.addForeignKey(tableName, referencedTableName);
+            }
+        } catch (SQLException sqlException) {
+            System.err.println("Unable to execute " + schemaColumnsMappingsQuery);
+            sqlException.printStackTrace();
+        }
+        return foreignKeyGraph;
+    }
+
+    private static String nameInSchema(String currentSchemaName, String tableSchemaName, String tableName) {
+        if (tableSchemaName == null || tableSchemaName.equals(currentSchemaName)) {
+            return tableName;
+        }
+        return tableSchemaName + "." + tableName;
+    }
+
+}
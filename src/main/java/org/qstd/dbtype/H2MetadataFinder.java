@@ -18,47 +18,11 @@ import javax.sql.DataSource;
 import java.util.Collection;
 import java.util.List;
 
-class H2MetadataFinder implements DatabaseMetadataFinder {
-
-    private static final SqlQuery H2_REFERENCED_TABLES_QUERY = new SqlQuery(
-            "with\n" +
-                    "    recursive parent_child_tree (table_name, ref_table_name, level) as\n" +
-                    "    (\n" +
-                    "    select distinct\n" +
-                    "        child.table_name     as table_name,\n" +
-                    "        parent.table_name    as ref_table_name,\n" +
-                    "        1                    as level\n" +
-                    "    from information_schema.table_constraints child\n" +
-                    "    join information_schema.referential_constraints rco\n" +
-                    "    on rco.constraint_name = child.constraint_name\n" +
-                    "    join information_schema.constraints parent\n" +
-                    "    on parent.unique_index_name = rco.unique_constraint_name\n" +
-                    "    where\n" +
-                    "        child.table_name != parent.table_name and\n" +
-                    "        child.table_name=?\n" +
-                    "    UNION ALL\n" +
-                    "    select pc.table_name, pc.ref_table_name, pct.level + 1 as level\n" +
-                    "    from\n" +
-                    "        (\n" +
-                    "        select \n" +
-                    "            child.table_name     as table_name,\n" +
-                    "            parent.table_name    as ref_table_name,\n" +
-                    "            1                    as level\n" +
-                    "        from information_schema.table_constraints child\n" +
-                    "        join information_schema.referential_constraints rco\n" +
-                    "        on rco.constraint_name = child.constraint_name\n" +
-                    "        join information_schema.constraints parent\n" +
-                    "        on parent.unique_index_name = rco.unique_constraint_name\n" +
-                    "        where\n" +
-                    "            child.table_name != parent.table_name\n" +
-                    "        ) pc\n" +
-                    "    join parent_child_tree pct on (pc.table_name = pct.ref_table_name)\n" +
-                    "    )\n" +
-                    "select distinct *\n" +
-                    "from parent_child_tree\n" +
-                    "order by level desc");
-
-    private static final SqlQuery H2_COLUMNS_MAPPINGS_QUERY = new SqlQuery(
+class H2MetadataFinder implements DatabaseMetadataFinder, SchemaMetadataFinder {
+
+    private static final String CURRENT_SCHEMA = "schema()";
+
+    private static final String H2_COLUMNS_MAPPINGS =
             "select \n" +
                     "        fktable_schema as table_schema,\n" +
                     "        fktable_name   as table_name,\n" +
@@ -66,9 +30,11 @@ class H2MetadataFinder implements DatabaseMetadataFinder {
                     "        pktable_schema as ref_table_schema,\n" +
                     "        pktable_name   as ref_table_name,\n" +
                     "        pkcolumn_name  as ref_column_name\n" +
-                    "  from information_schema.cross_references \n" +
-                    "  where fktable_name = ?"
-    );
+                    "  from information_schema.cross_references \n";
+
+    private static final SqlQuery H2_COLUMNS_MAPPINGS_QUERY = new SqlQuery(H2_COLUMNS_MAPPINGS + "  where fktable_name = ?");
+
+    private static final SqlQuery H2_ALL_COLUMNS_MAPPINGS_QUERY = new SqlQuery(H2_COLUMNS_MAPPINGS);
 
     private final DefaultColumnOrdersFinder defaultColumnOrdersFinder;
 
@@ -80,12 +46,16 @@ class H2MetadataFinder implements DatabaseMetadataFinder {
 
     private final PrimaryKeyColumnsFinder primaryKeyColumnsFinder;
 
+    private final SchemaMetadataFinder schemaMetadataFinder;
+
     H2MetadataFinder(DataSource dataSource) {
         this.defaultColumnOrdersFinder = new DefaultColumnOrdersFinder(dataSource);
         this.defaultNotNullColumnsFinder = new DefaultNotNullColumnsFinder(dataSource);
-        this.h2ReferencedTablesFinder = new BaseReferencedTablesFinder(dataSource, H2_REFERENCED_TABLES_QUERY);
+        this.h2ReferencedTablesFinder = new ForeignKeyGraphReferencedTablesFinder(dataSource, CURRENT_SCHEMA, H2_ALL_COLUMNS_MAPPINGS_QUERY);
         this.h2ColumnsMappingsFinder = new BaseColumnsMappingsFinder(dataSource, H2_COLUMNS_MAPPINGS_QUERY);
         this.primaryKeyColumnsFinder = new DefaultPrimaryKeyColumnsFinder(dataSource);
+        this.schemaMetadataFinder = new DefaultSchemaMetadataFinder(dataSource, CURRENT_SCHEMA, H2_ALL_COLUMNS_MAPPINGS_QUERY)
+                                          .withHashExpressionPattern("ora_hash(%s)");
     }
 
     @Override
@@ -113,4 +83,19 @@ class H2MetadataFinder implements DatabaseMetadataFinder {
         return primaryKeyColumnsFinder.findPrimaryColumnsOf(tableName);
     }
 
+    @Override
+    public SchemaMetadata findSchemaMetadata() {
+        return schemaMetadataFinder.findSchemaMetadata();
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames) {
+        return schemaMetadataFinder.findSchemaMetadataOf(tableNames);
+    }
+
+    @Override
+    public SchemaFingerprint findSchemaFingerprint() {
+        return schemaMetadataFinder.findSchemaFingerprint();
+    }
+
 }
@@ -18,47 +18,11 @@ import javax.sql.DataSource;
 import java.util.Collection;
 import java.util.List;
 
-class HsqlDbMetadataFinder implements DatabaseMetadataFinder {
-
-    private static final SqlQuery HSQL_DB_REFERENCED_TABLES_QUERY = new SqlQuery(
-            "with\n" +
-                    "    recursive parent_child_tree (table_name, ref_table_name, level) as\n" +
-                    "    (\n" +
-                    "    select distinct\n" +
-                    "        child.table_name     as table_name,\n" +
-                    "        parent.table_name    as ref_table_name,\n" +
-                    "        1                    as level\n" +
-                    "    from information_schema.table_constraints child\n" +
-                    "    join information_schema.referential_constraints rco\n" +
-                    "          on rco.constraint_name = child.constraint_name\n" +
-                    "    join information_schema.table_constraints parent\n" +
-                    "          on parent.constraint_name = rco.unique_constraint_name\n" +
-                    "    where\n" +
-                    "        child.table_name != parent.table_name and\n" +
-                    "        child.table_name=?\n" +
-                    "    UNION\n" +
-                    "    select pc.table_name, pc.ref_table_name, pct.level + 1 as level\n" +
-                    "    from\n" +
-                    "        (\n" +
-                    "        select distinct\n" +
-                    "            child.table_name     as table_name,\n" +
-                    "            parent.table_name    as ref_table_name,\n" +
-                    "            1                    as level\n" +
-                    "        from information_schema.table_constraints child\n" +
-                    "        join information_schema.referential_constraints rco\n" +
-                    "            on rco.constraint_name = child.constraint_name\n" +
-                    "        join information_schema.table_constraints parent\n" +
-                    "            on parent.constraint_name = rco.unique_constraint_name\n" +
-                    "        where\n" +
-                    "            child.table_name != parent.table_name\n" +
-                    "        ) pc\n" +
-                    "    join parent_child_tree pct on (pc.table_name = pct.ref_table_name)\n" +
-                    "    )\n" +
-                    "select distinct *\n" +
-                    "from parent_child_tree\n" +
-                    "order by level desc");
-
-    private static final SqlQuery HSQL_DB_COLUMNS_MAPPINGS_QUERY = new SqlQuery(
+class HsqlDbMetadataFinder implements DatabaseMetadataFinder, SchemaMetadataFinder {
+
+    private static final String CURRENT_SCHEMA = "current_schema";
+
+    private static final String HSQL_DB_COLUMNS_MAPPINGS =
             "select\n" +
                     "       child_constraint.table_schema    as table_schema,\n" +
                     "       child_constraint.table_name      as table_name,\n" +
@@ -81,8 +45,11 @@ class HsqlDbMetadataFinder implements DatabaseMetadataFinder {
                     "       on (parent_cons_cols.constraint_schema = ref.unique_constraint_schema\n" +
                     "           and\n" +
                     "           parent_cons_cols.constraint_name = ref.unique_constraint_name)\n" +
-                    "where child_constraint.constraint_type = 'FOREIGN KEY' and child_constraint.table_name=?"
-    );
+                    "where child_constraint.constraint_type = 'FOREIGN KEY'";
+
+    private static final SqlQuery HSQL_DB_COLUMNS_MAPPINGS_QUERY = new SqlQuery(HSQL_DB_COLUMNS_MAPPINGS + " and child_constraint.table_name=?");
+
+    private static final SqlQuery HSQL_DB_ALL_COLUMNS_MAPPINGS_QUERY = new SqlQuery(HSQL_DB_COLUMNS_MAPPINGS);
 
     private final DefaultColumnOrdersFinder defaultColumnOrdersFinder;
 
@@ -94,12 +61,15 @@ class HsqlDbMetadataFinder implements DatabaseMetadataFinder {
 
     private final DefaultPrimaryKeyColumnsFinder primaryKeyColumnsFinder;
 
+    private final SchemaMetadataFinder schemaMetadataFinder;
+
     HsqlDbMetadataFinder(DataSource dataSource) {
         this.defaultColumnOrdersFinder = new DefaultColumnOrdersFinder(dataSource);
         this.defaultNotNullColumnsFinder = new DefaultNotNullColumnsFinder(dataSource);
-        this.hsqlDbReferencedTablesFinder = new BaseReferencedTablesFinder(dataSource, HSQL_DB_REFERENCED_TABLES_QUERY);
+        this.hsqlDbReferencedTablesFinder = new ForeignKeyGraphReferencedTablesFinder(dataSource, CURRENT_SCHEMA, HSQL_DB_ALL_COLUMNS_MAPPINGS_QUERY);
         this.hsqlDbColumnsMappingsFinder = new BaseColumnsMappingsFinder(dataSource, HSQL_DB_COLUMNS_MAPPINGS_QUERY);
         this.primaryKeyColumnsFinder = new DefaultPrimaryKeyColumnsFinder(dataSource);
+        this.schemaMetadataFinder = new DefaultSchemaMetadataFinder(dataSource, CURRENT_SCHEMA, HSQL_DB_ALL_COLUMNS_MAPPINGS_QUERY);
     }
 
     @Override
@@ -127,4 +97,19 @@ class HsqlDbMetadataFinder implements DatabaseMetadataFinder {
         return primaryKeyColumnsFinder.findPrimaryColumnsOf(tableName);
     }
 
+    @Override
+    public SchemaMetadata findSchemaMetadata() {
+        return schemaMetadataFinder.findSchemaMetadata();
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames) {
+        return schemaMetadataFinder.findSchemaMetadataOf(tableNames);
+    }
+
+    @Override
+    public SchemaFingerprint findSchemaFingerprint() {
+        return schemaMetadataFinder.findSchemaFingerprint();
+    }
+
 }
@@ -19,49 +19,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-class MSSQLServerMetadataFinder implements DatabaseMetadataFinder {
-
-    private static final SqlQuery MS_SQL_SERVER_REFERENCED_TABLES_QUERY = new SqlQuery(
-            "with\n" +
-                    "    parent_child_tree as\n" +
-                    "    (\n" +
-                    "    select distinct\n" +
-                    "           child.table_name    as table_name,\n" +
-                    "           parent.table_name   as ref_table_name,\n" +
-                    "           1 as level\n" +
-                    "    from information_schema.referential_constraints rco\n" +
-                    "    join information_schema.table_constraints child\n" +
-                    "            on rco.constraint_name = child.constraint_name\n" +
-                    "            and rco.constraint_schema = child.table_schema\n" +
-                    "    join information_schema.table_constraints parent\n" +
-                    "            on rco.unique_constraint_name = parent.constraint_name\n" +
-                    "            and rco.unique_constraint_schema = parent.table_schema\n" +
-                    "    where child.table_name != parent.table_name\n" +
-                    "        and child.table_name=?\n" +
-                    "    UNION ALL\n" +
-                    "    select pc.table_name, pc.ref_table_name, pct.level + 1 as level\n" +
-                    "    from\n" +
-                    "        (\n" +
-                    "        select \n" +
-                    "               child.table_name    as table_name,\n" +
-                    "               parent.table_name   as ref_table_name,\n" +
-                    "               1 as level\n" +
-                    "        from information_schema.referential_constraints rco\n" +
-                    "        join information_schema.table_constraints child\n" +
-                    "                on rco.constraint_name = child.constraint_name\n" +
-                    "                and rco.constraint_schema = child.table_schema\n" +
-                    "        join information_schema.table_constraints parent\n" +
-                    "                on rco.unique_constraint_name = parent.constraint_name\n" +
-                    "                and rco.unique_constraint_schema = parent.table_schema\n" +
-                    "        where child.table_name != parent.table_name\n" +
-                    "        ) pc\n" +
-                    "    join parent_child_tree pct on (pc.table_name = pct.ref_table_name)\n" +
-                    "    )\n" +
-                    "select distinct *\n" +
-                    "from parent_child_tree\n" +
-                    "order by level desc");
-
-    private static final SqlQuery MS_SQL_SERVER_COLUMNS_MAPPINGS_QUERY = new SqlQuery(
+class MSSQLServerMetadataFinder implements DatabaseMetadataFinder, SchemaMetadataFinder {
+
+    private static final String CURRENT_SCHEMA = "schema_name()";
+
+    private static final String MS_SQL_SERVER_COLUMNS_MAPPINGS =
             "select\n" +
                     "       child_constraint.table_schema    as table_schema,\n" +
                     "       child_constraint.table_name      as table_name,\n" +
@@ -84,7 +46,11 @@ class MSSQLServerMetadataFinder implements DatabaseMetadataFinder {
                     "       on (parent_cons_cols.constraint_schema = ref.unique_constraint_schema\n" +
                     "           and\n" +
                     "           parent_cons_cols.constraint_name = ref.unique_constraint_name)\n" +
-                    "where child_constraint.constraint_type = 'FOREIGN KEY' and child_constraint.table_name=?");
+                    "where child_constraint.constraint_type = 'FOREIGN KEY'";
+
+    private static final SqlQuery MS_SQL_SERVER_COLUMNS_MAPPINGS_QUERY = new SqlQuery(MS_SQL_SERVER_COLUMNS_MAPPINGS + " and child_constraint.table_name=?");
+
+    private static final SqlQuery MS_SQL_SERVER_ALL_COLUMNS_MAPPINGS_QUERY = new SqlQuery(MS_SQL_SERVER_COLUMNS_MAPPINGS);
 
     private final DefaultColumnOrdersFinder defaultColumnOrdersFinder;
 
@@ -94,11 +60,18 @@ class MSSQLServerMetadataFinder implements DatabaseMetadataFinder {
 
     private final ColumnsMappingsFinder mssqlServerColumnsMappingsFinder;
 
+    private final SchemaMetadataFinder schemaMetadataFinder;
+
     MSSQLServerMetadataFinder(DataSource dataSource) {
         this.defaultColumnOrdersFinder = new DefaultColumnOrdersFinder(dataSource);
         this.defaultNotNullColumnsFinder = new DefaultNotNullColumnsFinder(dataSource);
-        this.mssqlServerReferencedTablesFinder = new BaseReferencedTablesFinder(dataSource, MS_SQL_SERVER_REFERENCED_TABLES_QUERY);
+        this.mssqlServerReferencedTablesFinder = new ForeignKeyGraphReferencedTablesFinder(dataSource, CURRENT_SCHEMA, MS_SQL_SERVER_ALL_COLUMNS_MAPPINGS_QUERY);
         this.mssqlServerColumnsMappingsFinder = new BaseColumnsMappingsFinder(dataSource, MS_SQL_SERVER_COLUMNS_MAPPINGS_QUERY);
+        this.schemaMetadataFinder = new BaseSchemaMetadataFinder(dataSource
+                                                               , CURRENT_SCHEMA
+                                                               , DefaultSchemaMetadataFinder.ALL_COLUMNS_QUERY
+                                                               , MS_SQL_SERVER_ALL_COLUMNS_MAPPINGS_QUERY)
+                                        .withHashExpressionPattern("cast(checksum(%s) as bigint)");
     }
 
     @Override
@@ -126,4 +99,19 @@ class MSSQLServerMetadataFinder implements DatabaseMetadataFinder {
         return Collections.emptyList();
     }
 
+    @Override
+    public SchemaMetadata findSchemaMetadata() {
+        return schemaMetadataFinder.findSchemaMetadata();
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames) {
+        return schemaMetadataFinder.findSchemaMetadataOf(tableNames);
+    }
+
+    @Override
+    public SchemaFingerprint findSchemaFingerprint() {
+        return schemaMetadataFinder.findSchemaFingerprint();
+    }
+
 }
@@ -19,10 +19,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-class MariaDBMySQLMetadataFinder implements DatabaseMetadataFinder {
+class MariaDBMySQLMetadataFinder implements DatabaseMetadataFinder, SchemaMetadataFinder {
 
-    private static final SqlQuery MARIA_DB_MY_SQL_COLUMNS_MAPPINGS_QUERY
-            = new SqlQuery("select\n" +
+    private static final String CURRENT_SCHEMA = "database()";
+
+    private static final String MARIA_DB_MY_SQL_COLUMNS_MAPPINGS = "select\n" +
             "       child_constraint.table_schema            as table_schema,\n" +
             "       child_constraint.table_name              as table_name,\n" +
             "       child_cons_cols.column_name              as column_name,\n" +
@@ -38,24 +39,35 @@ class MariaDBMySQLMetadataFinder implements DatabaseMetadataFinder {
             "           child_constraint.table_schema = child_cons_cols.table_schema\n" +
             "           and\n" +
             "           child_constraint.table_name = child_cons_cols.table_name)\n" +
-            "where child_constraint.constraint_type = 'FOREIGN KEY' and child_constraint.table_name=?");
+            "where child_constraint.constraint_type = 'FOREIGN KEY'";
+
+    private static final SqlQuery MARIA_DB_MY_SQL_COLUMNS_MAPPINGS_QUERY = new SqlQuery(MARIA_DB_MY_SQL_COLUMNS_MAPPINGS + " and child_constraint.table_name=?");
+
+    private static final SqlQuery MARIA_DB_MY_SQL_ALL_COLUMNS_MAPPINGS_QUERY = new SqlQuery(MARIA_DB_MY_SQL_COLUMNS_MAPPINGS);
 
     private final DefaultColumnOrdersFinder defaultColumnOrdersFinder;
 
     private final NotNullColumnsFinder defaultNotNullColumnsFinder;
 
-    private final PostgreSqlMariaDbReferencedTablesFinder postgreSqlMariaDbReferencedTablesFinder;
+    private final ReferencedTablesFinder referencedTablesFinder;
 
     private final BaseColumnsMappingsFinder mariaDbMySqlColumnsMappingsFinder;
 
     private final PrimaryKeyColumnsFinder primaryKeyColumnsFinder;
 
+    private final SchemaMetadataFinder schemaMetadataFinder;
+
     MariaDBMySQLMetadataFinder(DataSource dataSource) {
         this.defaultColumnOrdersFinder = new DefaultColumnOrdersFinder(dataSource);
         this.defaultNotNullColumnsFinder = new DefaultNotNullColumnsFinder(dataSource);
-        this.postgreSqlMariaDbReferencedTablesFinder = new PostgreSqlMariaDbReferencedTablesFinder(dataSource);
+        this.referencedTablesFinder = new ForeignKeyGraphReferencedTablesFinder(dataSource, CURRENT_SCHEMA, MARIA_DB_MY_SQL_ALL_COLUMNS_MAPPINGS_QUERY);
         this.mariaDbMySqlColumnsMappingsFinder = new BaseColumnsMappingsFinder(dataSource, MARIA_DB_MY_SQL_COLUMNS_MAPPINGS_QUERY);
         this.primaryKeyColumnsFinder = new DefaultPrimaryKeyColumnsFinder(dataSource);
+        this.schemaMetadataFinder = new BaseSchemaMetadataFinder(dataSource
+                                                               , CURRENT_SCHEMA
+                                                               , DefaultSchemaMetadataFinder.ALL_COLUMNS_QUERY
+                                                               , MARIA_DB_MY_SQL_ALL_COLUMNS_MAPPINGS_QUERY)
+                                        .withHashExpressionPattern("crc32(%s)");
     }
 
     @Override
@@ -70,7 +82,7 @@ class MariaDBMySQLMetadataFinder implements DatabaseMetadataFinder {
 
     @Override
     public ReferencedTableSet findReferencedTablesOf(String tableName) {
-        return postgreSqlMariaDbReferencedTablesFinder.findReferencedTablesOf(tableName);
+        return referencedTablesFinder.findReferencedTablesOf(tableName);
     }
 
     @Override
@@ -83,4 +95,19 @@ class MariaDBMySQLMetadataFinder implements DatabaseMetadataFinder {
         return Collections.emptyList();
     }
 
+    @Override
+    public SchemaMetadata findSchemaMetadata() {
+        return schemaMetadataFinder.findSchemaMetadata();
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames) {
+        return schemaMetadataFinder.findSchemaMetadataOf(tableNames);
+    }
+
+    @Override
+    public SchemaFingerprint findSchemaFingerprint() {
+        return schemaMetadataFinder.findSchemaFingerprint();
+    }
+
 }
@@ -19,7 +19,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.function.Function;
 
-public class OracleMetadataFinder implements DatabaseMetadataFinder {
+public class OracleMetadataFinder implements DatabaseMetadataFinder, SchemaMetadataFinder {
+
+    private static final String CURRENT_SCHEMA = "sys_context('USERENV', 'CURRENT_SCHEMA')";
 
     private static final SqlQuery COLUMNS_ORDER_QUERY = new SqlQuery(
             "select owner        as table_schema," +
@@ -40,30 +42,6 @@ public class OracleMetadataFinder implements DatabaseMetadataFinder {
                     " and nullable = 'N'"
     );
 
-    private static final SqlQuery REFERENCED_TABLES_QUERY = new SqlQuery(
-            "select\n" +
-                    "       table_name,\n" +
-                    "       ref_table_name,\n" +
-                    "       level\n" +
-                    "  from\n" +
-                    "       (\n" +
-                    "        select\n" +
-                    "              c.owner           as table_schema,\n" +
-                    "              c.table_name,\n" +
-                    "              c.r_owner         as ref_table_schema,\n" +
-                    "              ref_c.table_name  as ref_table_name\n" +
-                    "          from\n" +
-                    "              all_constraints c\n" +
-                    "              inner join all_constraints ref_c on ref_c.constraint_name = c.r_constraint_name\n" +
-                    "        where\n" +
-                    "              c.constraint_type = 'R'\n" +
-                    "          and c.table_name != ref_c.table_name\n" +
-                    "       )\n" +
-                    "  start with table_name = ?\n" +
-                    "  connect by table_name = prior ref_table_name\n" +
-                    "order by level desc"
-    );
-
     private static final SqlQuery COLUMNS_MAPPING_QUERY = new SqlQuery(
             "select\n" +
                     "       c.owner              as table_schema,\n" +
@@ -98,6 +76,45 @@ public class OracleMetadataFinder implements DatabaseMetadataFinder {
                     "   and c.constraint_type = 'P'\n" +
                     "   order by position");
 
+    private static final SqlQuery ALL_COLUMNS_QUERY = new SqlQuery(
+            "select owner        as table_schema," +
+                    "       table_name   as table_name," +
+                    "       column_name  as column_name," +
+                    "       column_id    as position," +
+                    "       nullable     as is_nullable" +
+                    " from all_tab_columns"
+    );
+
+    private static final SqlQuery ALL_COLUMNS_MAPPINGS_QUERY = new SqlQuery(
+            "select\n" +
+                    "       c.owner              as table_schema,\n" +
+                    "       c.table_name,\n" +
+                    "       col.column_name,\n" +
+                    "       c.r_owner            as ref_table_schema,\n" +
+                    "       ref_col.table_name   as ref_table_name,\n" +
+                    "       ref_col.column_name  as ref_column_name\n" +
+                    "  from\n" +
+                    "       all_constraints c\n" +
+                    "       inner join all_cons_columns col on col.owner = c.owner\n" +
+                    "                                       and col.constraint_name = c.constraint_name\n" +
+                    "       inner join all_cons_columns ref_col on ref_col.owner = c.r_owner\n" +
+                    "                                           and ref_col.constraint_name = c.r_constraint_name\n" +
+                    "                                           and ref_col.position = col.position\n" +
+                    " where c.constraint_type = 'R'");
+
+    private static final SqlQuery ALL_PRIMARY_KEY_QUERY = new SqlQuery(
+            "select\n" +
+                    "       c.owner as table_schema,\n" +
+                    "       c.table_name,\n" +
+                    "       c.constraint_name,\n" +
+                    "       col.column_name,\n" +
+                    "       col.position\n" +
+                    "  from\n" +
+                    "       all_constraints c\n" +
+                    "       inner join all_cons_columns col on col.owner = c.owner\n" +
+                    "                                      and col.constraint_name = c.constraint_name\n" +
+                    " where c.constraint_type = 'P'");
+
     private final BaseColumnOrdersFinder columnOrdersFinder;
 
     private final NotNullColumnsFinder notNullColumnsFinder;
@@ -108,6 +125,8 @@ public class OracleMetadataFinder implements DatabaseMetadataFinder {
 
     private final PrimaryKeyColumnsFinder primaryKeyColumnsFinder;
 
+    private final SchemaMetadataFinder schemaMetadataFinder;
+
     @Override
     public Function<String, String> getFunctionToHaveMetadataTableName() {
         return tableName -> tableName.toUpperCase();
@@ -116,9 +135,15 @@ public class OracleMetadataFinder implements DatabaseMetadataFinder {
     OracleMetadataFinder(DataSource dataSource) {
         columnOrdersFinder = new BaseColumnOrdersFinder(dataSource, COLUMNS_ORDER_QUERY);
         notNullColumnsFinder = new BaseNotNullColumnsFinder(dataSource, NOT_NULL_COLUMNS_QUERY);
-        referencedTablesFinder = new BaseReferencedTablesFinder(dataSource, REFERENCED_TABLES_QUERY);
+        referencedTablesFinder = new ForeignKeyGraphReferencedTablesFinder(dataSource, CURRENT_SCHEMA, ALL_COLUMNS_MAPPINGS_QUERY);
         columnsMappingsFinder = new BaseColumnsMappingsFinder(dataSource, COLUMNS_MAPPING_QUERY);
         primaryKeyColumnsFinder = new BasePrimaryKeyColumnsFinder(dataSource, PRIMARY_KEY_QUERY);
+        schemaMetadataFinder = new BaseSchemaMetadataFinder(dataSource
+                                                          , CURRENT_SCHEMA
+                                                          , ALL_COLUMNS_QUERY
+                                                          , ALL_COLUMNS_MAPPINGS_QUERY
+                                                          , ALL_PRIMARY_KEY_QUERY)
+                                   .withHashExpressionPattern("ora_hash(%s)");
     }
 
     @Override
@@ -146,4 +171,19 @@ public class OracleMetadataFinder implements DatabaseMetadataFinder {
         return referencedTablesFinder.findReferencedTablesOf(tableName);
     }
 
+    @Override
+    public SchemaMetadata findSchemaMetadata() {
+        return schemaMetadataFinder.findSchemaMetadata();
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames) {
+        return schemaMetadataFinder.findSchemaMetadataOf(tableNames);
+    }
+
+    @Override
+    public SchemaFingerprint findSchemaFingerprint() {
+        return schemaMetadataFinder.findSchemaFingerprint();
+    }
+
 }
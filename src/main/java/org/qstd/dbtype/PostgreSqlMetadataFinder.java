@@ -18,9 +18,11 @@ import javax.sql.DataSource;
 import java.util.Collection;
 import java.util.List;
 
-class PostgreSqlMetadataFinder implements DatabaseMetadataFinder {
+class PostgreSqlMetadataFinder implements DatabaseMetadataFinder, SchemaMetadataFinder {
 
-    private static final SqlQuery POSTGRE_SQL_COLUMNS_MAPPINGS_QUERY = new SqlQuery("select\n" +
+    private static final String CURRENT_SCHEMA = "current_schema()";
+
+    private static final String POSTGRE_SQL_COLUMNS_MAPPINGS = "select\n" +
             "       tc.table_schema     as table_schema,\n" +
             "       tc.table_name       as table_name,\n" +
             "       kcu.column_name     as column_name,\n" +
@@ -32,24 +34,32 @@ class PostgreSqlMetadataFinder implements DatabaseMetadataFinder {
             "       using (constraint_schema, constraint_name, table_schema)\n" +
             "  join information_schema.constraint_column_usage as ccu\n" +
             "       using (constraint_schema, constraint_name, table_schema)\n" +
-            "where tc.constraint_type = 'FOREIGN KEY' and tc.table_name=?");
+            "where tc.constraint_type = 'FOREIGN KEY'";
+
+    private static final SqlQuery POSTGRE_SQL_COLUMNS_MAPPINGS_QUERY = new SqlQuery(POSTGRE_SQL_COLUMNS_MAPPINGS + " and tc.table_name=?");
+
+    private static final SqlQuery POSTGRE_SQL_ALL_COLUMNS_MAPPINGS_QUERY = new SqlQuery(POSTGRE_SQL_COLUMNS_MAPPINGS);
 
     private final DefaultColumnOrdersFinder defaultColumnOrdersFinder;
 
     private final NotNullColumnsFinder defaultNotNullColumnsFinder;
 
-    private final PostgreSqlMariaDbReferencedTablesFinder postgreSqlMariaDbReferencedTablesFinder;
+    private final ReferencedTablesFinder referencedTablesFinder;
 
     private final ColumnsMappingsFinder postgreSqlColumnsMappingsFinder;
 
     private final PrimaryKeyColumnsFinder primaryKeyColumnsFinder;
 
+    private final SchemaMetadataFinder schemaMetadataFinder;
+
     PostgreSqlMetadataFinder(DataSource dataSource) {
         this.defaultColumnOrdersFinder = new DefaultColumnOrdersFinder(dataSource);
         this.defaultNotNullColumnsFinder = new DefaultNotNullColumnsFinder(dataSource);
-        this.postgreSqlMariaDbReferencedTablesFinder = new PostgreSqlMariaDbReferencedTablesFinder(dataSource);
+        this.referencedTablesFinder = new ForeignKeyGraphReferencedTablesFinder(dataSource, CURRENT_SCHEMA, POSTGRE_SQL_ALL_COLUMNS_MAPPINGS_QUERY);
         this.postgreSqlColumnsMappingsFinder = new BaseColumnsMappingsFinder(dataSource, POSTGRE_SQL_COLUMNS_MAPPINGS_QUERY);
         this.primaryKeyColumnsFinder = new DefaultPrimaryKeyColumnsFinder(dataSource);
+        this.schemaMetadataFinder = new DefaultSchemaMetadataFinder(dataSource, CURRENT_SCHEMA, POSTGRE_SQL_ALL_COLUMNS_MAPPINGS_QUERY)
+                                          .withHashExpressionPattern("hashtext(%s)");
     }
 
     @Override
@@ -64,7 +74,7 @@ class PostgreSqlMetadataFinder implements DatabaseMetadataFinder {
 
     @Override
     public ReferencedTableSet findReferencedTablesOf(String tableName) {
-        return postgreSqlMariaDbReferencedTablesFinder.findReferencedTablesOf(tableName);
+        return referencedTablesFinder.findReferencedTablesOf(tableName);
     }
 
     @Override
@@ -77,4 +87,19 @@ class PostgreSqlMetadataFinder implements DatabaseMetadataFinder {
         return primaryKeyColumnsFinder.findPrimaryColumnsOf(tableName);
     }
 
+    @Override
+    public SchemaMetadata findSchemaMetadata() {
+        return schemaMetadataFinder.findSchemaMetadata();
+    }
+
+    @Override
+    public SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames) {
+        return schemaMetadataFinder.findSchemaMetadataOf(tableNames);
+    }
+
+    @Override
+    public SchemaFingerprint findSchemaFingerprint() {
+        return schemaMetadataFinder.findSchemaFingerprint();
+    }
+
 }
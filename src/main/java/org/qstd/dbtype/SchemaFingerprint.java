@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.dbtype;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+class SchemaFingerprint {
+
+    private final String dbUrl;
+
+    private final String schemaName;
+
+    private final String checksum;
+
+    SchemaFingerprint(String dbUrl, String schemaName, String checksum) {
+        this.dbUrl = dbUrl;
+        this.schemaName = schemaName;
+        this.checksum = checksum;
+    }
+
+    String getDbUrl() {
+        return dbUrl;
+    }
+
+    String getSchemaName() {
+        return schemaName;
+    }
+
+    String getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Builds a file name from the database URL and the schema name
+     */
+    String buildFileName() {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] digest = messageDigest.digest((dbUrl + "|" + schemaName).getBytes(StandardCharsets.UTF_8));
+            StringBuilder fileName = new StringBuilder();
+            for (byte digestByte : digest) {
+                fileName.append(String.format("%02x", digestByte));
+            }
+            return fileName.append(".metadata").toString();
+        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw new IllegalStateException(noSuchAlgorithmException);
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.dbtype;
+
+import org.qstd.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+
+class SchemaMetadata implements DatabaseMetadataFinder {
+
+    private final Set<String> tableNames = new LinkedHashSet<>();
+
+    private final Map<String, List<String>> columnOrdersByTableName = new HashMap<>();
+
+    private final Map<String, List<String>> notNullColumnsByTableName = new HashMap<>();
+
+    private final Map<String, List<String>> primaryKeyColumnsByTableName = new HashMap<>();
+
+    private final Map<String, List<ForeignKeyColumn>> foreignKeyColumnsByTableName = new HashMap<>();
+
+    private ForeignKeyGraph foreignKeyGraph;
+
+    void addTable(String tableName) {
+        tableNames.add(tableName);
+    }
+
+    void addColumn(String tableName, String columnName, boolean notNull) {
+        columnOrdersByTableName.computeIfAbsent(tableName, t -> new ArrayList<>())
+                               .add(columnName);
+        if (notNull) {
+            notNullColumnsByTableName.computeIfAbsent(tableName, t -> new ArrayList<>())
+                                     .add(columnName);
+        }
+    }
+
+    void addPrimaryKeyColumn(String tableName, String columnName) {
+        primaryKeyColumnsByTableName.computeIfAbsent(tableName, t -> new ArrayList<>())
+                                    .add(columnName);
+    }
+
+    synchronized void addForeignKeyColumn(ForeignKeyColumn foreignKeyColumn) {
+        foreignKeyGraph = null;
+        foreignKeyColumnsByTableName.computeIfAbsent(foreignKeyColumn.tableName, t -> new ArrayList<>())
+                                    .add(foreignKeyColumn);
+    }
+
+    Set<String> getTableNames() {
+        return tableNames;
+    }
+
+    @Override
+    public List<String> findDatabaseColumnOrdersOf(String tableName) {
+        return columnOrdersByTableName.getOrDefault(tableName, emptyList());
+    }
+
+    @Override
+    public Collection<String> findNotNullColumnsOf(String tableName) {
+        return notNullColumnsByTableName.getOrDefault(tableName, emptyList());
+    }
+
+    @Override
+    public List<String> findPrimaryColumnsOf(String tableName) {
+        return primaryKeyColumnsByTableName.getOrDefault(tableName, emptyList());
+    }
+
+    @Override
+    public ColumnsMappingGroup findColumnsMappingsOf(String tableName) {
+        List<ColumnsMapping> columnsMappings =
+                 foreignKeyColumnsByTableName.getOrDefault(tableName, emptyList())
+                .stream()
+                .map(ForeignKeyColumn::toColumnsMapping)
+                .collect(toList());
+        return new ColumnsMappingGroup(columnsMappings);
+    }
+
+    @Override
+    public synchronized ReferencedTableSet findReferencedTablesOf(String tableName) {
+        if (foreignKeyGraph == null) {
+            foreignKeyGraph = buildForeignKeyGraph();
+        }
+        return foreignKeyGraph.findReferencedTablesOf(tableName);
+    }
+
+    private ForeignKeyGraph buildForeignKeyGraph() {
+        ForeignKeyGraph graph = new ForeignKeyGraph();
+        for (List<ForeignKeyColumn> foreignKeyColumns : foreignKeyColumnsByTableName.values()) {
+            for (ForeignKeyColumn foreignKeyColumn : foreignKeyColumns) {
+                graph.addForeignKey(foreignKeyColumn.tableName, foreignKeyColumn.referencedTableName);
+            }
+        }
+        return graph;
+    }
+
+    void writeTo(DataOutput output) throws IOException {
+        output.writeInt(tableNames.size());
+        for (String tableName : tableNames) {
+            output.writeUTF(tableName);
+            Collection<String> notNullColumns = findNotNullColumnsOf(tableName);
+            List<String> columnOrders = findDatabaseColumnOrdersOf(tableName);
+            output.writeInt(columnOrders.size());
+            for (String columnName : columnOrders) {
+                output.writeUTF(columnName);
+                output.writeBoolean(notNullColumns.contains(columnName));
+            }
+            writeStrings(output, findPrimaryColumnsOf(tableName));
+        }
+        List<ForeignKeyColumn> foreignKeyColumns = foreignKeyColumnsByTableName.values()
+                                                                               .stream()
+                                                                               .flatMap(Collection::stream)
+                                                                               .collect(toList());
+        output.writeInt(foreignKeyColumns.size());
+        for (ForeignKeyColumn foreignKeyColumn : foreignKeyColumns) {
+            writeNullableString(output, foreignKeyColumn.tableSchema);
+            writeNullableString(output, foreignKeyColumn.tableName);
+            writeNullableString(output, foreignKeyColumn.columnName);
+            writeNullableString(output, foreignKeyColumn.referencedTableSchema);
+            writeNullableString(output, foreignKeyColumn.referencedTableName);
+            writeNullableString(output, foreignKeyColumn.referencedColumnName);
+        }
+    }
+
+    static SchemaMetadata readFrom(DataInput input) throws IOException {
+        SchemaMetadata schemaMetadata = new SchemaMetadata();
+        int tableCount = input.readInt();
+        for (int tableIndex = 0; tableIndex < tableCount; tableIndex++) {
+            String tableName = input.readUTF();
+            schemaMetadata.addTable(tableName);
+            int columnCount = input.readInt();
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                String columnName = input.readUTF();
+                boolean notNull = input.readBoolean();
+                schemaMetadata.addColumn(tableName, columnName, notNull);
+            }
+            for (String primaryKeyColumn : readStrings(input)) {
+                schemaMetadata.addPrimaryKeyColumn(tableName, primaryKeyColumn);
+            }
+        }
+        int foreignKeyColumnCount = input.readInt();
+        for (int i = 0; i < foreignKeyColumnCount; i++) {
+            ForeignKeyColumn foreignKeyColumn = new ForeignKeyColumn(readNullableString(input), readNullableString(input)
+                                                                   , readNullableString(input), readNullableString(input)
+                                                                   , readNullableString(input), readNullableString(input));
+            schemaMetadata.addForeignKeyColumn(foreignKeyColumn);
+        }
+        return schemaMetadata;
+    }
+
+    private static void writeStrings(DataOutput output, List<String> strings) throws IOException {
+        output.writeInt(strings.size());
+        for (String string : strings) {
+            output.writeUTF(string);
+        }
+    }
+
+    private static List<String> readStrings(DataInput input) throws IOException {
+        int stringCount = input.readInt();
+        List<String> strings = new ArrayList<>(stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            strings.add(input.readUTF());
+        }
+        return strings;
+    }
+
+    private static void writeNullableString(DataOutput output, String string) throws IOException {
+        output.writeBoolean(string != null);
+        if (string != null) {
+            output.writeUTF(string);
+        }
+    }
+
+    private static String readNullableString(DataInput input) throws IOException {
+        boolean notNull = input.readBoolean();
+        return notNull ? input.readUTF() : null;
+    }
+
+    static class ForeignKeyColumn {
+
+        final String tableSchema;
+        final String tableName;
+        final String columnName;
+        final String referencedTableSchema;
+        final String referencedTableName;
+        final String referencedColumnName;
+
+        ForeignKeyColumn(String tableSchema, String tableName, String columnName
+                       , String referencedTableSchema, String referencedTableName, String referencedColumnName) {
+            this.tableSchema = tableSchema;
+            this.tableName = tableName;
+            this.columnName = columnName;
+            this.referencedTableSchema = referencedTableSchema;
+            this.referencedTableName = referencedTableName;
+            this.referencedColumnName = referencedColumnName;
+        }
+
+        ColumnsMapping toColumnsMapping() {
+            ColumnMappingPart columnMappingPart1 = new ColumnMappingPart(tableSchema, tableName, columnName);
+            ColumnMappingPart columnMappingPart2 = new ColumnMappingPart(referencedTableSchema, referencedTableName, referencedColumnName);
+            return new ColumnsMapping(columnMappingPart1, columnMappingPart2);
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.dbtype;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Stores schema metadata in files of a directory, one file by database URL and schema.
+ * A file is ignored if its schema fingerprint differs from the current one.
+ */
+class SchemaMetadataFileCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path cacheDirectory;
+
+    SchemaMetadataFileCache(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    Optional<SchemaMetadata> read(SchemaFingerprint schemaFingerprint) {
+        Path cacheFile = cacheDirectory.resolve(schemaFingerprint.buildFileName());
+        if (!Files.isRegularFile(cacheFile)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            boolean sameFingerprint = input.readInt() == FORMAT_VERSION
+                                   && input.readUTF().equals(schemaFingerprint.getDbUrl())
+                                   && input.readUTF().equals(schemaFingerprint.getSchemaName())
+                                   && input.readUTF().equals(schemaFingerprint.getChecksum());
+            if (!sameFingerprint) {
+                return Optional.empty();
+            }
+            return Optional.of(SchemaMetadata.readFrom(input));
+        } catch (IOException ioException) {
+            System.err.println("Unable to read " + cacheFile);
+            ioException.printStackTrace();
+            return Optional.empty();
+        }
+    }
+
+    void write(SchemaFingerprint schemaFingerprint, SchemaMetadata schemaMetadata) {
+        Path cacheFile = cacheDirectory.resolve(schemaFingerprint.buildFileName());
+        try {
+            Files.createDirectories(cacheDirectory);
+            // The file is written then moved so that another process never reads a partial file
+            Path temporaryFile = Files.createTempFile(cacheDirectory, schemaFingerprint.buildFileName(), ".tmp");
+            try {
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                    output.writeInt(FORMAT_VERSION);
+                    output.writeUTF(schemaFingerprint.getDbUrl());
+                    output.writeUTF(schemaFingerprint.getSchemaName());
+                    output.writeUTF(schemaFingerprint.getChecksum());
+                    schemaMetadata.writeTo(output);
+                }
+                Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException ioException) {
+            System.err.println("Unable to write " + cacheFile);
+            ioException.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.dbtype;
+
+import java.util.Collection;
+
+/**
+ * Interface describing the retrieval of the metadata of several tables with one query per metadata kind.
+ */
+interface SchemaMetadataFinder {
+
+    /**
+     * Finds the metadata of all the tables of the current schema
+     * @return The schema metadata
+     * @throws IllegalStateException If a metadata query fails
+     */
+    SchemaMetadata findSchemaMetadata();
+
+    /**
+     * Finds the metadata of the given tables of the current schema, with the foreign keys
+     * of the tables they reference. The tables missing from the current schema are not in the metadata.
+     * @param tableNames Table names, as stored in database metadata
+     * @return The metadata of the tables
+     * @throws IllegalStateException If a metadata query fails
+     */
+    SchemaMetadata findSchemaMetadataOf(Collection<String> tableNames);
+
+    /**
+     * Finds a fingerprint of the current schema, changing when tables, columns or constraints are added,
+     * removed or renamed, when a not null constraint moves or when a foreign key references another column
+     * @return The schema fingerprint
+     * @throws IllegalStateException If a metadata query fails
+     */
+    SchemaFingerprint findSchemaFingerprint();
+
+}
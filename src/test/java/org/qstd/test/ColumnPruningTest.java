@@ -0,0 +1,212 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.qstd.QuickSqlTestData;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.qstd.test.TestTable.TestTableAssert.assertThat;
+import static org.qstd.test.TestTable.buildUniqueTable;
+
+public class ColumnPruningTest extends H2Config {
+
+    private TestTable teamTable;
+
+    private TestTable playerTable;
+
+    private String playerTableConstraint;
+
+    @BeforeEach
+    public void create_tables() {
+        teamTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Team"
+                                , "id bigint not null"
+                                + ", name varchar(255)"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .insertValues("1, 'Manchester United'");
+
+        playerTableConstraint = "add constraint player_team_fk" + generateRandomPositiveInt()
+                              + " foreign key (team_id)"
+                              + " references " + teamTable.getTableName();
+        playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "id bigint not null"
+                                + ", firstName varchar(255)"
+                                + ", lastName varchar(255)"
+                                + ", position varchar(255) not null"
+                                + ", biography clob"
+                                + ", team_id bigint"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .alter(playerTableConstraint)
+                .insertValues("1, 'Paul', 'Pogba', 'Midfielder', 'A long biography', 1")
+                .insertValues("2, 'Antoine', 'Griezmann', 'Forward', 'Another long biography', 1");
+    }
+
+    @Test public void
+    should_select_only_the_needed_columns_of_a_deleted_row() {
+
+        // GIVEN
+        String deleteQuery = "DELETE FROM " + playerTable.getTableName()
+                           + " WHERE lastName = 'Pogba'";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withColumnPruning();
+        String insertScript = quickSqlTestData.generateInsertScriptFor(deleteQuery);
+
+        // THEN
+        assertThat(insertScript).contains("(ID, LASTNAME, POSITION, TEAM_ID) VALUES(1, 'Pogba', 'Midfielder', 1)")
+                                .doesNotContain("biography");
+        recreateTables();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(playerTable).withScript(insertScript)
+                               .hasNumberOfRows(1);
+        assertThat(teamTable).withScript(insertScript)
+                             .hasNumberOfRows(1);
+
+    }
+
+    @Test public void
+    should_select_only_the_needed_columns_of_a_select_of_all_columns() {
+
+        // GIVEN
+        String selectQuery = "SELECT * FROM " + playerTable.getTableName()
+                           + " WHERE firstName = 'Antoine'";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withColumnPruning();
+        String insertScript = quickSqlTestData.generateInsertScriptFor(selectQuery);
+
+        // THEN
+        assertThat(insertScript).contains("(ID, FIRSTNAME, POSITION, TEAM_ID) VALUES(2, 'Antoine', 'Forward', 1)")
+                                .doesNotContain("biography");
+        recreateTables();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(playerTable).withScript(insertScript)
+                               .hasNumberOfRows(1);
+
+    }
+
+    @Test public void
+    should_select_the_columns_of_a_parenthesized_or_condition_of_a_deleted_row() {
+
+        // GIVEN
+        String deleteQuery = "DELETE FROM " + playerTable.getTableName()
+                           + " WHERE (lastName = 'Pogba' OR firstName = 'x')";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withColumnPruning();
+        String insertScript = quickSqlTestData.generateInsertScriptFor(deleteQuery);
+
+        // THEN
+        assertThat(insertScript).contains("(ID, FIRSTNAME, LASTNAME, POSITION, TEAM_ID) VALUES(1, 'Paul', 'Pogba', 'Midfielder', 1)")
+                                .doesNotContain("biography");
+
+    }
+
+    @Test public void
+    should_select_the_columns_of_in_conditions() {
+
+        // GIVEN
+        String selectQuery = "SELECT * FROM " + playerTable.getTableName()
+                           + " WHERE NOT (firstName IN ('Antoine') OR lastName IN ('Griezmann'))";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withColumnPruning();
+        String insertScript = quickSqlTestData.generateInsertScriptFor(selectQuery);
+
+        // THEN
+        assertThat(insertScript).contains("(ID, FIRSTNAME, LASTNAME, POSITION, TEAM_ID) VALUES(1, 'Paul', 'Pogba', 'Midfielder', 1)")
+                                .doesNotContain("biography");
+
+    }
+
+    @Test public void
+    should_select_the_columns_of_a_between_condition() {
+
+        // GIVEN
+        String selectQuery = "SELECT * FROM " + playerTable.getTableName()
+                           + " WHERE (lastName BETWEEN 'A' AND 'H' AND firstName <> 'x')";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withColumnPruning();
+        String insertScript = quickSqlTestData.generateInsertScriptFor(selectQuery);
+
+        // THEN
+        assertThat(insertScript).contains("(ID, FIRSTNAME, LASTNAME, POSITION, TEAM_ID) VALUES(2, 'Antoine', 'Griezmann', 'Forward', 1)")
+                                .doesNotContain("biography");
+
+    }
+
+    @Test public void
+    should_select_the_columns_of_a_function_condition() {
+
+        // GIVEN
+        String deleteQuery = "DELETE FROM " + playerTable.getTableName()
+                           + " WHERE CONCAT(firstName, lastName) = 'PaulPogba'";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withColumnPruning();
+        String insertScript = quickSqlTestData.generateInsertScriptFor(deleteQuery);
+
+        // THEN
+        assertThat(insertScript).contains("(ID, FIRSTNAME, LASTNAME, POSITION, TEAM_ID) VALUES(1, 'Paul', 'Pogba', 'Midfielder', 1)")
+                                .doesNotContain("biography");
+
+    }
+
+    @Test public void
+    should_select_all_the_columns_of_a_deleted_row_with_a_subquery_condition() {
+
+        // GIVEN
+        String deleteQuery = "DELETE FROM " + playerTable.getTableName()
+                           + " WHERE team_id IN (SELECT id FROM " + teamTable.getTableName() + " WHERE name = 'Manchester United')"
+                           + " AND lastName = 'Pogba'";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withColumnPruning();
+        String insertScript = quickSqlTestData.generateInsertScriptFor(deleteQuery);
+
+        // THEN
+        assertThat(insertScript).contains("(ID, FIRSTNAME, LASTNAME, POSITION, BIOGRAPHY, TEAM_ID) VALUES(1, 'Paul', 'Pogba', 'Midfielder', 'A long biography', 1)");
+
+    }
+
+    private void recreateTables() {
+        playerTable.drop();
+        teamTable.recreate();
+        playerTable.create().alter(playerTableConstraint);
+    }
+
+    private int generateRandomPositiveInt() {
+        Random random = new Random();
+        return Math.abs(random.nextInt());
+    }
+
+}
@@ -52,6 +52,42 @@ public class DatasetRowsMergingTest extends H2Config {
 
     }
 
+    @Test public void
+    should_merge_dataset_rows_having_the_same_primary_key() {
+
+        // GIVEN
+        TestTable table =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Table"
+                                          , "id bigint not null"
+                                          + ", col1 varchar(255)"
+                                          + ", col2 varchar(255)"
+                                          + ", primary key (id)"
+                                          )
+                        .create()
+                        .insertValues("1, 'val1_1', 'val1_2'")
+                        .insertValues("2, 'val2_1', 'val2_2'")
+                        .insertValues("3, 'val3_1', 'val3_2'");
+
+        String tableName = table.getTableName();
+        String select1 = "SELECT id, col1 FROM " + tableName;
+        String select2 = "SELECT id, col2 FROM " + tableName + " WHERE id <> 2";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(select1, select2);
+
+        // THEN
+        table.recreate();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(table).withScript(insertScript)
+                         .hasNumberOfRows(3)
+                         .row(0).hasValues(1, "val1_1", "val1_2")
+                         .row(1).hasValues(2, "val2_1", null)
+                         .row(2).hasValues(3, "val3_1", "val3_2");
+
+    }
+
     @Test public void
     should_merge_dataset_rows_in_case_of_joined_rows() {
 
@@ -30,6 +30,14 @@ import org.junit.runner.RunWith;
                  , SortInsertStatementsTest.class
                  , SortInsertStatementsWithPkTest.class
                  , DatasetRowsMergingTest.class
-                 , JdbcRoundtripTest.class} )
+                 , JdbcRoundtripTest.class
+                 , MetadataPreloadingTest.class
+                 , ColumnPruningTest.class
+                 , QueryLimitsTest.class
+                 , SyntheticSchemaTest.class
+                 , JdbcRoundtripBudgetTest.class
+                 , GenerationStatsTest.class
+                 , GenerationListenerTest.class
+                 , OracleLongLiteralTest.class} )
 public class FastTestSuite {
 }
@@ -0,0 +1,237 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.qstd.GenerationListener;
+import org.qstd.GenerationPhase;
+import org.qstd.QuickSqlTestData;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerationListenerTest extends H2Config {
+
+    private TestTable teamTable;
+
+    private TestTable playerTable;
+
+    @BeforeEach
+    public void create_tables() {
+        teamTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Team"
+                                          , "id bigint not null"
+                                          + ", name varchar(255) not null"
+                                          + ", primary key (id)"
+                                          )
+                         .create()
+                         .insertValues("1, 'Manchester United'");
+
+        String playerTableConstraint = "add constraint player_team_fk" + generateRandomPositiveInt()
+                                     + " foreign key (team_id)"
+                                     + " references " + teamTable.getTableName();
+        playerTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Player"
+                                          , "id bigint not null"
+                                          + ", lastName varchar(255)"
+                                          + ", team_id bigint not null"
+                                          + ", primary key (id)"
+                                          )
+                         .create()
+                         .alter(playerTableConstraint)
+                         .insertValues("1, 'Pogba', 1")
+                         .insertValues("2, 'Griezmann', 1");
+    }
+
+    private int generateRandomPositiveInt() {
+        Random random = new Random();
+        return Math.abs(random.nextInt());
+    }
+
+    @Test public void
+    should_notify_the_listener_of_the_executed_queries() {
+
+        // GIVEN
+        RecordingListener listener = new RecordingListener();
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withListener(listener);
+        String playerSelect = "SELECT * FROM " + playerTable.getTableName();
+
+        // WHEN
+        quickSqlTestData.generateInsertScriptFor(playerSelect);
+
+        // THEN
+        assertThat(listener.startedQueries).isNotEmpty()
+                                           .isEqualTo(listener.endedQueries);
+        assertThat(listener.fetchedQueries).hasSize(1);
+        assertThat(listener.fetchedQueries.get(0)).containsIgnoringCase(playerTable.getTableName());
+        assertThat(listener.startedQueries).contains(listener.fetchedQueries.get(0));
+        assertThat(listener.fetchedRowCount).isEqualTo(2);
+        assertThat(listener.borrowedConnectionCount).isEqualTo(1);
+
+    }
+
+    @Test public void
+    should_notify_the_listener_of_the_merged_rows_and_of_the_phases() {
+
+        // GIVEN
+        RecordingListener listener = new RecordingListener();
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withListener(listener);
+        String playerSelect = "SELECT * FROM " + playerTable.getTableName();
+
+        // WHEN
+        quickSqlTestData.generateInsertScriptFor(playerSelect);
+
+        // THEN
+        // The two players reference the same team
+        assertThat(listener.joinedRowCount).isEqualTo(2);
+        assertThat(listener.mergedTableNames).hasSize(1);
+        assertThat(listener.mergedTableNames.get(0)).isEqualToIgnoringCase(teamTable.getTableName());
+        // The not null name of the team
+        assertThat(listener.lookedUpTableNames).hasSize(1);
+        assertThat(listener.lookedUpTableNames.get(0)).isEqualToIgnoringCase(teamTable.getTableName());
+        assertThat(listener.endedPhases).isEqualTo(EnumSet.allOf(GenerationPhase.class));
+
+    }
+
+    @Test public void
+    should_notify_the_listener_of_the_metadata_cache_hits_and_misses() {
+
+        // GIVEN
+        RecordingListener firstGenerationListener = new RecordingListener();
+        RecordingListener listener = new RecordingListener();
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        String playerSelect = "SELECT * FROM " + playerTable.getTableName();
+        quickSqlTestData.withListener(firstGenerationListener)
+                        .generateInsertScriptFor(playerSelect);
+
+        // WHEN
+        quickSqlTestData.withListener(listener)
+                        .generateInsertScriptFor(playerSelect);
+
+        // THEN
+        assertThat(firstGenerationListener.cacheMissCount).isPositive();
+        assertThat(listener.cacheMissCount).isZero();
+        assertThat(listener.cacheHitCount).isPositive();
+        // Only the query retrieving the players and the one retrieving the team are executed
+        assertThat(listener.startedQueries).hasSize(2);
+
+    }
+
+    @Test public void
+    should_not_notify_the_listener_outside_of_a_generation() {
+
+        // GIVEN
+        RecordingListener listener = new RecordingListener();
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withListener(listener);
+        String playerSelect = "SELECT * FROM " + playerTable.getTableName();
+        quickSqlTestData.generateInsertScriptFor(playerSelect);
+        int queryCount = listener.startedQueries.size();
+
+        // WHEN
+        QuickSqlTestData.buildFrom(DATA_SOURCE)
+                        .generateInsertScriptFor(playerSelect);
+
+        // THEN
+        assertThat(listener.startedQueries).hasSize(queryCount);
+
+    }
+
+    private static class RecordingListener implements GenerationListener {
+
+        private final List<String> startedQueries = new ArrayList<>();
+
+        private final List<String> endedQueries = new ArrayList<>();
+
+        private final List<String> fetchedQueries = new ArrayList<>();
+
+        private final List<String> lookedUpTableNames = new ArrayList<>();
+
+        private final List<String> mergedTableNames = new ArrayList<>();
+
+        private final Set<GenerationPhase> endedPhases = EnumSet.noneOf(GenerationPhase.class);
+
+        private int fetchedRowCount;
+
+        private int joinedRowCount;
+
+        private int cacheHitCount;
+
+        private int cacheMissCount;
+
+        private int borrowedConnectionCount;
+
+        @Override
+        public void onQueryStart(String sql) {
+            startedQueries.add(sql);
+        }
+
+        @Override
+        public void onQueryEnd(String sql, long durationNanos) {
+            endedQueries.add(sql);
+        }
+
+        @Override
+        public void onRowsFetched(String sql, int rowCount) {
+            fetchedQueries.add(sql);
+            fetchedRowCount += rowCount;
+        }
+
+        @Override
+        public void onRowLookup(String tableName, int rowCount) {
+            lookedUpTableNames.add(tableName);
+        }
+
+        @Override
+        public void onJoinedRowsFound(int rowCount) {
+            joinedRowCount += rowCount;
+        }
+
+        @Override
+        public void onRowMerged(String tableName) {
+            mergedTableNames.add(tableName);
+        }
+
+        @Override
+        public void onMetadataCacheHit(String tableName) {
+            cacheHitCount++;
+        }
+
+        @Override
+        public void onMetadataCacheMiss(String tableName) {
+            cacheMissCount++;
+        }
+
+        @Override
+        public void onConnectionBorrowed() {
+            borrowedConnectionCount++;
+        }
+
+        @Override
+        public void onPhaseEnd(GenerationPhase phase, long durationNanos) {
+            endedPhases.add(phase);
+        }
+
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.qstd.GenerationResult;
+import org.qstd.GenerationStats;
+import org.qstd.QuickSqlTestData;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerationStatsTest extends H2Config {
+
+    private TestTable teamTable;
+
+    private TestTable playerTable;
+
+    @BeforeEach
+    public void create_tables() {
+        teamTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Team"
+                                          , "id bigint not null"
+                                          + ", name varchar(255) not null"
+                                          + ", primary key (id)"
+                                          )
+                         .create()
+                         .insertValues("1, 'Manchester United'");
+
+        String playerTableConstraint = "add constraint player_team_fk" + generateRandomPositiveInt()
+                                     + " foreign key (team_id)"
+                                     + " references " + teamTable.getTableName();
+        playerTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Player"
+                                          , "id bigint not null"
+                                          + ", lastName varchar(255)"
+                                          + ", team_id bigint not null"
+                                          + ", primary key (id)"
+                                          )
+                         .create()
+                         .alter(playerTableConstraint)
+                         .insertValues("1, 'Pogba', 1")
+                         .insertValues("2, 'Griezmann', 1");
+    }
+
+    private int generateRandomPositiveInt() {
+        Random random = new Random();
+        return Math.abs(random.nextInt());
+    }
+
+    @Test public void
+    should_return_the_script_with_the_statistics_of_its_generation() {
+
+        // GIVEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        String playerSelect = "SELECT * FROM " + playerTable.getTableName();
+
+        // WHEN
+        GenerationResult generationResult = quickSqlTestData.generateInsertScriptWithStatsFor(playerSelect);
+
+        // THEN
+        assertThat(generationResult.getInsertScript()).isEqualTo(quickSqlTestData.generateInsertScriptFor(playerSelect));
+        GenerationStats stats = generationResult.getStats();
+        assertThat(stats.getSourceRowCount()).isEqualTo(2);
+        // The two players reference the same team
+        assertThat(stats.getJoinedRowCount()).isEqualTo(2);
+        assertThat(stats.getMergedRowCount()).isEqualTo(1);
+        // The not null name of the team
+        assertThat(stats.getRowFinderLookupCount()).isEqualTo(1);
+        assertThat(stats.getBorrowedConnectionCount()).isEqualTo(1);
+        assertThat(stats.getMetadataQueryCount()).isPositive();
+        assertThat(stats.getFetchDuration()).isPositive();
+        assertThat(stats.getExpandDuration()).isPositive();
+        assertThat(stats.getSortDuration()).isPositive();
+        assertThat(stats.getFormatDuration()).isPositive();
+        assertThat(stats.getTransformDuration()).isGreaterThanOrEqualTo(Duration.ZERO);
+
+    }
+
+    @Test public void
+    should_serve_the_metadata_from_the_cache_once_retrieved() {
+
+        // GIVEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        String playerSelect = "SELECT * FROM " + playerTable.getTableName();
+        GenerationStats firstGenerationStats = quickSqlTestData.generateInsertScriptWithStatsFor(playerSelect)
+                                                               .getStats();
+
+        // WHEN
+        GenerationStats stats = quickSqlTestData.generateInsertScriptWithStatsFor(playerSelect)
+                                                .getStats();
+
+        // THEN
+        assertThat(firstGenerationStats.getMetadataQueryCount()).isPositive();
+        assertThat(stats.getMetadataQueryCount()).isZero();
+        assertThat(stats.getMetadataCacheHitCount()).isPositive();
+
+    }
+
+    @Test public void
+    should_not_count_a_failing_data_query_as_a_metadata_query() {
+
+        // GIVEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        String playerSelect = "SELECT * FROM " + playerTable.getTableName();
+        quickSqlTestData.generateInsertScriptFor(playerSelect);
+        String failingPlayerSelect = playerSelect + " WHERE unknownColumn = 1";
+
+        // WHEN
+        GenerationStats stats = quickSqlTestData.generateInsertScriptWithStatsFor(failingPlayerSelect)
+                                                .getStats();
+
+        // THEN
+        assertThat(stats.getSourceRowCount()).isZero();
+        assertThat(stats.getMetadataQueryCount()).isZero();
+
+    }
+
+}
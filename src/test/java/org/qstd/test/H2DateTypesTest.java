@@ -98,6 +98,7 @@ public class H2DateTypesTest extends H2Config {
         SQL_EXECUTOR.execute(insertScript);
         assertThat(playerTable).withScript(insertScript)
                                .hasNumberOfRows(1);
+        Assertions.assertThat(insertScript).contains("'2012-09-17 19:56:47.32+00:00'");
 
     }
 
@@ -12,12 +12,29 @@
  */
 package org.qstd.test;
 
+import org.h2.jdbcx.JdbcDataSource;
 import org.junit.jupiter.api.Test;
+import org.qstd.GenerationListener;
 import org.qstd.QuickSqlTestData;
 
+import javax.sql.DataSource;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.qstd.test.TestTable.*;
 import static org.qstd.test.TestTable.TestTableAssert.assertThat;
 
@@ -54,6 +71,315 @@ public class H2Test extends H2Config {
 
     }
 
+    @Test public void
+    should_write_an_insert_script_to_a_writer() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "  id bigint not null"
+                                + ", firstName varchar(255) not null"
+                                + ", lastName varchar(255)"
+                                )
+                .create()
+                .insertValues("1, 'Paul', 'Pogba'")
+                .insertValues("2, 'Antoine', NULL");
+
+        String playerTableName = playerTable.getTableName();
+        String select = "SELECT id FROM " + playerTableName;
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+
+        // WHEN
+        StringWriter writer = new StringWriter();
+        quickSqlTestData.writeInsertScriptFor(writer, select);
+
+        // THEN
+        String insertScript = writer.toString();
+        assertThat(insertScript).isEqualTo(quickSqlTestData.generateInsertScriptFor(select));
+
+        playerTable.recreate();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(playerTable).withScript(insertScript)
+                               .hasNumberOfRows(2);
+
+    }
+
+    @Test public void
+    should_generate_multi_row_insert_statements() {
+
+        // GIVEN
+        TestTable teamTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Team"
+                                , "  id bigint not null"
+                                + ", name varchar(255) not null"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .insertValues("1, 'Manchester United'")
+                .insertValues("2, 'Atletico Madrid'");
+
+        String teamTableName = teamTable.getTableName();
+        String teamForeignKey = "add constraint player_team_fk" + generateRandomPositiveInt()
+                              + " foreign key (team_id)"
+                              + " references " + teamTableName;
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "  id bigint not null"
+                                + ", lastName varchar(255) not null"
+                                + ", team_id bigint not null"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .alter(teamForeignKey)
+                .insertValues("1, 'Pogba', 1")
+                .insertValues("2, 'Griezmann', 2")
+                .insertValues("3, 'Rashford', 1");
+
+        String playerTableName = playerTable.getTableName();
+        String select = "SELECT id FROM " + playerTableName;
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withMultiRowInserts();
+        List<String> insertStatements = quickSqlTestData.generateInsertListFor(select);
+
+        // THEN
+        assertThat(insertStatements).hasSize(2);
+        assertThat(insertStatements.get(0)).startsWith("INSERT INTO " + teamTableName.toUpperCase());
+        assertThat(insertStatements.get(1)).startsWith("INSERT INTO " + playerTableName.toUpperCase());
+
+        playerTable.drop();
+        teamTable.recreate();
+        playerTable.create().alter(teamForeignKey);
+        SQL_EXECUTOR.execute(insertStatements);
+        assertThat(teamTable).hasNumberOfRows(2);
+        assertThat(playerTable).hasNumberOfRows(3);
+
+    }
+
+    @Test public void
+    should_load_rows_into_a_target_database() {
+
+        // GIVEN
+        String teamColumns = "  id bigint not null"
+                           + ", name varchar(255) not null"
+                           + ", creationDate timestamp not null"
+                           + ", primary key (id)";
+        TestTable teamTable =
+                buildUniqueTable(DATA_SOURCE, "Team", teamColumns)
+                .create()
+                .insertValues("1, 'Manchester United', '1878-01-01 10:00:00'");
+        String teamTableName = teamTable.getTableName();
+
+        String playerColumns = "  id bigint not null"
+                             + ", lastName varchar(255) not null"
+                             + ", salary decimal(10, 2)"
+                             + ", team_id bigint not null"
+                             + ", primary key (id)";
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE, "Player", playerColumns)
+                .create()
+                .alter("add constraint player_team_fk" + generateRandomPositiveInt()
+                     + " foreign key (team_id) references " + teamTableName)
+                .insertValues("1, 'Pogba', 1000.50, 1")
+                .insertValues("2, 'Rashford', NULL, 1");
+        String playerTableName = playerTable.getTableName();
+
+        DataSource targetDataSource = DataSourceBuilder.build("jdbc:h2:mem:target", "user", "pwd");
+        TestTable targetTeamTable =
+                new TestTable(targetDataSource, teamTableName, "create table " + teamTableName + "(" + teamColumns + ")")
+                .create();
+        TestTable targetPlayerTable =
+                new TestTable(targetDataSource, playerTableName, "create table " + playerTableName + "(" + playerColumns + ")")
+                .create()
+                .alter("add constraint player_team_fk" + generateRandomPositiveInt()
+                     + " foreign key (team_id) references " + teamTableName);
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        quickSqlTestData.loadInto(targetDataSource, "SELECT id, salary FROM " + playerTableName);
+
+        // THEN
+        assertThat(targetTeamTable).hasNumberOfRows(1)
+                                   .row(0).hasValues(1, "Manchester United", "1878-01-01T10:00:00");
+        assertThat(targetPlayerTable).hasNumberOfRows(2)
+                                     .row(0).hasValues(1, "Pogba", new BigDecimal("1000.50"), 1)
+                                     .row(1).hasValues(2, "Rashford", null, 1);
+
+    }
+
+    @Test public void
+    should_load_rows_into_a_database_with_batches_of_bounded_size() {
+
+        // GIVEN
+        String playerColumns = "  id bigint not null"
+                             + ", lastName varchar(255) not null"
+                             + ", primary key (id)";
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE, "Player", playerColumns)
+                .create();
+        String playerTableName = playerTable.getTableName();
+        SQL_EXECUTOR.execute("INSERT INTO " + playerTableName + " SELECT X, CONCAT('Player ', X) FROM SYSTEM_RANGE(1, 2500)");
+
+        DataSource targetDataSource = DataSourceBuilder.build("jdbc:h2:mem:batch-target", "user", "pwd");
+        TestTable targetPlayerTable =
+                new TestTable(targetDataSource, playerTableName, "create table " + playerTableName + "(" + playerColumns + ")")
+                .create();
+        AtomicInteger batchExecutionCount = new AtomicInteger();
+        DataSource batchCountingTargetDataSource = buildBatchCountingDataSource(targetDataSource, batchExecutionCount);
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        quickSqlTestData.loadInto(batchCountingTargetDataSource, "SELECT * FROM " + playerTableName);
+
+        // THEN
+        assertThat(targetPlayerTable).hasNumberOfRows(2500);
+        assertThat(batchExecutionCount).hasValue(3);
+
+    }
+
+    private static DataSource buildBatchCountingDataSource(DataSource dataSource, AtomicInteger batchExecutionCount) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader()
+                                                 , new Class<?>[]{DataSource.class}
+                                                 , (dataSourceProxy, dataSourceMethod, dataSourceArgs) -> {
+            Object connection = invoke(dataSource, dataSourceMethod, dataSourceArgs);
+            if (!(connection instanceof Connection)) {
+                return connection;
+            }
+            return Proxy.newProxyInstance(Connection.class.getClassLoader()
+                                        , new Class<?>[]{Connection.class}
+                                        , (connectionProxy, connectionMethod, connectionArgs) -> {
+                Object statement = invoke(connection, connectionMethod, connectionArgs);
+                if (!(statement instanceof PreparedStatement)) {
+                    return statement;
+                }
+                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader()
+                                            , new Class<?>[]{PreparedStatement.class}
+                                            , (statementProxy, statementMethod, statementArgs) -> {
+                    if ("executeBatch".equals(statementMethod.getName())) {
+                        batchExecutionCount.incrementAndGet();
+                    }
+                    return invoke(statement, statementMethod, statementArgs);
+                });
+            });
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException invocationTargetException) {
+            throw invocationTargetException.getCause();
+        }
+    }
+
+    @Test public void
+    should_load_clob_values_into_a_database() {
+
+        // GIVEN
+        // Without connection pool, the values bound to the source connection are invalid once it is closed
+        JdbcDataSource sourceDataSource = new JdbcDataSource();
+        sourceDataSource.setURL("jdbc:h2:mem:clob-source-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        String commentColumns = "  id bigint not null"
+                              + ", text clob not null"
+                              + ", primary key (id)";
+        TestTable commentTable =
+                new TestTable(sourceDataSource, "Comment", "create table Comment(" + commentColumns + ")")
+                .create()
+                .insertValues("1, 'A long comment'");
+
+        DataSource targetDataSource = DataSourceBuilder.build("jdbc:h2:mem:clob-target", "user", "pwd");
+        TestTable targetCommentTable =
+                new TestTable(targetDataSource, "Comment", "create table Comment(" + commentColumns + ")")
+                .create();
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(sourceDataSource);
+        quickSqlTestData.loadInto(targetDataSource, "SELECT * FROM " + commentTable.getTableName());
+
+        // THEN
+        assertThat(targetCommentTable).hasNumberOfRows(1)
+                                      .row(0).hasValues(1, "A long comment");
+
+    }
+
+    @Test public void
+    should_report_the_insert_statement_failing_to_load_rows() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "  id bigint not null"
+                                + ", lastName varchar(255)"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .insertValues("1, NULL");
+        String playerTableName = playerTable.getTableName();
+        DataSource targetDataSource = DataSourceBuilder.build("jdbc:h2:mem:empty-target", "user", "pwd");
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+
+        // WHEN
+        Throwable loadingFailure = catchThrowable(() -> quickSqlTestData.loadInto(targetDataSource, "SELECT * FROM " + playerTableName));
+
+        // THEN
+        assertThat(loadingFailure).isInstanceOf(IllegalStateException.class)
+                                  .hasRootCauseInstanceOf(SQLException.class);
+        assertThat(loadingFailure.getCause()).hasMessageContaining("Unable to execute INSERT INTO " + playerTableName.toUpperCase());
+
+    }
+
+    @Test public void
+    should_search_missing_not_null_columns_with_bind_parameters() {
+
+        // GIVEN
+        TestTable teamTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Team"
+                                , "  name varchar(255) not null"
+                                + ", city varchar(255) not null"
+                                + ", primary key (name)"
+                                )
+                .create()
+                .insertValues("'O''Neill FC', 'Dublin'");
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "  id bigint not null"
+                                + ", team_name varchar(255) not null"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .alter("add constraint player_team_fk" + generateRandomPositiveInt()
+                     + " foreign key (team_name) references " + teamTable.getTableName())
+                .insertValues("1, 'O''Neill FC'");
+        List<String> executedQueries = new ArrayList<>();
+        GenerationListener queryRecorder = new GenerationListener() {
+            @Override
+            public void onQueryStart(String sql) {
+                executedQueries.add(sql);
+            }
+        };
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withListener(queryRecorder);
+
+        // WHEN
+        String insertScript = quickSqlTestData.generateInsertScriptFor("SELECT id, team_name FROM " + playerTable.getTableName());
+
+        // THEN
+        assertThat(insertScript).contains("'O''Neill FC', 'Dublin'");
+        String teamTableName = teamTable.getTableName().toUpperCase();
+        assertThat(executedQueries).filteredOn(query -> query.startsWith("SELECT CITY FROM " + teamTableName))
+                                   .singleElement()
+                                   .asString()
+                                   .endsWith("WHERE (NAME=?)");
+
+    }
+
     @Test public void
     should_generate_an_insert_statement_with_not_null_columns() {
 
@@ -84,6 +410,41 @@ public class H2Test extends H2Config {
 
     }
 
+    @Test public void
+    should_generate_insert_statements_with_not_null_columns_of_several_rows() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "  id bigint not null"
+                                + ", firstName varchar(255) not null"
+                                + ", lastName varchar(255)"
+                                + ", score decimal(5,2)"
+                                )
+                .create()
+                .insertValues("1, 'Paul', 'Pogba', 1.50")
+                .insertValues("2, 'Antoine', 'Griezmann', 2.00")
+                .insertValues("3, 'Kylian', NULL, 3.00");
+
+        String playerTableName = playerTable.getTableName();
+        String select = "SELECT lastName, score FROM " + playerTableName;
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(select);
+
+        // THEN
+        playerTable.recreate();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(playerTable).withScript(insertScript)
+                               .hasNumberOfRows(3)
+                               .row(0).hasValues(1, "Paul", "Pogba", 1.50)
+                               .row(1).hasValues(2, "Antoine", "Griezmann", 2.00)
+                               .row(2).hasValues(3, "Kylian", null, 3.00);
+
+    }
+
     @Test public void
     should_generate_an_insert_statement_with_not_null_columns_from_a_statement_selecting_a_null_column() {
 
@@ -314,4 +675,106 @@ public class H2Test extends H2Config {
 
     }
 
+    @Test public void
+    should_add_the_rows_of_a_long_foreign_key_chain() throws Exception {
+
+        // GIVEN
+        TestTable employeeTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Employee"
+                                , "id bigint not null"
+                                + ", manager_id bigint not null"
+                                + ", primary key (id)"
+                                )
+                .create();
+        String employeeTableName = employeeTable.getTableName();
+        String employeeTableConstraint = "add constraint employee_manager_fk" + generateRandomPositiveInt()
+                                       + " foreign key (manager_id)"
+                                       + " references " + employeeTableName;
+        int chainLength = 3000;
+        SQL_EXECUTOR.execute("INSERT INTO " + employeeTableName
+                           + " SELECT x, CASE WHEN x = 1 THEN 1 ELSE x - 1 END"
+                           + " FROM SYSTEM_RANGE(1, " + chainLength + ")");
+        employeeTable.alter(employeeTableConstraint);
+
+        String employeeSelect = "SELECT * FROM " + employeeTableName + " WHERE id = " + chainLength;
+
+        // WHEN
+        // The stack of the generation thread is too small for a Java call by level of joined rows
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        FutureTask<String> generation = new FutureTask<>(() -> quickSqlTestData.generateInsertScriptFor(employeeSelect));
+        new Thread(null, generation, "generation", 128 * 1024).start();
+        String insertScript = generation.get();
+
+        // THEN
+        employeeTable.recreate().alter(employeeTableConstraint);
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(employeeTable).withScript(insertScript)
+                                 .hasNumberOfRows(chainLength);
+
+    }
+
+    @Test public void
+    should_format_the_values_of_a_class_with_a_registered_value_formatter() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "id UUID"
+                                + ", lastName varchar(255)"
+                                )
+                .create()
+                .insertValues("'0b31e4c3-2a25-4b0e-9b6a-4cd4f4d6c2e1', 'Pogba'");
+
+        String select = "SELECT * FROM " + playerTable.getTableName();
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData =
+                QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                .withValueFormatter(UUID.class, (sqlText, uuid) -> sqlText.append("'").append(uuid).append("'"));
+        String insertScript = quickSqlTestData.generateInsertScriptFor(select);
+
+        // THEN
+        assertThat(insertScript).contains("'0b31e4c3-2a25-4b0e-9b6a-4cd4f4d6c2e1', 'Pogba'");
+        playerTable.recreate();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(playerTable).withScript(insertScript)
+                               .hasNumberOfRows(1);
+
+    }
+
+    @Test public void
+    should_generate_an_insert_statement_with_escaped_strings_and_binary_values() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "id bigint"
+                                + ", lastName varchar(255)"
+                                + ", photo varbinary(255)"
+                                + ", biography clob"
+                                + ", video blob"
+                                )
+                .create()
+                .insertValues("1, 'O''Neil', X'CAFE01', 'He''s ' || REPEAT('a', 10000), X'00FF'");
+
+        String select = "SELECT * FROM " + playerTable.getTableName();
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(select);
+
+        // THEN
+        assertThat(insertScript).contains("'O''Neil', X'CAFE01', 'He''s aaa")
+                                .contains("', X'00FF')");
+        playerTable.recreate();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(playerTable).withScript(insertScript)
+                               .hasNumberOfRows(1)
+                               .row(0).value("LASTNAME").isEqualTo("O'Neil");
+
+    }
+
 }
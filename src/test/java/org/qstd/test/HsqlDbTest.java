@@ -15,11 +15,13 @@ package org.qstd.test;
 import java.time.OffsetTime;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.qstd.QuickSqlTestData;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Random;
 
@@ -67,6 +69,32 @@ public class HsqlDbTest {
 
     }
 
+    @Test public void
+    should_not_use_metadata_stored_in_a_directory_after_a_column_renaming(@TempDir Path metadataCacheDirectory) {
+
+        // GIVEN
+        TestTable playerTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Player"
+                                          , "  id bigint"
+                                          + ", lastName varchar(255) not null")
+                .create()
+                .insertValues("1, 'Pogba'");
+        String select = "SELECT id FROM " + playerTable.getTableName();
+        QuickSqlTestData.buildFrom(DATA_SOURCE, metadataCacheDirectory)
+                        .generateInsertScriptFor(select);
+        playerTable.alter("alter column lastName rename to surname");
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE, metadataCacheDirectory);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(select);
+
+        // THEN
+        Assertions.assertThat(insertScript).contains("SURNAME")
+                                           .contains("'Pogba'");
+
+    }
+
     @Test public void
     should_generate_an_insert_statement_with_columns_declared_in_the_same_order_as_in_the_table() {
 
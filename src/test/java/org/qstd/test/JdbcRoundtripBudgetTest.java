@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quickperf.sql.annotation.ExpectSelect;
+import org.qstd.QuickSqlTestData;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Number of SELECT statements and of borrowed connections of representative generations,
+ * with the metadata retrieved during the generation (cold) or cached by a previous generation (warm).
+ * The warm generations only execute the data queries: the SELECT of the generation, then one query by table
+ * and by level of joined rows, whatever the number of rows. The cold generations also retrieve the metadata.
+ * A change of these numbers has to be deliberate.
+ */
+public class JdbcRoundtripBudgetTest extends H2Config {
+
+    private SyntheticSchema.Tables tables;
+
+    private String firstTable;
+
+    private String lastTable;
+
+    private AtomicInteger borrowedConnectionCount;
+
+    private DataSource connectionCountingDataSource;
+
+    private QuickSqlTestData warmQuickSqlTestData;
+
+    @BeforeEach
+    public void prepare_test_data() {
+        // A chain of five tables, each table referencing the previous one with a NOT NULL foreign key,
+        // five rows of a table sharing the same parent row
+        tables = SyntheticSchema.withSeed(42)
+                                .withChainDepth(4)
+                                .withRowsByTable(20)
+                                .withFanOut(5)
+                                .withValueColumns(2)
+                                .createIn(DATA_SOURCE);
+        firstTable = tables.getTableName(0, 0);
+        lastTable = tables.getLastTableName(0);
+        borrowedConnectionCount = new AtomicInteger();
+        connectionCountingDataSource = buildConnectionCountingDataSource(borrowedConnectionCount);
+        warmQuickSqlTestData = QuickSqlTestData.buildFrom(connectionCountingDataSource);
+        warmQuickSqlTestData.generateInsertScriptFor("SELECT * FROM " + lastTable);
+        borrowedConnectionCount.set(0);
+    }
+
+    @AfterEach
+    public void drop_tables() {
+        tables.drop();
+    }
+
+    private DataSource buildConnectionCountingDataSource(AtomicInteger borrowedConnectionCount) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader()
+                                                 , new Class<?>[]{DataSource.class}
+                                                 , (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        borrowedConnectionCount.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(DATA_SOURCE, args);
+                    } catch (InvocationTargetException invocationTargetException) {
+                        throw invocationTargetException.getCause();
+                    }
+                });
+    }
+
+    private QuickSqlTestData buildColdQuickSqlTestData() {
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(connectionCountingDataSource);
+        borrowedConnectionCount.set(0);
+        return quickSqlTestData;
+    }
+
+    @ExpectSelect(26)
+    @Test public void
+    should_retrieve_a_deep_foreign_key_chain_with_cold_metadata() {
+        String insertScript = buildColdQuickSqlTestData().generateInsertScriptFor("SELECT * FROM " + lastTable + " WHERE ID = 1");
+        assertThat(insertScript).contains("INSERT INTO " + firstTable + "(");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(4)
+    @Test public void
+    should_retrieve_a_deep_foreign_key_chain_with_warm_metadata() {
+        String insertScript = warmQuickSqlTestData.generateInsertScriptFor("SELECT * FROM " + lastTable + " WHERE ID = 1");
+        assertThat(insertScript).contains("INSERT INTO " + firstTable + "(");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(26)
+    @Test public void
+    should_retrieve_many_rows_sharing_parents_with_cold_metadata() {
+        String insertScript = buildColdQuickSqlTestData().generateInsertScriptFor("SELECT * FROM " + lastTable);
+        assertThat(insertScript).contains("INSERT INTO " + firstTable + "(");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(4)
+    @Test public void
+    should_retrieve_many_rows_sharing_parents_with_warm_metadata() {
+        String insertScript = warmQuickSqlTestData.generateInsertScriptFor("SELECT * FROM " + lastTable);
+        assertThat(insertScript).contains("INSERT INTO " + firstTable + "(");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(27)
+    @Test public void
+    should_retrieve_missing_not_null_columns_with_cold_metadata() {
+        String insertScript = buildColdQuickSqlTestData().generateInsertScriptFor("SELECT VAL_0 FROM " + lastTable + " WHERE ID <= 10");
+        assertThat(insertScript).contains("PARENT_ID");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(5)
+    @Test public void
+    should_retrieve_missing_not_null_columns_with_warm_metadata() {
+        String insertScript = warmQuickSqlTestData.generateInsertScriptFor("SELECT VAL_0 FROM " + lastTable + " WHERE ID <= 10");
+        assertThat(insertScript).contains("PARENT_ID");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(27)
+    @Test public void
+    should_transform_an_update_with_cold_metadata() {
+        String insertScript = buildColdQuickSqlTestData().generateInsertScriptFor("UPDATE " + lastTable + " SET VAL_0 = 'updated' WHERE ID <= 10");
+        assertThat(insertScript).contains("INSERT INTO " + firstTable + "(");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(5)
+    @Test public void
+    should_transform_an_update_with_warm_metadata() {
+        String insertScript = warmQuickSqlTestData.generateInsertScriptFor("UPDATE " + lastTable + " SET VAL_0 = 'updated' WHERE ID <= 10");
+        assertThat(insertScript).contains("INSERT INTO " + firstTable + "(");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(26)
+    @Test public void
+    should_transform_a_delete_with_cold_metadata() {
+        String insertScript = buildColdQuickSqlTestData().generateInsertScriptFor("DELETE FROM " + lastTable + " WHERE ID <= 10");
+        assertThat(insertScript).contains("INSERT INTO " + firstTable + "(");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+    @ExpectSelect(4)
+    @Test public void
+    should_transform_a_delete_with_warm_metadata() {
+        String insertScript = warmQuickSqlTestData.generateInsertScriptFor("DELETE FROM " + lastTable + " WHERE ID <= 10");
+        assertThat(insertScript).contains("INSERT INTO " + firstTable + "(");
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+    }
+
+}
@@ -18,8 +18,19 @@ import org.junit.jupiter.api.Test;
 import org.quickperf.sql.annotation.ExpectJdbcQueryExecution;
 import org.qstd.QuickSqlTestData;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.qstd.test.TestTable.TestTableAssert.assertThat;
 
 public class JdbcRoundtripTest extends H2Config {
@@ -83,7 +94,7 @@ public class JdbcRoundtripTest extends H2Config {
         return Math.abs(random.nextInt());
     }
 
-    @ExpectJdbcQueryExecution(23)
+    @ExpectJdbcQueryExecution(20)
     @Test public void
     should_limit_jdbc_roundtrips() {
         String t2Select = "SELECT c1_t2 FROM " + t2Table.getTableName();
@@ -92,6 +103,101 @@ public class JdbcRoundtripTest extends H2Config {
         insertScript = quickSqlTestData.generateInsertScriptFor(t2Select, t3Select);
     }
 
+    @Test public void
+    should_borrow_one_connection_for_a_script_generation() {
+
+        // GIVEN
+        AtomicInteger borrowedConnectionCount = new AtomicInteger();
+        DataSource connectionCountingDataSource = buildConnectionCountingDataSource(borrowedConnectionCount);
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(connectionCountingDataSource);
+        borrowedConnectionCount.set(0);
+
+        // WHEN
+        String t2Select = "SELECT c1_t2 FROM " + t2Table.getTableName();
+        String t3Select = "SELECT c2_t3 FROM " + t3Table.getTableName();
+        insertScript = quickSqlTestData.generateInsertScriptFor(t2Select, t3Select);
+
+        // THEN
+        assertThat(borrowedConnectionCount.get()).isEqualTo(1);
+
+    }
+
+    private DataSource buildConnectionCountingDataSource(AtomicInteger borrowedConnectionCount) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader()
+                                                 , new Class<?>[]{DataSource.class}
+                                                 , (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        borrowedConnectionCount.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(DATA_SOURCE, args);
+                    } catch (InvocationTargetException invocationTargetException) {
+                        throw invocationTargetException.getCause();
+                    }
+                });
+    }
+
+    @Test public void
+    should_bound_the_statements_kept_open_during_a_script_generation() {
+
+        // GIVEN
+        AtomicInteger openStatementCount = new AtomicInteger();
+        AtomicInteger maxOpenStatementCount = new AtomicInteger();
+        DataSource statementCountingDataSource = buildStatementCountingDataSource(openStatementCount, maxOpenStatementCount);
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(statementCountingDataSource);
+        List<String> selects = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            selects.add("SELECT c1_t2 FROM " + t2Table.getTableName() + " WHERE id_t2 <> " + i);
+            selects.add("SELECT c2_t3 FROM " + t3Table.getTableName() + " WHERE id_t3 <> " + i);
+        }
+
+        // WHEN
+        insertScript = quickSqlTestData.generateInsertScriptFor(selects.toArray(new String[0]));
+
+        // THEN
+        assertThat(maxOpenStatementCount.get()).isLessThanOrEqualTo(33);
+        assertThat(openStatementCount.get()).isZero();
+
+    }
+
+    private DataSource buildStatementCountingDataSource(AtomicInteger openStatementCount, AtomicInteger maxOpenStatementCount) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader()
+                                                 , new Class<?>[]{DataSource.class}
+                                                 , (dataSourceProxy, dataSourceMethod, dataSourceArgs) -> {
+                    Object result = invoke(DATA_SOURCE, dataSourceMethod, dataSourceArgs);
+                    if (!(result instanceof Connection)) {
+                        return result;
+                    }
+                    Connection connection = (Connection) result;
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader()
+                                                , new Class<?>[]{Connection.class}
+                                                , (connectionProxy, connectionMethod, connectionArgs) -> {
+                        Object connectionResult = invoke(connection, connectionMethod, connectionArgs);
+                        if (!(connectionResult instanceof PreparedStatement)) {
+                            return connectionResult;
+                        }
+                        maxOpenStatementCount.accumulateAndGet(openStatementCount.incrementAndGet(), Math::max);
+                        AtomicBoolean closed = new AtomicBoolean();
+                        return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader()
+                                                    , new Class<?>[]{PreparedStatement.class}
+                                                    , (statementProxy, statementMethod, statementArgs) -> {
+                            if ("close".equals(statementMethod.getName()) && closed.compareAndSet(false, true)) {
+                                openStatementCount.decrementAndGet();
+                            }
+                            return invoke(connectionResult, statementMethod, statementArgs);
+                        });
+                    });
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException invocationTargetException) {
+            throw invocationTargetException.getCause();
+        }
+    }
+
     @AfterEach
     public void check_inserted_data() {
         t3Table.recreate();
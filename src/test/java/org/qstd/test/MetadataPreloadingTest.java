@@ -0,0 +1,396 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quickperf.sql.annotation.ExpectJdbcQueryExecution;
+import org.qstd.DatabaseMetadataFinder;
+import org.qstd.QuickSqlTestData;
+import org.qstd.dbtype.DatabaseMetadataFinderWithCache;
+import org.qstd.dbtype.DatabaseType;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.qstd.dbtype.DatabaseMetadataFinderFactory.createDatabaseMetadataFinderFrom;
+
+public class MetadataPreloadingTest extends H2Config {
+
+    private TestTable sponsorTable;
+    private TestTable teamTable;
+    private TestTable playerTable;
+
+    @BeforeEach
+    public void prepare_test_data() {
+
+        sponsorTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Sponsor"
+                                          , "  id bigint" +
+                                          ",  name varchar(255) not null" +
+                                          ", country varchar(255)" +
+                                          ", primary key (id)"
+                                          )
+                        .create()
+                        .insertValues("1, 'Sponsor name', 'France'");
+
+        teamTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Team"
+                                          ," id bigint not null" +
+                                          ", name varchar(255) not null" +
+                                          ", sponsor_id bigint not null" +
+                                          ", primary key (id)"
+                                          )
+                        .create()
+                        .alter("add constraint team_sponsor_fk" + generateRandomPositiveInt()
+                             + " foreign key (sponsor_id)"
+                             + " references " + sponsorTable.getTableName().toUpperCase())
+                        .insertValues("1, 'Manchester United', 1");
+
+        playerTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Player"
+                                          , "id bigint not null"
+                                          + ", firstName varchar(255)"
+                                          + ", lastName varchar(255)"
+                                          + ", team_id bigint not null"
+                                          + ", primary key (id)"
+                                          )
+                        .create()
+                        .alter("add constraint player_team_fk" + generateRandomPositiveInt()
+                             + " foreign key (team_id)"
+                             + " references " + teamTable.getTableName().toUpperCase())
+                        .insertValues("1, 'Paul', 'Pogba', 1");
+
+    }
+
+    @Test public void
+    should_generate_the_same_script_with_metadata_of_the_whole_schema_preloaded() {
+
+        // GIVEN
+        String playerSelect = "SELECT firstName FROM " + playerTable.getTableName();
+        String scriptWithoutPreloading = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                         .generateInsertScriptFor(playerSelect);
+
+        DatabaseMetadataFinderWithCache databaseMetadataFinder = buildDatabaseMetadataFinderWithCache();
+        databaseMetadataFinder.preloadMetadata();
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE, DatabaseType.H2, databaseMetadataFinder);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(playerSelect);
+
+        // THEN
+        assertThat(insertScript).isEqualTo(scriptWithoutPreloading);
+
+    }
+
+    @Test public void
+    should_generate_the_same_script_with_metadata_prefetched_concurrently() {
+
+        // GIVEN
+        String playerSelect = "SELECT firstName FROM " + playerTable.getTableName();
+        String scriptWithoutPrefetching = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                          .generateInsertScriptFor(playerSelect);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // WHEN
+        String insertScript;
+        try {
+            QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE, executor);
+            insertScript = quickSqlTestData.generateInsertScriptFor(playerSelect);
+        } finally {
+            executor.shutdown();
+        }
+
+        // THEN
+        assertThat(insertScript).isEqualTo(scriptWithoutPrefetching);
+
+    }
+
+    @Test public void
+    should_not_run_the_metadata_prefetching_after_the_generation() {
+
+        // GIVEN
+        AtomicInteger metadataLookupCount = new AtomicInteger();
+        DatabaseMetadataFinder databaseMetadataFinder = buildDatabaseMetadataFinderWithCache();
+        DatabaseMetadataFinder countingDatabaseMetadataFinder =
+                (DatabaseMetadataFinder) Proxy.newProxyInstance(DatabaseMetadataFinder.class.getClassLoader()
+                                                              , new Class<?>[]{DatabaseMetadataFinder.class}
+                                                              , (proxy, method, args) -> {
+                                                                    metadataLookupCount.incrementAndGet();
+                                                                    return method.invoke(databaseMetadataFinder, args);
+                                                                });
+        List<Runnable> deferredTasks = new ArrayList<>();
+        Executor deferringExecutor = deferredTasks::add;
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE, DatabaseType.H2
+                                                                     , countingDatabaseMetadataFinder
+                                                                     , deferringExecutor);
+        String playerSelect = "SELECT firstName FROM " + playerTable.getTableName();
+        quickSqlTestData.generateInsertScriptFor(playerSelect);
+        int metadataLookupCountOfGeneration = metadataLookupCount.get();
+
+        // WHEN
+        new ArrayList<>(deferredTasks).forEach(Runnable::run);
+
+        // THEN
+        assertThat(deferredTasks).isNotEmpty();
+        assertThat(metadataLookupCount).hasValue(metadataLookupCountOfGeneration);
+
+    }
+
+    @Test public void
+    should_generate_the_same_script_with_metadata_stored_in_a_directory(@TempDir Path metadataCacheDirectory) throws IOException {
+
+        // GIVEN
+        String playerSelect = "SELECT firstName FROM " + playerTable.getTableName();
+        String scriptWithoutFileCache = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                        .generateInsertScriptFor(playerSelect);
+        QuickSqlTestData.buildFrom(DATA_SOURCE, metadataCacheDirectory);
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE, metadataCacheDirectory);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(playerSelect);
+
+        // THEN
+        assertThat(insertScript).isEqualTo(scriptWithoutFileCache);
+        try (Stream<Path> metadataCacheFiles = Files.list(metadataCacheDirectory)) {
+            assertThat(metadataCacheFiles).hasSize(1);
+        }
+
+    }
+
+    @Test public void
+    should_not_use_metadata_stored_in_a_directory_after_a_schema_change(@TempDir Path metadataCacheDirectory) {
+
+        // GIVEN
+        String playerSelect = "SELECT firstName FROM " + playerTable.getTableName();
+        QuickSqlTestData.buildFrom(DATA_SOURCE, metadataCacheDirectory)
+                        .generateInsertScriptFor(playerSelect);
+        playerTable.alter("add column position varchar(255) default 'midfielder' not null");
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE, metadataCacheDirectory);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(playerSelect);
+
+        // THEN
+        assertThat(insertScript).contains("'midfielder'");
+
+    }
+
+    @Test public void
+    should_not_use_metadata_stored_in_a_directory_after_a_column_renaming(@TempDir Path metadataCacheDirectory) {
+
+        // GIVEN
+        String playerSelect = "SELECT firstName FROM " + playerTable.getTableName();
+        QuickSqlTestData.buildFrom(DATA_SOURCE, metadataCacheDirectory)
+                        .generateInsertScriptFor(playerSelect);
+        teamTable.alter("alter column name rename to label");
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE, metadataCacheDirectory);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(playerSelect);
+
+        // THEN
+        assertThat(insertScript).contains("LABEL")
+                                .contains("'Manchester United'");
+
+    }
+
+    @Test public void
+    should_not_write_metadata_to_a_directory_if_a_metadata_query_fails(@TempDir Path metadataCacheDirectory) throws IOException {
+
+        // GIVEN
+        DataSource dataSourceFailingSchemaQueries = buildDataSourceFailingSchemaQueries();
+        DatabaseMetadataFinder databaseMetadataFinder = createDatabaseMetadataFinderFrom(dataSourceFailingSchemaQueries, DatabaseType.H2);
+
+        // WHEN
+        DatabaseMetadataFinderWithCache databaseMetadataFinderWithCache =
+                DatabaseMetadataFinderWithCache.buildFrom(databaseMetadataFinder, metadataCacheDirectory);
+
+        // THEN
+        try (Stream<Path> metadataCacheFiles = Files.list(metadataCacheDirectory)) {
+            assertThat(metadataCacheFiles).isEmpty();
+        }
+        assertThat(databaseMetadataFinderWithCache.findNotNullColumnsOf(playerTable.getTableName().toUpperCase()))
+                .containsExactlyInAnyOrder("ID", "TEAM_ID");
+
+    }
+
+    @Test public void
+    should_find_again_the_metadata_of_a_table_after_an_error() {
+
+        // GIVEN
+        DatabaseMetadataFinder databaseMetadataFinder = createDatabaseMetadataFinderFrom(DATA_SOURCE, DatabaseType.H2);
+        AtomicInteger notNullColumnsLookupCount = new AtomicInteger();
+        DatabaseMetadataFinder databaseMetadataFinderFailingOnce =
+                (DatabaseMetadataFinder) Proxy.newProxyInstance(DatabaseMetadataFinder.class.getClassLoader()
+                                                              , new Class<?>[]{DatabaseMetadataFinder.class}
+                                                              , (proxy, method, args) -> {
+            if ("findNotNullColumnsOf".equals(method.getName()) && notNullColumnsLookupCount.getAndIncrement() == 0) {
+                throw new Error("Failing metadata lookup");
+            }
+            return invoke(databaseMetadataFinder, method, args);
+        });
+        DatabaseMetadataFinderWithCache databaseMetadataFinderWithCache =
+                new DatabaseMetadataFinderWithCache(databaseMetadataFinderFailingOnce);
+        String playerTableName = playerTable.getTableName().toUpperCase();
+
+        // WHEN
+        Throwable lookupError = catchThrowable(() -> databaseMetadataFinderWithCache.findNotNullColumnsOf(playerTableName));
+
+        // THEN
+        assertThat(lookupError).hasMessage("Failing metadata lookup");
+        Collection<String> notNullColumns =
+                assertTimeoutPreemptively(Duration.ofSeconds(10)
+                                        , () -> databaseMetadataFinderWithCache.findNotNullColumnsOf(playerTableName));
+        assertThat(notNullColumns).containsExactlyInAnyOrder("ID", "TEAM_ID");
+
+    }
+
+    private static DataSource buildDataSourceFailingSchemaQueries() {
+        // The schema-wide metadata queries select from the aliased metadata query
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader()
+                                                 , new Class<?>[]{DataSource.class}
+                                                 , (dataSourceProxy, dataSourceMethod, dataSourceArgs) -> {
+            Object result = invoke(DATA_SOURCE, dataSourceMethod, dataSourceArgs);
+            if (!(result instanceof Connection)) {
+                return result;
+            }
+            Connection connection = (Connection) result;
+            return Proxy.newProxyInstance(Connection.class.getClassLoader()
+                                        , new Class<?>[]{Connection.class}
+                                        , (connectionProxy, method, args) -> {
+                if ("prepareStatement".equals(method.getName()) && ((String) args[0]).contains(") metadata")) {
+                    throw new SQLException("Failing metadata query");
+                }
+                return invoke(connection, method, args);
+            });
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException invocationTargetException) {
+            throw invocationTargetException.getCause();
+        }
+    }
+
+    @ExpectJdbcQueryExecution(7)
+    @Test public void
+    should_only_query_data_once_metadata_of_tables_preloaded() {
+
+        // GIVEN
+        DatabaseMetadataFinderWithCache databaseMetadataFinder = buildDatabaseMetadataFinderWithCache();
+        databaseMetadataFinder.preloadMetadataOf(Arrays.asList(playerTable.getTableName().toUpperCase()
+                                                             , teamTable.getTableName().toUpperCase()
+                                                             , sponsorTable.getTableName().toUpperCase()));
+
+        // WHEN
+        String playerSelect = "SELECT firstName FROM " + playerTable.getTableName();
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE, DatabaseType.H2, databaseMetadataFinder);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(playerSelect);
+
+        // THEN
+        assertThat(insertScript).contains("INSERT INTO " + sponsorTable.getTableName().toUpperCase())
+                                .contains("INSERT INTO " + teamTable.getTableName().toUpperCase())
+                                .contains("INSERT INTO " + playerTable.getTableName().toUpperCase());
+
+    }
+
+    @Test public void
+    should_find_the_tables_referenced_indirectly_by_a_preloaded_table() {
+
+        // GIVEN
+        DatabaseMetadataFinderWithCache databaseMetadataFinder = buildDatabaseMetadataFinderWithCache();
+
+        // WHEN
+        databaseMetadataFinder.preloadMetadataOf(Arrays.asList(playerTable.getTableName().toUpperCase()));
+
+        // THEN
+        String playerSelect = "SELECT firstName FROM " + playerTable.getTableName();
+        String insertScript = QuickSqlTestData.buildFrom(DATA_SOURCE, DatabaseType.H2, databaseMetadataFinder)
+                                              .generateInsertScriptFor(playerSelect);
+        assertThat(insertScript).contains("INSERT INTO " + sponsorTable.getTableName().toUpperCase())
+                                .contains("INSERT INTO " + teamTable.getTableName().toUpperCase())
+                                .contains("INSERT INTO " + playerTable.getTableName().toUpperCase());
+
+    }
+
+    @Test public void
+    should_not_cache_the_metadata_of_a_preloaded_table_missing_from_the_database() {
+
+        // GIVEN
+        TestTable coachTable =
+                TestTable.buildUniqueTable(DATA_SOURCE
+                                          , "Coach"
+                                          , "id bigint not null"
+                                          + ", name varchar(255)"
+                                          + ", team_id bigint not null"
+                                          + ", primary key (id)"
+                                          );
+        String coachTableName = coachTable.getTableName().toUpperCase();
+        DatabaseMetadataFinderWithCache databaseMetadataFinder = buildDatabaseMetadataFinderWithCache();
+        databaseMetadataFinder.preloadMetadataOf(Arrays.asList(coachTableName));
+        coachTable.create()
+                  .alter("add constraint coach_team_fk" + generateRandomPositiveInt()
+                       + " foreign key (team_id)"
+                       + " references " + teamTable.getTableName().toUpperCase())
+                  .insertValues("1, 'Erik', 1");
+
+        // WHEN
+        String coachSelect = "SELECT name FROM " + coachTableName;
+        String insertScript = QuickSqlTestData.buildFrom(DATA_SOURCE, DatabaseType.H2, databaseMetadataFinder)
+                                              .generateInsertScriptFor(coachSelect);
+
+        // THEN
+        assertThat(insertScript).contains("INSERT INTO " + teamTable.getTableName().toUpperCase())
+                                .contains("INSERT INTO " + coachTableName + "(ID, NAME, TEAM_ID)");
+
+    }
+
+    private DatabaseMetadataFinderWithCache buildDatabaseMetadataFinderWithCache() {
+        DatabaseMetadataFinder databaseMetadataFinder = createDatabaseMetadataFinderFrom(DATA_SOURCE, DatabaseType.H2);
+        return new DatabaseMetadataFinderWithCache(databaseMetadataFinder);
+    }
+
+    private int generateRandomPositiveInt() {
+        Random random = new Random();
+        return Math.abs(random.nextInt());
+    }
+
+}
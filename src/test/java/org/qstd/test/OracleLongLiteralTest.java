@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.junit.jupiter.api.Test;
+import org.qstd.QuickSqlTestData;
+import org.qstd.dbtype.DatabaseMetadataFinderFactory;
+import org.qstd.dbtype.DatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.qstd.test.TestTable.buildUniqueTable;
+
+/**
+ * Literals of values longer than the literals of Oracle, generated from an H2 database
+ * with the value formatting of Oracle.
+ */
+public class OracleLongLiteralTest extends H2Config {
+
+    private static final Pattern CLOB_LITERAL = Pattern.compile("TO_CLOB\\('((?:[^']|'')*)'\\)");
+
+    @Test public void
+    should_split_a_long_text_into_concatenated_clob_literals() {
+
+        // GIVEN
+        TestTable noteTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Note"
+                                , "id bigint not null"
+                                + ", content clob"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .insertValues("1, REPEAT('O''Neill ', 625)");
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = buildOracleQuickSqlTestData();
+        String insertScript = quickSqlTestData.generateInsertScriptFor("SELECT * FROM " + noteTable.getTableName());
+
+        // THEN
+        List<String> clobLiteralValues = findClobLiteralValuesOf(insertScript);
+        assertThat(clobLiteralValues).hasSize(5)
+                                     .allMatch(value -> value.length() <= 1000);
+        assertThat(String.join("", clobLiteralValues)).isEqualTo(repeat("O'Neill ", 625));
+        assertThat(insertScript).contains("') || TO_CLOB('");
+
+    }
+
+    @Test public void
+    should_keep_a_text_of_the_maximum_literal_length_in_one_literal() {
+
+        // GIVEN
+        TestTable noteTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Note"
+                                , "id bigint not null"
+                                + ", content varchar(1000)"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .insertValues("1, REPEAT('a', 1000)");
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = buildOracleQuickSqlTestData();
+        String insertScript = quickSqlTestData.generateInsertScriptFor("SELECT * FROM " + noteTable.getTableName());
+
+        // THEN
+        assertThat(insertScript).doesNotContain("TO_CLOB")
+                                .contains("'" + repeat("a", 1000) + "'");
+
+    }
+
+    @Test public void
+    should_report_a_binary_value_longer_than_an_oracle_raw_literal() {
+
+        // GIVEN
+        TestTable documentTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Document"
+                                , "id bigint not null"
+                                + ", content varbinary(3000)"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .insertValues("1, SECURE_RAND(2001)");
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = buildOracleQuickSqlTestData();
+        Throwable throwable = catchThrowable(() -> quickSqlTestData.generateInsertScriptFor("SELECT * FROM " + documentTable.getTableName()));
+
+        // THEN
+        assertThat(throwable).isInstanceOf(IllegalArgumentException.class)
+                             .hasMessageContaining("2001 bytes");
+
+    }
+
+    private QuickSqlTestData buildOracleQuickSqlTestData() {
+        return QuickSqlTestData.buildFrom(DATA_SOURCE
+                                         , DatabaseType.ORACLE
+                                         , DatabaseMetadataFinderFactory.createDatabaseMetadataFinderFrom(DATA_SOURCE, DatabaseType.H2));
+    }
+
+    private static List<String> findClobLiteralValuesOf(String insertScript) {
+        List<String> clobLiteralValues = new ArrayList<>();
+        Matcher clobLiteralMatcher = CLOB_LITERAL.matcher(insertScript);
+        while (clobLiteralMatcher.find()) {
+            clobLiteralValues.add(clobLiteralMatcher.group(1).replace("''", "'"));
+        }
+        return clobLiteralValues;
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder repeatedText = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            repeatedText.append(text);
+        }
+        return repeatedText.toString();
+    }
+
+}
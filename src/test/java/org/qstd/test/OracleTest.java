@@ -607,6 +607,35 @@ public class OracleTest {
 
     }
 
+    @Test public void
+    should_generate_a_working_insert_statement_with_a_clob_longer_than_an_oracle_literal() {
+
+        // GIVEN
+        TestTable noteTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Note"
+                                , "id number"
+                                + ", content clob"
+                                )
+                .create()
+                .insertValues("1, RPAD(TO_CLOB('a'), 5000, 'b')");
+
+        // WHEN
+        String noteTableName = noteTable.getTableName();
+        String select = "SELECT * FROM " + noteTableName;
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        List<String> insertStatements = quickSqlTestData.generateInsertListFor(select);
+
+        // THEN
+        noteTable.recreate();
+        SQL_EXECUTOR.execute(insertStatements);
+        assertThat(noteTable).withGeneratedInserts(insertStatements)
+                             .hasNumberOfRows(1);
+        String insertStatement = insertStatements.get(0);
+        Assertions.assertThat(insertStatement).contains("') || TO_CLOB('");
+
+    }
+
     private int generateRandomPositiveInt() {
         Random random = new Random();
         return Math.abs(random.nextInt());
@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.junit.jupiter.api.Test;
+import org.qstd.GenerationListener;
+import org.qstd.GenerationResult;
+import org.qstd.QueryLimits;
+import org.qstd.QueryTimeoutException;
+import org.qstd.QuickSqlTestData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.qstd.test.TestTable.TestTableAssert.assertThat;
+import static org.qstd.test.TestTable.buildUniqueTable;
+
+public class QueryLimitsTest extends H2Config {
+
+    @Test public void
+    should_truncate_the_rows_of_a_query_to_the_maximum_number_of_rows() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "id bigint"
+                                + ", lastName varchar(255)"
+                                )
+                .create()
+                .insertValues("1, 'Pogba'")
+                .insertValues("2, 'Griezmann'")
+                .insertValues("3, 'Mbappe'");
+
+        String select = "SELECT * FROM " + playerTable.getTableName() + " ORDER BY id";
+
+        // WHEN
+        QueryLimits queryLimits = QueryLimits.NONE.withMaxRowsByQuery(2)
+                                                  .withFetchSize(100)
+                                                  .withStatementTimeout(Duration.ofSeconds(30));
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withQueryLimits(queryLimits);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(select);
+
+        // THEN
+        assertThat(insertScript).contains("'Pogba'")
+                                .contains("'Griezmann'")
+                                .doesNotContain("'Mbappe'");
+        playerTable.recreate();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(playerTable).withScript(insertScript)
+                               .hasNumberOfRows(2);
+
+    }
+
+    @Test public void
+    should_retrieve_all_the_rows_with_the_largest_maximum_number_of_rows() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "id bigint"
+                                + ", lastName varchar(255)"
+                                )
+                .create()
+                .insertValues("1, 'Pogba'")
+                .insertValues("2, 'Griezmann'");
+
+        String select = "SELECT * FROM " + playerTable.getTableName();
+
+        // WHEN
+        QueryLimits queryLimits = QueryLimits.NONE.withMaxRowsByQuery(Integer.MAX_VALUE);
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withQueryLimits(queryLimits);
+        String insertScript = quickSqlTestData.generateInsertScriptFor(select);
+
+        // THEN
+        playerTable.recreate();
+        SQL_EXECUTOR.execute(insertScript);
+        assertThat(playerTable).withScript(insertScript)
+                               .hasNumberOfRows(2);
+
+    }
+
+    @Test public void
+    should_report_the_truncated_queries() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "id bigint"
+                                + ", lastName varchar(255)"
+                                )
+                .create()
+                .insertValues("1, 'Pogba'")
+                .insertValues("2, 'Griezmann'")
+                .insertValues("3, 'Mbappe'");
+
+        String truncatedSelect = "SELECT * FROM " + playerTable.getTableName() + " ORDER BY id";
+        String selectOfOneRow = "SELECT * FROM " + playerTable.getTableName() + " WHERE id = 3";
+
+        List<String> truncatedQueriesOfListener = new ArrayList<>();
+        GenerationListener listener = new GenerationListener() {
+            @Override
+            public void onRowsTruncated(String sql, int maxRowCount) {
+                truncatedQueriesOfListener.add(sql + " -> " + maxRowCount);
+            }
+        };
+
+        // WHEN
+        QueryLimits queryLimits = QueryLimits.NONE.withMaxRowsByQuery(2);
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withQueryLimits(queryLimits)
+                                                            .withListener(listener);
+        GenerationResult generationResult = quickSqlTestData.generateInsertScriptWithStatsFor(truncatedSelect, selectOfOneRow);
+
+        // THEN
+        assertThat(generationResult.getStats().getTruncatedQueries()).containsExactly(truncatedSelect);
+        assertThat(truncatedQueriesOfListener).containsExactly(truncatedSelect + " -> 2");
+
+    }
+
+    @Test public void
+    should_fail_if_a_query_exceeds_the_statement_timeout() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "id bigint"
+                                + ", lastName varchar(255)"
+                                )
+                .create()
+                .insertValues("1, 'Pogba'")
+                .insertValues("2, 'Griezmann'")
+                .insertValues("3, 'Mbappe'");
+        SQL_EXECUTOR.execute("CREATE ALIAS IF NOT EXISTS SLEEP_MILLIS FOR \"java.lang.Thread.sleep\"");
+
+        String slowSelect = "SELECT * FROM " + playerTable.getTableName() + " WHERE id IN (SELECT X FROM SYSTEM_RANGE(1, 10000) WHERE SLEEP_MILLIS(1) IS NULL)";
+
+        // WHEN
+        QueryLimits queryLimits = QueryLimits.NONE.withStatementTimeout(Duration.ofSeconds(1));
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withQueryLimits(queryLimits);
+
+        // THEN
+        assertThatThrownBy(() -> quickSqlTestData.generateInsertScriptFor(slowSelect))
+                .isInstanceOf(QueryTimeoutException.class)
+                .hasMessageContaining(slowSelect);
+
+    }
+
+    @Test public void
+    should_fail_if_the_generation_exceeds_its_deadline() {
+
+        // GIVEN
+        TestTable playerTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Player"
+                                , "id bigint"
+                                + ", lastName varchar(255)"
+                                )
+                .create()
+                .insertValues("1, 'Pogba'");
+
+        String select = "SELECT * FROM " + playerTable.getTableName();
+
+        // WHEN
+        QueryLimits queryLimits = QueryLimits.NONE.withDeadline(Duration.ofNanos(1));
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE)
+                                                            .withQueryLimits(queryLimits);
+
+        // THEN
+        assertThatThrownBy(() -> quickSqlTestData.generateInsertScriptFor(select))
+                .isInstanceOf(QueryTimeoutException.class)
+                .hasMessageContaining("deadline");
+
+    }
+
+}
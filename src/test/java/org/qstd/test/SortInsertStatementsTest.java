@@ -13,6 +13,7 @@
 package org.qstd.test;
 
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 import org.qstd.QuickSqlTestData;
 
 import java.util.List;
@@ -73,6 +74,162 @@ public class SortInsertStatementsTest extends H2Config {
 
     }
 
+    @RepeatedTest(9) public void
+    should_sort_insert_statements_following_table_dependencies_with_an_independent_table() {
+
+        // GIVEN
+        TestTable parentTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Z_PARENT"
+                                , "id bigint not null"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .insertValues("1");
+
+        TestTable independentTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "M_INDEPENDENT"
+                                , "col varchar(20)"
+                                )
+                .create()
+                .insertValues("'value'");
+
+        String childTableConstraint = "add constraint child_parent_fk" + generateRandomPositiveInt()
+                                    + " foreign key (parent_id)"
+                                    + " references " + parentTable.getTableName();
+        TestTable childTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "A_CHILD"
+                                , "id bigint not null"
+                                + ", parent_id bigint not null"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .alter(childTableConstraint)
+                .insertValues("1, 1");
+
+        String childSelect = "SELECT * FROM " + childTable.getTableName();
+        String independentSelect = "SELECT * FROM " + independentTable.getTableName();
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        List<String> insertStatements = quickSqlTestData.generateInsertListFor(childSelect, independentSelect);
+
+        // THEN
+        assertThat(insertStatements).hasSize(3);
+        assertThat(insertStatements.get(0)).contains(independentTable.getTableName());
+        assertThat(insertStatements.get(1)).contains(parentTable.getTableName());
+        assertThat(insertStatements.get(2)).contains(childTable.getTableName());
+
+    }
+
+    @RepeatedTest(9) public void
+    should_sort_insert_statements_of_a_table_depending_on_a_reference_cycle_after_the_cycle() {
+
+        // GIVEN
+        TestTable parentTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Z_PARENT"
+                                , "id bigint not null"
+                                + ", sponsor_id bigint"
+                                + ", primary key (id)"
+                                )
+                .create();
+
+        TestTable sponsorTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Z_SPONSOR"
+                                , "id bigint not null"
+                                + ", parent_id bigint"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .alter("add constraint sponsor_parent_fk" + generateRandomPositiveInt()
+                     + " foreign key (parent_id)"
+                     + " references " + parentTable.getTableName())
+                .insertValues("1, NULL");
+
+        parentTable.alter("add constraint parent_sponsor_fk" + generateRandomPositiveInt()
+                        + " foreign key (sponsor_id)"
+                        + " references " + sponsorTable.getTableName())
+                   .insertValues("1, NULL");
+
+        TestTable childTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "A_CHILD"
+                                , "id bigint not null"
+                                + ", parent_id bigint not null"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .alter("add constraint child_parent_fk" + generateRandomPositiveInt()
+                     + " foreign key (parent_id)"
+                     + " references " + parentTable.getTableName())
+                .insertValues("1, 1");
+
+        String childSelect = "SELECT * FROM " + childTable.getTableName();
+        String sponsorSelect = "SELECT * FROM " + sponsorTable.getTableName();
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        List<String> insertStatements = quickSqlTestData.generateInsertListFor(childSelect, sponsorSelect);
+
+        // THEN
+        assertThat(insertStatements).hasSize(3);
+        assertThat(insertStatements.get(0)).contains(parentTable.getTableName());
+        assertThat(insertStatements.get(1)).contains(sponsorTable.getTableName());
+        assertThat(insertStatements.get(2)).contains(childTable.getTableName());
+
+    }
+
+    @Test public void
+    should_sort_insert_statements_of_tables_created_after_a_previous_generation() {
+
+        // GIVEN
+        TestTable independentTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "M_INDEPENDENT"
+                                , "col varchar(20)"
+                                )
+                .create()
+                .insertValues("'value'");
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        quickSqlTestData.generateInsertScriptFor("SELECT * FROM " + independentTable.getTableName());
+
+        TestTable parentTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "Z_PARENT"
+                                , "id bigint not null"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .insertValues("1");
+
+        String childTableConstraint = "add constraint child_parent_fk" + generateRandomPositiveInt()
+                                    + " foreign key (parent_id)"
+                                    + " references " + parentTable.getTableName();
+        TestTable childTable =
+                buildUniqueTable(DATA_SOURCE
+                                , "A_CHILD"
+                                , "id bigint not null"
+                                + ", parent_id bigint not null"
+                                + ", primary key (id)"
+                                )
+                .create()
+                .alter(childTableConstraint)
+                .insertValues("1, 1");
+
+        // WHEN
+        List<String> insertStatements = quickSqlTestData.generateInsertListFor("SELECT * FROM " + childTable.getTableName());
+
+        // THEN
+        assertThat(insertStatements).hasSize(2);
+        assertThat(insertStatements.get(0)).contains(parentTable.getTableName());
+        assertThat(insertStatements.get(1)).contains(childTable.getTableName());
+
+    }
+
     private int generateRandomPositiveInt() {
         Random random = new Random();
         return Math.abs(random.nextInt());
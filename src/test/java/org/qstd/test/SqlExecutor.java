@@ -41,4 +41,19 @@ public class SqlExecutor {
         }
     }
 
+    void executeBatch(String sql, List<Object[]> parameterRows) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Object[] parameters : parameterRows) {
+                for (int position = 0; position < parameters.length; position++) {
+                    statement.setObject(position + 1, parameters[position]);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to execute " + System.lineSeparator() + sql, e);
+        }
+    }
+
 }
@@ -0,0 +1,284 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.qstd.dbtype.DatabaseType;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates schemas made of chains of tables, each table of a chain referencing the previous one
+ * with a NOT NULL foreign key, and populates them deterministically from a seed.
+ * The rows of a table are identified from 1 to the number of rows by table. A row references the parent row
+ * <code>(id - 1) / fanOut + 1</code>, so that <code>fanOut</code> rows share the same parent row.
+ * With self-references, the row <code>id</code> references the row <code>id / 2</code> of its own table.
+ */
+public class SyntheticSchema {
+
+    private static final long FIRST_TIMESTAMP_MILLIS = Timestamp.valueOf("2020-01-01 00:00:00").getTime();
+
+    private final long seed;
+
+    private final int chainCount;
+
+    private final int chainDepth;
+
+    private final int rowCountByTable;
+
+    private final int fanOut;
+
+    private final int valueColumnCount;
+
+    private final boolean compositeKeys;
+
+    private final boolean selfReferences;
+
+    private SyntheticSchema(long seed, int chainCount, int chainDepth, int rowCountByTable
+                          , int fanOut, int valueColumnCount, boolean compositeKeys, boolean selfReferences) {
+        this.seed = seed;
+        this.chainCount = chainCount;
+        this.chainDepth = chainDepth;
+        this.rowCountByTable = rowCountByTable;
+        this.fanOut = fanOut;
+        this.valueColumnCount = valueColumnCount;
+        this.compositeKeys = compositeKeys;
+        this.selfReferences = selfReferences;
+    }
+
+    public static SyntheticSchema withSeed(long seed) {
+        return new SyntheticSchema(seed, 1, 1, 10, 1, 3, false, false);
+    }
+
+    public SyntheticSchema withChains(int chainCount) {
+        checkPositive(chainCount, "chain count");
+        return new SyntheticSchema(seed, chainCount, chainDepth, rowCountByTable, fanOut, valueColumnCount, compositeKeys, selfReferences);
+    }
+
+    /**
+     * @param chainDepth The number of foreign keys between the first and the last table of a chain
+     */
+    public SyntheticSchema withChainDepth(int chainDepth) {
+        if (chainDepth < 0) {
+            throw new IllegalArgumentException("The chain depth can't be negative: " + chainDepth);
+        }
+        return new SyntheticSchema(seed, chainCount, chainDepth, rowCountByTable, fanOut, valueColumnCount, compositeKeys, selfReferences);
+    }
+
+    public SyntheticSchema withRowsByTable(int rowCountByTable) {
+        checkPositive(rowCountByTable, "row count by table");
+        return new SyntheticSchema(seed, chainCount, chainDepth, rowCountByTable, fanOut, valueColumnCount, compositeKeys, selfReferences);
+    }
+
+    public SyntheticSchema withFanOut(int fanOut) {
+        checkPositive(fanOut, "fan-out");
+        return new SyntheticSchema(seed, chainCount, chainDepth, rowCountByTable, fanOut, valueColumnCount, compositeKeys, selfReferences);
+    }
+
+    public SyntheticSchema withValueColumns(int valueColumnCount) {
+        if (valueColumnCount < 0) {
+            throw new IllegalArgumentException("The value column count can't be negative: " + valueColumnCount);
+        }
+        return new SyntheticSchema(seed, chainCount, chainDepth, rowCountByTable, fanOut, valueColumnCount, compositeKeys, selfReferences);
+    }
+
+    public SyntheticSchema withCompositeKeys() {
+        return new SyntheticSchema(seed, chainCount, chainDepth, rowCountByTable, fanOut, valueColumnCount, true, selfReferences);
+    }
+
+    public SyntheticSchema withSelfReferences() {
+        return new SyntheticSchema(seed, chainCount, chainDepth, rowCountByTable, fanOut, valueColumnCount, compositeKeys, true);
+    }
+
+    private static void checkPositive(int value, String description) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("The " + description + " has to be positive: " + value);
+        }
+    }
+
+    public static DataSource buildEmbeddedDataSource(DatabaseType dbType, String databaseName) {
+        switch (dbType) {
+            case H2: return DataSourceBuilder.build("jdbc:h2:mem:" + databaseName, "user", "pwd");
+            case HSQLDB: return DataSourceBuilder.build("jdbc:hsqldb:mem:" + databaseName, "user", "pwd");
+            default: throw new IllegalArgumentException("No embedded database for " + dbType);
+        }
+    }
+
+    public Tables createIn(DataSource dataSource) {
+        List<List<TestTable>> tablesByChain = new ArrayList<>(chainCount);
+        for (int chain = 0; chain < chainCount; chain++) {
+            List<TestTable> chainTables = new ArrayList<>(chainDepth + 1);
+            for (int level = 0; level <= chainDepth; level++) {
+                TestTable parentTable = level == 0 ? null : chainTables.get(level - 1);
+                TestTable table = TestTable.buildUniqueTable(dataSource
+                                                           , "SYN_C" + chain + "_L" + level
+                                                           , buildColDescsAndConstraints(parentTable));
+                table.create();
+                if (selfReferences) {
+                    table.alter(buildSelfReferenceConstraint(table));
+                }
+                // The seed of a table only depends on its position, so that the rows don't depend on the creation order
+                Random random = new Random(seed + 31L * chain + level);
+                table.insertRows(buildRows(level, random));
+                chainTables.add(table);
+            }
+            tablesByChain.add(chainTables);
+        }
+        return new Tables(tablesByChain, rowCountByTable);
+    }
+
+    private String buildColDescsAndConstraints(TestTable parentTable) {
+        List<String> colDescsAndConstraints = new ArrayList<>();
+        colDescsAndConstraints.add("ID INTEGER NOT NULL");
+        if (compositeKeys) {
+            colDescsAndConstraints.add("TENANT_ID INTEGER NOT NULL");
+        }
+        if (parentTable != null) {
+            colDescsAndConstraints.add("PARENT_ID INTEGER NOT NULL");
+            if (compositeKeys) {
+                colDescsAndConstraints.add("PARENT_TENANT_ID INTEGER NOT NULL");
+            }
+        }
+        if (selfReferences) {
+            colDescsAndConstraints.add("MANAGER_ID INTEGER");
+            if (compositeKeys) {
+                colDescsAndConstraints.add("MANAGER_TENANT_ID INTEGER");
+            }
+        }
+        for (int valueColumn = 0; valueColumn < valueColumnCount; valueColumn++) {
+            colDescsAndConstraints.add("VAL_" + valueColumn + " " + sqlTypeOfValueColumn(valueColumn));
+        }
+        String keyColumns = compositeKeys ? "ID, TENANT_ID" : "ID";
+        colDescsAndConstraints.add("PRIMARY KEY (" + keyColumns + ")");
+        if (parentTable != null) {
+            String parentColumns = compositeKeys ? "PARENT_ID, PARENT_TENANT_ID" : "PARENT_ID";
+            colDescsAndConstraints.add("FOREIGN KEY (" + parentColumns + ") REFERENCES "
+                                     + parentTable.getTableName() + "(" + keyColumns + ")");
+        }
+        return String.join(", ", colDescsAndConstraints);
+    }
+
+    private String buildSelfReferenceConstraint(TestTable table) {
+        String managerColumns = compositeKeys ? "MANAGER_ID, MANAGER_TENANT_ID" : "MANAGER_ID";
+        String keyColumns = compositeKeys ? "ID, TENANT_ID" : "ID";
+        return "add foreign key (" + managerColumns + ") references " + table.getTableName() + "(" + keyColumns + ")";
+    }
+
+    private static String sqlTypeOfValueColumn(int valueColumn) {
+        switch (valueColumn % 4) {
+            case 0: return "VARCHAR(40)";
+            case 1: return "INTEGER";
+            case 2: return "DECIMAL(12, 2)";
+            default: return "TIMESTAMP";
+        }
+    }
+
+    private List<Object[]> buildRows(int level, Random random) {
+        List<Object[]> rows = new ArrayList<>(rowCountByTable);
+        for (int id = 1; id <= rowCountByTable; id++) {
+            List<Object> row = new ArrayList<>();
+            addKey(row, id);
+            if (level > 0) {
+                addKey(row, (id - 1) / fanOut + 1);
+            }
+            if (selfReferences) {
+                addKey(row, id == 1 ? null : id / 2);
+            }
+            for (int valueColumn = 0; valueColumn < valueColumnCount; valueColumn++) {
+                row.add(generateValue(valueColumn, random));
+            }
+            rows.add(row.toArray());
+        }
+        return rows;
+    }
+
+    private void addKey(List<Object> row, Integer id) {
+        row.add(id);
+        if (compositeKeys) {
+            row.add(id == null ? null : tenantOf(id));
+        }
+    }
+
+    private static int tenantOf(int id) {
+        return id % 3 + 1;
+    }
+
+    private static Object generateValue(int valueColumn, Random random) {
+        switch (valueColumn % 4) {
+            case 0: return "value " + random.nextInt(100_000);
+            case 1: return random.nextInt(1_000_000);
+            case 2: return BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+            default: return new Timestamp(FIRST_TIMESTAMP_MILLIS + random.nextInt(365 * 24 * 3600) * 1000L);
+        }
+    }
+
+    public static class Tables {
+
+        private final List<List<TestTable>> tablesByChain;
+
+        private final int rowCountByTable;
+
+        private Tables(List<List<TestTable>> tablesByChain, int rowCountByTable) {
+            this.tablesByChain = tablesByChain;
+            this.rowCountByTable = rowCountByTable;
+        }
+
+        public String getTableName(int chain, int level) {
+            return tablesByChain.get(chain).get(level).getTableName();
+        }
+
+        /**
+         * @return The name of the table of the chain referencing all the other tables of the chain
+         */
+        public String getLastTableName(int chain) {
+            List<TestTable> chainTables = tablesByChain.get(chain);
+            return chainTables.get(chainTables.size() - 1).getTableName();
+        }
+
+        public List<String> getTableNames() {
+            List<String> tableNames = new ArrayList<>();
+            for (List<TestTable> chainTables : tablesByChain) {
+                for (TestTable table : chainTables) {
+                    tableNames.add(table.getTableName());
+                }
+            }
+            return tableNames;
+        }
+
+        public int getTableCount() {
+            return tablesByChain.size() * tablesByChain.get(0).size();
+        }
+
+        public int getRowCountByTable() {
+            return rowCountByTable;
+        }
+
+        public void drop() {
+            for (List<TestTable> chainTables : tablesByChain) {
+                List<TestTable> tablesToDrop = new ArrayList<>(chainTables);
+                // The referencing tables are dropped first
+                Collections.reverse(tablesToDrop);
+                for (TestTable table : tablesToDrop) {
+                    table.drop();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2021-2022 the original author or authors.
+ */
+package org.qstd.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.qstd.QuickSqlTestData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SyntheticSchemaTest extends H2Config {
+
+    private final List<SyntheticSchema.Tables> createdTables = new ArrayList<>();
+
+    @AfterEach
+    public void drop_tables() {
+        for (SyntheticSchema.Tables tables : createdTables) {
+            tables.drop();
+        }
+    }
+
+    @Test public void
+    should_generate_the_rows_of_a_deep_foreign_key_chain_with_composite_keys_and_self_references() {
+
+        // GIVEN
+        SyntheticSchema.Tables tables = create(SyntheticSchema.withSeed(42)
+                                                              .withChainDepth(12)
+                                                              .withRowsByTable(20)
+                                                              .withCompositeKeys()
+                                                              .withSelfReferences());
+        String select = "SELECT * FROM " + tables.getLastTableName(0) + " WHERE ID = 5";
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        List<String> insertStatements = quickSqlTestData.generateInsertListFor(select);
+
+        // THEN
+        // The rows 5 and 2 of each table: the selected row 5 references the row 2,
+        // the nullable reference of the joined row 2 to the row 1 is not retrieved
+        assertThat(insertStatements).hasSize(2 * 13);
+        for (String tableName : tables.getTableNames()) {
+            assertThat(insertStatements).filteredOn(insert -> insert.startsWith("INSERT INTO " + tableName + "("))
+                                        .hasSize(2);
+        }
+
+    }
+
+    @Test public void
+    should_share_the_parent_rows_with_the_fan_out() {
+
+        // GIVEN
+        SyntheticSchema.Tables tables = create(SyntheticSchema.withSeed(42)
+                                                              .withRowsByTable(100)
+                                                              .withFanOut(50));
+        String select = "SELECT * FROM " + tables.getLastTableName(0);
+
+        // WHEN
+        QuickSqlTestData quickSqlTestData = QuickSqlTestData.buildFrom(DATA_SOURCE);
+        List<String> insertStatements = quickSqlTestData.generateInsertListFor(select);
+
+        // THEN
+        String parentTableName = tables.getTableName(0, 0);
+        assertThat(insertStatements).hasSize(102)
+                                    .filteredOn(insert -> insert.startsWith("INSERT INTO " + parentTableName + "("))
+                                    .hasSize(2);
+
+    }
+
+    @Test public void
+    should_create_hundreds_of_tables() {
+
+        // GIVEN
+        SyntheticSchema syntheticSchema = SyntheticSchema.withSeed(42)
+                                                         .withChains(20)
+                                                         .withChainDepth(10)
+                                                         .withRowsByTable(2);
+
+        // WHEN
+        SyntheticSchema.Tables tables = create(syntheticSchema);
+
+        // THEN
+        assertThat(tables.getTableCount()).isEqualTo(220);
+        assertThat(tables.getTableNames()).doesNotHaveDuplicates()
+                                          .hasSize(220);
+
+    }
+
+    @Test public void
+    should_populate_the_same_rows_from_the_same_seed() {
+
+        // GIVEN
+        SyntheticSchema syntheticSchema = SyntheticSchema.withSeed(7)
+                                                         .withChainDepth(2)
+                                                         .withValueColumns(8);
+
+        // WHEN
+        SyntheticSchema.Tables tables = create(syntheticSchema);
+        SyntheticSchema.Tables sameSeedTables = create(syntheticSchema);
+        SyntheticSchema.Tables otherSeedTables = create(SyntheticSchema.withSeed(8)
+                                                                       .withChainDepth(2)
+                                                                       .withValueColumns(8));
+
+        // THEN
+        for (int level = 0; level <= 2; level++) {
+            List<List<Object>> rows = readRows(tables.getTableName(0, level));
+            assertThat(rows).hasSize(10)
+                            .isEqualTo(readRows(sameSeedTables.getTableName(0, level)))
+                            .isNotEqualTo(readRows(otherSeedTables.getTableName(0, level)));
+        }
+
+    }
+
+    private SyntheticSchema.Tables create(SyntheticSchema syntheticSchema) {
+        SyntheticSchema.Tables tables = syntheticSchema.createIn(DATA_SOURCE);
+        createdTables.add(tables);
+        return tables;
+    }
+
+    private List<List<Object>> readRows(String tableName) {
+        String select = "SELECT * FROM " + tableName + " ORDER BY ID";
+        try (Connection connection = DATA_SOURCE.getConnection();
+             PreparedStatement statement = connection.prepareStatement(select);
+             ResultSet resultSet = statement.executeQuery()) {
+            List<List<Object>> rows = new ArrayList<>();
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                List<Object> row = new ArrayList<>(columnCount);
+                for (int column = 1; column <= columnCount; column++) {
+                    row.add(resultSet.getObject(column));
+                }
+                rows.add(row);
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to execute " + select, e);
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ import org.assertj.db.api.TableRowAssert;
 import org.assertj.db.type.Table;
 
 import javax.sql.DataSource;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -79,6 +80,16 @@ class TestTable {
         return this;
     }
 
+    TestTable insertRows(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return this;
+        }
+        String parameters = String.join(", ", Collections.nCopies(rows.get(0).length, "?"));
+        String insert = "INSERT INTO " + tableName + " VALUES (" + parameters + ")";
+        sqlExecutor.executeBatch(insert, rows);
+        return this;
+    }
+
     String getTableName() {
         return tableName;
     }